@@ -0,0 +1,89 @@
+package com.github.zawataki;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the overhead of {@link IntersectionMetrics}. With {@code
+ * enabled=false}, the public methods should be as fast as the unrecorded
+ * kernel and allocate nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionMetricsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    /**
+     * Crossing lines. Not final so as not to be folded.
+     */
+    private double x1 = 0;
+    private double y1 = 0;
+    private double x2 = 1;
+    private double y2 = 1;
+    private double x3 = 1;
+    private double y3 = 0;
+    private double x4 = 0;
+    private double y4 = 1;
+
+    private final double[] points =
+            new double[IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+
+    @Setup
+    public void setUp() {
+        if (enabled) {
+            IntersectionMetrics.enable();
+        } else {
+            IntersectionMetrics.disable();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        IntersectionMetrics.disable();
+    }
+
+    @Benchmark
+    public int computeIntersectionPoint() {
+        return IntersectionPoint.computeIntersectionPoint(x1, y1, x2, y2, x3,
+                y3, x4, y4, true, points, 0);
+    }
+
+    /**
+     * The kernel without recording the call, as the baseline
+     */
+    @Benchmark
+    public int computeIntersectionPointUnrecorded() {
+        return IntersectionPoint.computeIntersectionPoint(x1, y1, x2, y2, x3,
+                y3, x4, y4, true, null, points, 0);
+    }
+
+    @Benchmark
+    public int getIntersectionPointsIntoArray() {
+        return IntersectionPoint.getIntersectionPoints(0, 1, 1, 1, x1 - 1,
+                y1 - 1, x2 + 1, y2 + 1, false, points);
+    }
+
+    @Benchmark
+    public boolean intersects() {
+        return IntersectionPoint.intersects(x1, y1, x2, y2, x3, y3, x4, y4,
+                true);
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.zawataki;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for public methods of {@link IntersectionPoint}. Run with {@code
+ * ./gradlew jmh}, which also reports the allocation rate by the GC profiler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionPointBenchmark {
+
+    /**
+     * Inputs of each method for a kind of geometry
+     */
+    public enum InputCase {
+        PARALLEL(new Line2D.Double(0, 0, 1, 1), new Line2D.Double(0, 1, 1, 2),
+                new Point2D.Double(0.5, 1), new Line2D.Double(-1, 2, 2, 2)),
+        CROSSING(new Line2D.Double(0, 0, 1, 1), new Line2D.Double(1, 0, 0, 1),
+                new Point2D.Double(0.5, 0.5), new Line2D.Double(-1, -1, 2, 2)),
+        DISJOINT(new Line2D.Double(0, 0, 1, 1), new Line2D.Double(3, 0, 2, 1),
+                new Point2D.Double(5, 5), new Line2D.Double(5, 5, 6, 7)),
+        COLLINEAR(new Line2D.Double(0, 0, 2, 2), new Line2D.Double(1, 1, 3, 3),
+                new Point2D.Double(1.5, 1.5), new Line2D.Double(-1, 1, 2, 1)),
+        ENDPOINT_TOUCHING(new Line2D.Double(0, 0, 1, 1),
+                new Line2D.Double(1, 1, 2, 0), new Point2D.Double(1, 1),
+                new Line2D.Double(1, 1, 2, 0));
+
+        final Line2D line1;
+        final Line2D line2;
+        final Point2D point;
+
+        /**
+         * Line to intersect with the rectangle of benchmarks
+         */
+        final Line2D lineToRectangle;
+
+        InputCase(Line2D line1, Line2D line2, Point2D point,
+                Line2D lineToRectangle) {
+
+            this.line1 = line1;
+            this.line2 = line2;
+            this.point = point;
+            this.lineToRectangle = lineToRectangle;
+        }
+    }
+
+    static private final Rectangle2D RECTANGLE =
+            new Rectangle2D.Double(0, 1, 1, 1);
+
+    @Param
+    public InputCase inputCase;
+
+    private Line2D line1;
+    private Line2D line2;
+    private Point2D point;
+    private Line2D lineToRectangle;
+    private final Point2D result = new Point2D.Double();
+    private final double[] points =
+            new double[IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+
+    @Setup
+    public void setUp() {
+        line1 = inputCase.line1;
+        line2 = inputCase.line2;
+        point = inputCase.point;
+        lineToRectangle = inputCase.lineToRectangle;
+    }
+
+    @Benchmark
+    public Optional<Point2D> getIntersectionPoint() {
+        return IntersectionPoint.getIntersectionPoint(line1, line2);
+    }
+
+    @Benchmark
+    public Optional<Point2D> getIntersectionPointIncludingEndpoint() {
+        return IntersectionPoint.getIntersectionPoint(line1, line2, true);
+    }
+
+    @Benchmark
+    public int computeIntersectionPoint() {
+        return IntersectionPoint.computeIntersectionPoint(line1.getX1(),
+                line1.getY1(), line1.getX2(), line1.getY2(), line2.getX1(),
+                line2.getY1(), line2.getX2(), line2.getY2(), true, result);
+    }
+
+    @Benchmark
+    public boolean pointIsOnLine() {
+        return IntersectionPoint.pointIsOnLine(point, line1, false);
+    }
+
+    @Benchmark
+    public List<Point2D> getIntersectionPoints() {
+        return IntersectionPoint.getIntersectionPoints(RECTANGLE,
+                lineToRectangle, false);
+    }
+
+    @Benchmark
+    public int getIntersectionPointsIntoArray() {
+        return IntersectionPoint.getIntersectionPoints(RECTANGLE,
+                lineToRectangle, false, points);
+    }
+}
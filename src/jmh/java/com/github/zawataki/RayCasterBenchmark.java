@@ -0,0 +1,102 @@
+package com.github.zawataki;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link RayCaster} against getting intersection points of
+ * every rectangle and taking the nearest one
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RayCasterBenchmark {
+
+    static private final int RAY_COUNT = 100;
+
+    @Param({"100", "10000"})
+    public int rectangleCount;
+
+    private List<Rectangle2D> rectangles;
+    private RayCaster caster;
+    private final double[] rays = new double[RAY_COUNT * 4];
+    private final int[] hitRectangles = new int[RAY_COUNT];
+    private final double[] parameters = new double[RAY_COUNT];
+    private final double[] points =
+            new double[IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        rectangles = new ArrayList<>();
+        for (int r = 0; r < rectangleCount; r++) {
+            rectangles.add(new Rectangle2D.Double(random.nextDouble() * 1000,
+                    random.nextDouble() * 1000, random.nextDouble() * 10,
+                    random.nextDouble() * 10));
+        }
+        caster = RayCaster.of(rectangles);
+
+        for (int i = 0; i < RAY_COUNT; i++) {
+            final double angle = random.nextDouble() * 2 * Math.PI;
+            rays[4 * i] = random.nextDouble() * 1000;
+            rays[4 * i + 1] = random.nextDouble() * 1000;
+            rays[4 * i + 2] = Math.cos(angle);
+            rays[4 * i + 3] = Math.sin(angle);
+        }
+    }
+
+    @Benchmark
+    public int castAll() {
+        return caster.castAll(rays, RAY_COUNT, 1000, hitRectangles,
+                parameters, null, null);
+    }
+
+    /**
+     * The nearest intersection point of every rectangle, as the baseline
+     */
+    @Benchmark
+    public int nearestOfEveryRectangle() {
+        int hitCount = 0;
+        for (int i = 0; i < RAY_COUNT; i++) {
+            final double x1 = rays[4 * i];
+            final double y1 = rays[4 * i + 1];
+            final double x2 = x1 + rays[4 * i + 2] * 1000;
+            final double y2 = y1 + rays[4 * i + 3] * 1000;
+
+            double nearest = Double.POSITIVE_INFINITY;
+            for (Rectangle2D rectangle : rectangles) {
+                final int count = IntersectionPoint.getIntersectionPoints(
+                        rectangle.getX(), rectangle.getY(),
+                        rectangle.getWidth(), rectangle.getHeight(), x1, y1,
+                        x2, y2, true, points);
+                for (int n = 0; n < count; n++) {
+                    nearest = Math.min(nearest, Point2D.distance(x1, y1,
+                            points[2 * n], points[2 * n + 1]));
+                }
+            }
+            if (nearest < Double.POSITIVE_INFINITY) {
+                hitCount++;
+            }
+        }
+        return hitCount;
+    }
+}
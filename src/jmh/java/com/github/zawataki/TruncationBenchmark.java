@@ -0,0 +1,46 @@
+package com.github.zawataki;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the truncation to 5 decimal places used by every method of
+ * {@link IntersectionPoint}, compared with the {@link BigDecimal} rounding
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TruncationBenchmark {
+
+    /**
+     * A value with many decimal places. Not final so as not to be folded.
+     */
+    private double value = 0.1234567890123;
+
+    @Benchmark
+    public double truncate() {
+        return IntersectionPoint.truncate(value);
+    }
+
+    @Benchmark
+    public double truncateByBigDecimal() {
+        return BigDecimal.valueOf(value)
+                .setScale(5, RoundingMode.DOWN)
+                .stripTrailingZeros()
+                .doubleValue();
+    }
+}
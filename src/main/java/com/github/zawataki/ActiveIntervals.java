@@ -0,0 +1,131 @@
+package com.github.zawataki;
+
+import java.util.Arrays;
+
+/**
+ * Status structure of {@link SweepLineIntersector}: intervals of the lines
+ * crossed by the sweep line, along the axis perpendicular to the sweep.
+ * <p>
+ * The intervals are known in advance, so they are kept at the leaves of a
+ * complete binary tree in the order of their starts, and each node holds the
+ * maximum end of active intervals below it. A query visits only subtrees which
+ * have an overlapping interval, i.e. O((k + 1) log n) for k intervals found.
+ * Lines which the sweep line has passed are removed when a query meets them.
+ */
+final class ActiveIntervals {
+
+    /** Starts of intervals, in ascending order */
+    private final double[] starts;
+    /** Interval of each leaf */
+    private final int[] intervals;
+    /** Leaf of each interval */
+    private final int[] leaves;
+    private final double[] ends;
+    private final double[] sweepEnds;
+    private final int leafCount;
+    /** Maximum end of active intervals, {@code -Infinity} if none */
+    private final double[] maxEnds;
+
+    private double queryStart;
+    private double queryEnd;
+    private double sweepPosition;
+    private int[] found;
+    private int foundCount;
+
+    /**
+     * @param starts starts of intervals
+     * @param ends ends of intervals
+     * @param sweepEnds where the sweep line leaves each line
+     * @param count the number of intervals
+     */
+    ActiveIntervals(double[] starts, double[] ends, double[] sweepEnds,
+            int count) {
+
+        this.ends = ends;
+        this.sweepEnds = sweepEnds;
+
+        intervals = new int[count];
+        for (int i = 0; i < count; i++) {
+            intervals[i] = i;
+        }
+        IndexSort.sort(intervals, 0, count, starts);
+
+        this.starts = new double[count];
+        leaves = new int[count];
+        for (int leaf = 0; leaf < count; leaf++) {
+            this.starts[leaf] = starts[intervals[leaf]];
+            leaves[intervals[leaf]] = leaf;
+        }
+
+        int leafCount = 1;
+        while (leafCount < count) {
+            leafCount *= 2;
+        }
+        this.leafCount = leafCount;
+        maxEnds = new double[leafCount * 2];
+        Arrays.fill(maxEnds, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Add interval {@code i}, i.e. the sweep line reaches its line
+     */
+    void add(int i) {
+        final double end = ends[i];
+        for (int node = leafCount + leaves[i];
+                node > 0 && maxEnds[node] < end; node >>>= 1) {
+            maxEnds[node] = end;
+        }
+    }
+
+    /**
+     * Find active intervals overlapping [{@code start}, {@code end}] of lines
+     * not yet passed by the sweep line at {@code sweepPosition}.
+     *
+     * @param found receives the found intervals, at least as long as the number
+     * of intervals
+     * @return the number of found intervals
+     */
+    int find(double start, double end, double sweepPosition, int[] found) {
+        queryStart = start;
+        queryEnd = end;
+        this.sweepPosition = sweepPosition;
+        this.found = found;
+        foundCount = 0;
+
+        find(1, 0, leafCount);
+
+        this.found = null;
+        return foundCount;
+    }
+
+    /**
+     * Find under {@code node} covering leaves [{@code from}, {@code to})
+     */
+    private void find(int node, int from, int to) {
+        if (from >= starts.length || starts[from] > queryEnd ||
+                maxEnds[node] < queryStart) {
+            return;
+        }
+
+        if (node >= leafCount) {
+            final int i = intervals[from];
+            if (sweepEnds[i] < sweepPosition) {
+                remove(node);
+            } else {
+                found[foundCount++] = i;
+            }
+            return;
+        }
+
+        final int middle = (from + to) >>> 1;
+        find(node * 2, from, middle);
+        find(node * 2 + 1, middle, to);
+    }
+
+    private void remove(int leaf) {
+        maxEnds[leaf] = Double.NEGATIVE_INFINITY;
+        for (int node = leaf >>> 1; node > 0; node >>>= 1) {
+            maxEnds[node] = Math.max(maxEnds[node * 2], maxEnds[node * 2 + 1]);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.zawataki;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Sink writing records into a {@link ByteBuffer} from its position, heap or
+ * direct. A record is the query index as {@code int}, the number of
+ * intersection points as {@code int}, and {@code x, y} as {@code double} for
+ * each intersection point, in the byte order of the buffer:
+ * <pre>
+ * | query | count | x1 | y1 | x2 | y2 | ...
+ * |   4   |   4   | 8  | 8  | 8  | 8  |
+ * </pre>
+ * The count is written when the record ends. If the buffer overflows, the
+ * position is reset to the start of the record, so the buffer keeps only
+ * complete records.
+ * <p>
+ * Not thread safe.
+ */
+public final class ByteBufferSink implements IntersectionSink {
+
+    /**
+     * Bytes of the query index and the count of a record
+     */
+    static public final int HEADER_BYTES = 8;
+
+    /**
+     * Bytes of an intersection point
+     */
+    static public final int POINT_BYTES = 16;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Start of the current record, or -1 if not in a record
+     */
+    private int recordStart = -1;
+    private int pointCount;
+    private int recordCount;
+
+    /**
+     * @param buffer the buffer to write records into
+     */
+    public ByteBufferSink(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the number of records completely written
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @throws BufferOverflowException if the buffer has no space for the
+     * header
+     * @throws IllegalStateException if the previous record is not ended
+     */
+    @Override
+    public void beginRecord(int query) {
+        if (recordStart >= 0) {
+            throw new IllegalStateException("Record is not ended");
+        }
+        if (buffer.remaining() < HEADER_BYTES) {
+            throw new BufferOverflowException();
+        }
+
+        recordStart = buffer.position();
+        pointCount = 0;
+        buffer.putInt(query);
+        buffer.putInt(0);
+    }
+
+    /**
+     * @throws BufferOverflowException if the buffer has no space for the
+     * point. The current record is discarded.
+     * @throws IllegalStateException if no record is begun
+     */
+    @Override
+    public void addPoint(double x, double y) {
+        if (recordStart < 0) {
+            throw new IllegalStateException("Record is not begun");
+        }
+        if (buffer.remaining() < POINT_BYTES) {
+            buffer.position(recordStart);
+            recordStart = -1;
+            throw new BufferOverflowException();
+        }
+
+        buffer.putDouble(x);
+        buffer.putDouble(y);
+        pointCount++;
+    }
+
+    /**
+     * @throws IllegalStateException if no record is begun
+     */
+    @Override
+    public void endRecord() {
+        if (recordStart < 0) {
+            throw new IllegalStateException("Record is not begun");
+        }
+
+        buffer.putInt(recordStart + 4, pointCount);
+        recordStart = -1;
+        recordCount++;
+    }
+}
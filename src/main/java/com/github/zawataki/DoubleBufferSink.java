@@ -0,0 +1,113 @@
+package com.github.zawataki;
+
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+
+/**
+ * Sink writing records into a {@link DoubleBuffer} from its position, e.g. a
+ * view of a direct {@link java.nio.ByteBuffer}. A record is the query index,
+ * the number of intersection points, and {@code x, y} for each intersection
+ * point, all as {@code double}:
+ * <pre>
+ * | query | count | x1 | y1 | x2 | y2 | ...
+ * </pre>
+ * The count is written when the record ends. If the buffer overflows, the
+ * position is reset to the start of the record, so the buffer keeps only
+ * complete records.
+ * <p>
+ * Not thread safe.
+ */
+public final class DoubleBufferSink implements IntersectionSink {
+
+    /**
+     * Elements of the query index and the count of a record
+     */
+    static public final int HEADER_LENGTH = 2;
+
+    /**
+     * Elements of an intersection point
+     */
+    static public final int POINT_LENGTH = 2;
+
+    private final DoubleBuffer buffer;
+
+    /**
+     * Start of the current record, or -1 if not in a record
+     */
+    private int recordStart = -1;
+    private int pointCount;
+    private int recordCount;
+
+    /**
+     * @param buffer the buffer to write records into
+     */
+    public DoubleBufferSink(DoubleBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public DoubleBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the number of records completely written
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @throws BufferOverflowException if the buffer has no space for the
+     * header
+     * @throws IllegalStateException if the previous record is not ended
+     */
+    @Override
+    public void beginRecord(int query) {
+        if (recordStart >= 0) {
+            throw new IllegalStateException("Record is not ended");
+        }
+        if (buffer.remaining() < HEADER_LENGTH) {
+            throw new BufferOverflowException();
+        }
+
+        recordStart = buffer.position();
+        pointCount = 0;
+        buffer.put(query);
+        buffer.put(0);
+    }
+
+    /**
+     * @throws BufferOverflowException if the buffer has no space for the
+     * point. The current record is discarded.
+     * @throws IllegalStateException if no record is begun
+     */
+    @Override
+    public void addPoint(double x, double y) {
+        if (recordStart < 0) {
+            throw new IllegalStateException("Record is not begun");
+        }
+        if (buffer.remaining() < POINT_LENGTH) {
+            buffer.position(recordStart);
+            recordStart = -1;
+            throw new BufferOverflowException();
+        }
+
+        buffer.put(x);
+        buffer.put(y);
+        pointCount++;
+    }
+
+    /**
+     * @throws IllegalStateException if no record is begun
+     */
+    @Override
+    public void endRecord() {
+        if (recordStart < 0) {
+            throw new IllegalStateException("Record is not begun");
+        }
+
+        buffer.put(recordStart + 1, pointCount);
+        recordStart = -1;
+        recordCount++;
+    }
+}
@@ -0,0 +1,364 @@
+package com.github.zawataki;
+
+import java.math.BigInteger;
+
+/**
+ * Intersection points of lines and rectangles of integer coordinates, e.g.
+ * fixed-point values whose scale is decided by the caller. Orientations are
+ * computed exactly in integers, so no tolerance is needed and results don't
+ * depend on the floating-point environment.
+ * <p>
+ * Unlike {@link IntersectionPoint}, a point is on a line only if it's exactly
+ * on it. Parallel and collinear lines, including lines of zero length, are
+ * regarded as {@link IntersectionPoint#PARALLEL} same as the determinant of
+ * zero. The intersection point is rounded toward negative infinity to
+ * integers, and it's an endpoint if and only if an endpoint is exactly on the
+ * other line.
+ * <p>
+ * Coordinates less than 2^30 in magnitude are computed in {@code long}, and
+ * larger ones in {@link BigInteger}.
+ */
+public final class FixedPointIntersectionPoint {
+
+    /**
+     * Magnitude below which products of differences of coordinates and
+     * their differences fit in {@code long}
+     */
+    static private final long SMALL_LIMIT = 1L << 30;
+
+    private FixedPointIntersectionPoint() {
+    }
+
+    /**
+     * Get intersection point from a line from ({@code x1}, {@code y1}) to
+     * ({@code x2}, {@code y2}) and a line from ({@code x3}, {@code y3}) to
+     * ({@code x4}, {@code y4})
+     *
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param result x and y of the intersection point are stored at {@code
+     * offset} and {@code offset + 1} when {@link IntersectionPoint#INTERSECTED}
+     * is returned. Not modified otherwise. May be {@code null} if only the
+     * status is needed.
+     * @param offset the index of x in {@code result}
+     *
+     * @return {@link IntersectionPoint#INTERSECTED}, {@link
+     * IntersectionPoint#PARALLEL} or {@link IntersectionPoint#NOT_ON_LINE}
+     */
+    static public int computeIntersectionPoint(int x1, int y1, int x2, int y2,
+            int x3, int y3, int x4, int y4, boolean includesEndpoint,
+            int[] result, int offset) {
+
+        return computeIntersectionPoint(x1, y1, x2, y2, x3, y3, x4, y4,
+                includesEndpoint, result, null, offset);
+    }
+
+    /**
+     * Same as {@link #computeIntersectionPoint(int, int, int, int, int, int,
+     * int, int, boolean, int[], int)} for {@code long} coordinates
+     */
+    static public int computeIntersectionPoint(long x1, long y1, long x2,
+            long y2, long x3, long y3, long x4, long y4,
+            boolean includesEndpoint, long[] result, int offset) {
+
+        return computeIntersectionPoint(x1, y1, x2, y2, x3, y3, x4, y4,
+                includesEndpoint, null, result, offset);
+    }
+
+    /**
+     * Get intersection points of pairs of lines packed in interleaved arrays,
+     * {@code x1, y1, x2, y2} for each line. Each pair gives the same result
+     * as {@link #computeIntersectionPoint(int, int, int, int, int, int, int,
+     * int, boolean, int[], int)}.
+     *
+     * @param lines1 1st lines, at least {@code count * STRIDE} long
+     * @param lines2 2nd lines, at least {@code count * STRIDE} long
+     * @param count the number of pairs
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param intersected {@code true} is stored at {@code i} if the
+     * {@code i}-th pair is intersected. Otherwise {@code false}. At least
+     * {@code count} long.
+     * @param points the intersection point of the {@code i}-th pair is stored
+     * at {@code 2 * i} and {@code 2 * i + 1}. Not modified otherwise. At least
+     * {@code 2 * count} long.
+     *
+     * @return the number of intersected pairs
+     *
+     * @see SegmentBatch#STRIDE
+     */
+    static public int getIntersectionPoints(int[] lines1, int[] lines2,
+            int count, boolean includesEndpoint, boolean[] intersected,
+            int[] points) {
+
+        int intersectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            final int l = i * SegmentBatch.STRIDE;
+            intersected[i] = computeIntersectionPoint(lines1[l],
+                    lines1[l + 1], lines1[l + 2], lines1[l + 3], lines2[l],
+                    lines2[l + 1], lines2[l + 2], lines2[l + 3],
+                    includesEndpoint, points, null, 2 * i) ==
+                    IntersectionPoint.INTERSECTED;
+            if (intersected[i]) {
+                intersectedCount++;
+            }
+        }
+
+        return intersectedCount;
+    }
+
+    /**
+     * Get intersection points from a rectangle of ({@code x}, {@code y},
+     * {@code width}, {@code height}) and a line from ({@code x1}, {@code y1})
+     * to ({@code x2}, {@code y2}). Same as {@link
+     * IntersectionPoint#getIntersectionPoints(double, double, double, double,
+     * double, double, double, double, boolean, double[])}, the upper edge is
+     * at {@code y} and the lower edge is at {@code y - height}, and the edges
+     * are checked in the order of upper, lower, left and right.
+     *
+     * @param includesEndpoint If {@code false} and only one intersection point
+     * is found, it's excluded if it's an endpoint of the line or a vertex of
+     * the rectangle
+     * @param points the {@code n}-th distinct intersection point is stored at
+     * {@code 2 * n} and {@code 2 * n + 1}. At least {@code 2 *
+     * MAX_RECTANGLE_POINTS} long.
+     *
+     * @return the number of intersection points
+     *
+     * @see IntersectionPoint#MAX_RECTANGLE_POINTS
+     */
+    static public int getIntersectionPoints(int x, int y, int width,
+            int height, int x1, int y1, int x2, int y2,
+            boolean includesEndpoint, int[] points) {
+
+        return getIntersectionPoints(x, y, (long) x + width, (long) y - height,
+                x1, y1, x2, y2, includesEndpoint, points, null);
+    }
+
+    /**
+     * Same as {@link #getIntersectionPoints(int, int, int, int, int, int,
+     * int, int, boolean, int[])} for {@code long} coordinates. {@code x +
+     * width} and {@code y - height} must not overflow.
+     */
+    static public int getIntersectionPoints(long x, long y, long width,
+            long height, long x1, long y1, long x2, long y2,
+            boolean includesEndpoint, long[] points) {
+
+        return getIntersectionPoints(x, y, x + width, y - height, x1, y1, x2,
+                y2, includesEndpoint, null, points);
+    }
+
+    static private int getIntersectionPoints(long left, long upper,
+            long right, long lower, long x1, long y1, long x2, long y2,
+            boolean includesEndpoint, int[] intPoints, long[] longPoints) {
+
+        int count = 0;
+        // upper line
+        count = addIntersectionPoint(left, upper, right, upper, x1, y1, x2, y2,
+                intPoints, longPoints, count);
+        // lower line
+        count = addIntersectionPoint(left, lower, right, lower, x1, y1, x2, y2,
+                intPoints, longPoints, count);
+        // left line
+        count = addIntersectionPoint(left, upper, left, lower, x1, y1, x2, y2,
+                intPoints, longPoints, count);
+        // right line
+        count = addIntersectionPoint(right, upper, right, lower, x1, y1, x2, y2,
+                intPoints, longPoints, count);
+
+        if (includesEndpoint || count != 1) {
+            return count;
+        }
+
+        final long px = valueAt(intPoints, longPoints, 0);
+        final long py = valueAt(intPoints, longPoints, 1);
+        if (px == x1 && py == y1 || px == x2 && py == y2 ||
+                (px == left || px == right) && (py == upper || py == lower)) {
+            return 0;
+        }
+
+        return count;
+    }
+
+    static private long valueAt(int[] intPoints, long[] longPoints,
+            int index) {
+
+        return intPoints != null ? intPoints[index] : longPoints[index];
+    }
+
+    /**
+     * Add the intersection point of an edge of a rectangle and a line,
+     * including endpoints, unless it's already added
+     *
+     * @return the number of points after adding
+     */
+    static private int addIntersectionPoint(long ex1, long ey1, long ex2,
+            long ey2, long x1, long y1, long x2, long y2, int[] intPoints,
+            long[] longPoints, int count) {
+
+        // The point on the line of int coordinates fits in int
+        final int status = computeIntersectionPoint(ex1, ey1, ex2, ey2, x1, y1,
+                x2, y2, true, intPoints, longPoints, 2 * count);
+        if (status != IntersectionPoint.INTERSECTED) {
+            return count;
+        }
+
+        final long px = valueAt(intPoints, longPoints, 2 * count);
+        final long py = valueAt(intPoints, longPoints, 2 * count + 1);
+        for (int n = 0; n < count; n++) {
+            if (valueAt(intPoints, longPoints, 2 * n) == px &&
+                    valueAt(intPoints, longPoints, 2 * n + 1) == py) {
+                return count;
+            }
+        }
+
+        return count + 1;
+    }
+
+    static private int computeIntersectionPoint(long x1, long y1, long x2,
+            long y2, long x3, long y3, long x4, long y4,
+            boolean includesEndpoint, int[] intResult, long[] longResult,
+            int offset) {
+
+        final boolean small =
+                isSmall(x1, y1, x2, y2) && isSmall(x3, y3, x4, y4);
+
+        if (crossSign(small, x1, y1, x2, y2, x3, y3, x4, y4) == 0) {
+            return IntersectionPoint.PARALLEL;
+        }
+
+        // Sides of endpoints of each line against the other line
+        final int side1 = crossSign(small, x3, y3, x4, y4, x3, y3, x1, y1);
+        final int side2 = crossSign(small, x3, y3, x4, y4, x3, y3, x2, y2);
+        final int side3 = crossSign(small, x1, y1, x2, y2, x1, y1, x3, y3);
+        final int side4 = crossSign(small, x1, y1, x2, y2, x1, y1, x4, y4);
+        if (side1 * side2 > 0 || side3 * side4 > 0) {
+            return IntersectionPoint.NOT_ON_LINE;
+        }
+
+        // An endpoint on the other line is the intersection point
+        final boolean atEndpoint =
+                side1 == 0 || side2 == 0 || side3 == 0 || side4 == 0;
+        if (atEndpoint && !includesEndpoint) {
+            return IntersectionPoint.NOT_ON_LINE;
+        }
+        if (intResult == null && longResult == null) {
+            return IntersectionPoint.INTERSECTED;
+        }
+
+        final long x;
+        final long y;
+        if (side1 == 0) {
+            x = x1;
+            y = y1;
+        } else if (side2 == 0) {
+            x = x2;
+            y = y2;
+        } else if (side3 == 0) {
+            x = x3;
+            y = y3;
+        } else if (side4 == 0) {
+            x = x4;
+            y = y4;
+        } else if (small) {
+            // P1 + t (P2 - P1) where t = numerator / denominator in (0, 1)
+            final long numerator = cross(x1, y1, x3, y3, x3, y3, x4, y4);
+            final long denominator = cross(x1, y1, x2, y2, x3, y3, x4, y4);
+            x = x1 + multiplyFloorDivide(x2 - x1, numerator, denominator);
+            y = y1 + multiplyFloorDivide(y2 - y1, numerator, denominator);
+        } else {
+            final BigInteger numerator = bigCross(x1, y1, x3, y3, x3, y3, x4,
+                    y4);
+            final BigInteger denominator = bigCross(x1, y1, x2, y2, x3, y3,
+                    x4, y4);
+            x = x1 + floorDivide(BigInteger.valueOf(x2)
+                    .subtract(BigInteger.valueOf(x1))
+                    .multiply(numerator), denominator).longValueExact();
+            y = y1 + floorDivide(BigInteger.valueOf(y2)
+                    .subtract(BigInteger.valueOf(y1))
+                    .multiply(numerator), denominator).longValueExact();
+        }
+
+        if (intResult != null) {
+            intResult[offset] = (int) x;
+            intResult[offset + 1] = (int) y;
+        }
+        if (longResult != null) {
+            longResult[offset] = x;
+            longResult[offset + 1] = y;
+        }
+
+        return IntersectionPoint.INTERSECTED;
+    }
+
+    static private boolean isSmall(long x1, long y1, long x2, long y2) {
+        return -SMALL_LIMIT < x1 && x1 < SMALL_LIMIT &&
+                -SMALL_LIMIT < y1 && y1 < SMALL_LIMIT &&
+                -SMALL_LIMIT < x2 && x2 < SMALL_LIMIT &&
+                -SMALL_LIMIT < y2 && y2 < SMALL_LIMIT;
+    }
+
+    /**
+     * Get the sign of the cross product of a vector from ({@code ax}, {@code
+     * ay}) to ({@code bx}, {@code by}) and a vector from ({@code cx}, {@code
+     * cy}) to ({@code dx}, {@code dy})
+     */
+    static private int crossSign(boolean small, long ax, long ay, long bx,
+            long by, long cx, long cy, long dx, long dy) {
+
+        if (small) {
+            return Long.signum(cross(ax, ay, bx, by, cx, cy, dx, dy));
+        }
+        return bigCross(ax, ay, bx, by, cx, cy, dx, dy).signum();
+    }
+
+    /**
+     * The cross product of coordinates less than {@link #SMALL_LIMIT} in
+     * magnitude
+     */
+    static private long cross(long ax, long ay, long bx, long by, long cx,
+            long cy, long dx, long dy) {
+
+        return (bx - ax) * (dy - cy) - (by - ay) * (dx - cx);
+    }
+
+    static private BigInteger bigCross(long ax, long ay, long bx, long by,
+            long cx, long cy, long dx, long dy) {
+
+        final BigInteger abx =
+                BigInteger.valueOf(bx).subtract(BigInteger.valueOf(ax));
+        final BigInteger aby =
+                BigInteger.valueOf(by).subtract(BigInteger.valueOf(ay));
+        final BigInteger cdx =
+                BigInteger.valueOf(dx).subtract(BigInteger.valueOf(cx));
+        final BigInteger cdy =
+                BigInteger.valueOf(dy).subtract(BigInteger.valueOf(cy));
+
+        return abx.multiply(cdy).subtract(aby.multiply(cdx));
+    }
+
+    /**
+     * Get {@code floor(a * b / c)}, in {@code long} if the product fits
+     */
+    static private long multiplyFloorDivide(long a, long b, long c) {
+        if (a == 0 || Math.abs(a) <= Long.MAX_VALUE / Math.abs(b)) {
+            return Math.floorDiv(a * b, c);
+        }
+
+        return floorDivide(
+                BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)),
+                BigInteger.valueOf(c)).longValueExact();
+    }
+
+    static private BigInteger floorDivide(BigInteger dividend,
+            BigInteger divisor) {
+
+        final BigInteger[] quotientAndRemainder =
+                dividend.divideAndRemainder(divisor);
+        if (quotientAndRemainder[1].signum() != 0 &&
+                quotientAndRemainder[1].signum() != divisor.signum()) {
+            return quotientAndRemainder[0].subtract(BigInteger.ONE);
+        }
+        return quotientAndRemainder[0];
+    }
+}
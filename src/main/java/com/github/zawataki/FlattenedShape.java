@@ -0,0 +1,168 @@
+package com.github.zawataki;
+
+import java.awt.Shape;
+import java.awt.geom.Line2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable outline of a {@link Shape} flattened into line segments once, to
+ * get intersection points with many lines. Curves are flattened by {@link
+ * Shape#getPathIterator(java.awt.geom.AffineTransform, double)}, and each
+ * subpath is split into monotone chains with bounds, so most edges are
+ * rejected without computing the intersection point. Each edge gives the
+ * same result as {@link IntersectionPoint#getIntersectionPoint(Line2D,
+ * Line2D, boolean)} including endpoints.
+ * <p>
+ * Coordinates of the path are used as they are. Unlike {@link
+ * IntersectionPoint#getIntersectionPoints(Rectangle2D, Line2D, boolean)}, the
+ * path of a {@link java.awt.geom.RectangularShape} spans from {@code y} to
+ * {@code y + height}.
+ */
+public final class FlattenedShape {
+
+    /**
+     * Packed vertices of all subpaths, {@code x, y} for each
+     */
+    private final double[] vertices;
+    private final List<MonotoneChains> subpaths;
+    private final int edgeCount;
+
+    private FlattenedShape(double[] vertices, List<MonotoneChains> subpaths) {
+        this.vertices = vertices;
+        this.subpaths = subpaths;
+
+        int count = 0;
+        for (MonotoneChains chains : subpaths) {
+            count += chains.edgeCount;
+        }
+        edgeCount = count;
+    }
+
+    /**
+     * Flatten a given shape
+     *
+     * @param shape the specified shape. Later changes of it don't affect the
+     * flattened shape.
+     * @param flatness the maximum distance between the flattened edges and
+     * the curves
+     *
+     * @return a flattened shape
+     *
+     * @throws IllegalArgumentException if {@code flatness} is negative
+     */
+    static public FlattenedShape of(Shape shape, double flatness) {
+        final List<MonotoneChains> subpaths = new ArrayList<>();
+        double[] vertices = new double[64];
+        int size = 0;
+        int subpathStart = 0;
+        final double[] coordinates = new double[6];
+
+        for (PathIterator path = shape.getPathIterator(null, flatness);
+                !path.isDone(); path.next()) {
+            final int segment = path.currentSegment(coordinates);
+
+            if (segment == PathIterator.SEG_CLOSE) {
+                // The edge back to the start is implicit in a closed subpath
+                if (size - subpathStart >= 4 &&
+                        vertices[size - 2] == vertices[subpathStart] &&
+                        vertices[size - 1] == vertices[subpathStart + 1]) {
+                    size -= 2;
+                }
+                subpaths.add(subpath(vertices, subpathStart, size, true));
+                // The next segment starts from the start of the closed one
+                if (size > subpathStart) {
+                    if (size + 2 > vertices.length) {
+                        vertices = Arrays.copyOf(vertices, size * 2);
+                    }
+                    vertices[size] = vertices[subpathStart];
+                    vertices[size + 1] = vertices[subpathStart + 1];
+                    subpathStart = size;
+                    size += 2;
+                }
+                continue;
+            }
+
+            if (segment == PathIterator.SEG_MOVETO) {
+                subpaths.add(subpath(vertices, subpathStart, size, false));
+                subpathStart = size;
+            }
+            if (size + 2 > vertices.length) {
+                vertices = Arrays.copyOf(vertices, size * 2);
+            }
+            vertices[size++] = coordinates[0];
+            vertices[size++] = coordinates[1];
+        }
+        subpaths.add(subpath(vertices, subpathStart, size, false));
+        subpaths.removeIf(chains -> chains.edgeCount == 0);
+
+        return new FlattenedShape(Arrays.copyOf(vertices, size), subpaths);
+    }
+
+    /**
+     * @param from the index of x of the 1st vertex
+     * @param to the index after y of the last vertex
+     */
+    static private MonotoneChains subpath(double[] vertices, int from, int to,
+            boolean closed) {
+
+        return new MonotoneChains(Arrays.copyOfRange(vertices, from, to),
+                (to - from) / 2, closed);
+    }
+
+    /**
+     * @return the number of line segments of all subpaths
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Get intersection points of edges of this and a given line
+     *
+     * @param line the specified line
+     * @param includesEndpoint Same as {@link
+     * IntersectionPoint#getIntersectionPoints(Rectangle2D, Line2D, boolean)},
+     * where vertices of the flattened edges are regarded as vertices of the
+     * rectangle
+     *
+     * @return list of distinct intersection points in the order of edges.
+     * Empty list if not intersected.
+     */
+    public List<Point2D> getIntersectionPoints(Line2D line,
+            boolean includesEndpoint) {
+
+        final Set<Point2D> points = new LinkedHashSet<>();
+        for (MonotoneChains chains : subpaths) {
+            chains.addIntersectionPoints(line.getX1(), line.getY1(),
+                    line.getX2(), line.getY2(), points);
+        }
+
+        if (!includesEndpoint && points.size() == 1) {
+            final Point2D point = points.iterator().next();
+            if (point.equals(line.getP1()) || point.equals(line.getP2()) ||
+                    isVertex(point)) {
+                return Collections.emptyList();
+            }
+        }
+
+        return new ArrayList<>(points);
+    }
+
+    private boolean isVertex(Point2D point) {
+        for (int v = 0; v < vertices.length; v += 2) {
+            if (point.getX() == vertices[v] &&
+                    point.getY() == vertices[v + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.util.Collection;
+
+/**
+ * Intersection points of lines and rectangles of {@code float} coordinates,
+ * e.g. lines packed in {@code float} arrays to halve their memory. Each
+ * coordinate is widened to {@code double} exactly, so the results are same as
+ * {@link IntersectionPoint} for the widened coordinates. Intersection points
+ * are stored in {@code double}, as a value truncated to 5 decimal places is
+ * not kept by {@code float} in general.
+ */
+public final class FloatIntersectionPoint {
+
+    private FloatIntersectionPoint() {
+    }
+
+    /**
+     * Pack given lines into an interleaved array, {@code x1, y1, x2, y2} for
+     * each line in iteration order. Coordinates are rounded to the nearest
+     * {@code float}.
+     *
+     * @param lines the specified lines
+     *
+     * @return an array of {@code lines.size() * STRIDE} length
+     *
+     * @see SegmentBatch#STRIDE
+     */
+    static public float[] pack(Collection<? extends Line2D> lines) {
+        final float[] packed = new float[lines.size() * SegmentBatch.STRIDE];
+
+        int l = 0;
+        for (Line2D line : lines) {
+            packed[l++] = (float) line.getX1();
+            packed[l++] = (float) line.getY1();
+            packed[l++] = (float) line.getX2();
+            packed[l++] = (float) line.getY2();
+        }
+
+        return packed;
+    }
+
+    /**
+     * Same as {@link IntersectionPoint#computeIntersectionPoint(double,
+     * double, double, double, double, double, double, double, boolean,
+     * double[], int)} for {@code float} coordinates
+     */
+    static public int computeIntersectionPoint(float x1, float y1, float x2,
+            float y2, float x3, float y3, float x4, float y4,
+            boolean includesEndpoint, double[] result, int offset) {
+
+        return IntersectionPoint.computeIntersectionPoint(x1, y1, x2, y2, x3,
+                y3, x4, y4, includesEndpoint, result, offset);
+    }
+
+    /**
+     * Get intersection points of pairs of lines packed in interleaved arrays,
+     * {@code x1, y1, x2, y2} for each line. Same as {@link
+     * SegmentBatch#getIntersectionPoints(double[], double[], int, boolean,
+     * boolean[], double[])} for {@code float} coordinates.
+     *
+     * @param lines1 1st lines, at least {@code count * STRIDE} long
+     * @param lines2 2nd lines, at least {@code count * STRIDE} long
+     * @param count the number of pairs
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param intersected {@code true} is stored at {@code i} if the
+     * {@code i}-th pair is intersected. Otherwise {@code false}. At least
+     * {@code count} long.
+     * @param points the intersection point of the {@code i}-th pair is stored
+     * at {@code 2 * i} and {@code 2 * i + 1}. Otherwise NaN. At least {@code 2
+     * * count} long.
+     *
+     * @return the number of intersected pairs
+     */
+    static public int getIntersectionPoints(float[] lines1, float[] lines2,
+            int count, boolean includesEndpoint, boolean[] intersected,
+            double[] points) {
+
+        int intersectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            final int l = i * SegmentBatch.STRIDE;
+            intersected[i] = IntersectionPoint.computeIntersectionPoint(
+                    lines1[l], lines1[l + 1], lines1[l + 2], lines1[l + 3],
+                    lines2[l], lines2[l + 1], lines2[l + 2], lines2[l + 3],
+                    includesEndpoint, null, points, 2 * i) ==
+                    IntersectionPoint.INTERSECTED;
+
+            if (intersected[i]) {
+                intersectedCount++;
+            } else {
+                points[2 * i] = Double.NaN;
+                points[2 * i + 1] = Double.NaN;
+            }
+        }
+
+        return intersectedCount;
+    }
+
+    /**
+     * Same as {@link IntersectionPoint#getIntersectionPoints(double, double,
+     * double, double, double, double, double, double, boolean, double[])} for
+     * {@code float} coordinates. The right and the lower edges are computed
+     * in {@code double}.
+     */
+    static public int getIntersectionPoints(float x, float y, float width,
+            float height, float x1, float y1, float x2, float y2,
+            boolean includesEndpoint, double[] points) {
+
+        return IntersectionPoint.getIntersectionPoints(x, y, width, height, x1,
+                y1, x2, y2, includesEndpoint, points);
+    }
+
+    /**
+     * Same as {@link IntersectionPoint#pointIsOnLine(double, double, double,
+     * double, double, double, boolean)} for {@code float} coordinates
+     */
+    static public boolean pointIsOnLine(float px, float py, float x1,
+            float y1, float x2, float y2, boolean includesEndpoint) {
+
+        return IntersectionPoint.pointIsOnLine(px, py, x1, y1, x2, y2,
+                includesEndpoint);
+    }
+}
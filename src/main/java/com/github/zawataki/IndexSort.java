@@ -0,0 +1,81 @@
+package com.github.zawataki;
+
+/**
+ * Sort of indices by primitive keys without boxing
+ */
+final class IndexSort {
+
+    private IndexSort() {
+    }
+
+    /**
+     * Stable sort of {@code indices[from, to)} in ascending order of {@code
+     * keys[index]}
+     */
+    static void sort(int[] indices, int from, int to, double[] keys) {
+        if (to - from < 2) {
+            return;
+        }
+
+        sort(indices, from, to, keys, new int[to - from]);
+    }
+
+    /**
+     * Same as {@link #sort(int[], int, int, double[])}, but merged through a
+     * given buffer at least {@code to - from} long
+     */
+    static void sort(int[] indices, int from, int to, double[] keys,
+            int[] buffer) {
+
+        if (to - from < 2) {
+            return;
+        }
+
+        mergeSort(indices, from, to, keys, buffer);
+    }
+
+    static private void mergeSort(int[] indices, int from, int to,
+            double[] keys, int[] buffer) {
+
+        if (to - from <= 16) {
+            insertionSort(indices, from, to, keys);
+            return;
+        }
+
+        final int middle = (from + to) >>> 1;
+        mergeSort(indices, from, middle, keys, buffer);
+        mergeSort(indices, middle, to, keys, buffer);
+
+        if (keys[indices[middle - 1]] <= keys[indices[middle]]) {
+            return;
+        }
+
+        System.arraycopy(indices, from, buffer, 0, middle - from);
+        int left = 0;
+        int right = middle;
+        int out = from;
+        while (left < middle - from && right < to) {
+            if (keys[indices[right]] < keys[buffer[left]]) {
+                indices[out++] = indices[right++];
+            } else {
+                indices[out++] = buffer[left++];
+            }
+        }
+        System.arraycopy(buffer, left, indices, out, middle - from - left);
+    }
+
+    static private void insertionSort(int[] indices, int from, int to,
+            double[] keys) {
+
+        for (int i = from + 1; i < to; i++) {
+            final int index = indices[i];
+            final double key = keys[index];
+            int j = i - 1;
+            while (j >= from && keys[indices[j]] > key) {
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            indices[j + 1] = index;
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package com.github.zawataki;
+
+import com.github.zawataki.IntersectionMetrics.Operation;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoizing facade over {@link IntersectionPoint} for queries repeated with
+ * the same lines and rectangles. Results are same as {@link
+ * IntersectionPoint#getIntersectionPoint(Line2D, Line2D, boolean)} and {@link
+ * IntersectionPoint#getIntersectionPoints(Rectangle2D, Line2D, boolean)}, and
+ * are immutable so that they are shared among callers.
+ * <p>
+ * Keys are made of the coordinates. The order of two lines doesn't matter, as
+ * the intersection point is computed symmetrically, but the direction of each
+ * line does. Entries are split into stripes by the hash of the key, and each
+ * stripe evicts its least recently used entry when it's full. A hit allocates
+ * nothing, as the key is looked up with a probe reused under the lock of the
+ * stripe.
+ * <p>
+ * Each query is recorded to {@link IntersectionMetrics} once as a call of
+ * {@link IntersectionPoint}, whether it hits or not.
+ * <p>
+ * An instance is thread-safe.
+ */
+public final class IntersectionCache {
+
+    static private final int LINE_PAIR = 0;
+    static private final int RECTANGLE_LINE = 2;
+
+    private final Stripe[] stripes;
+    private final int maximumSize;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Same as {@link #IntersectionCache(int, int)} with stripes for 4 times
+     * of available processors
+     */
+    public IntersectionCache(int maximumSize) {
+        this(maximumSize, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @param maximumSize the maximum number of results held
+     * @param concurrencyLevel the expected number of threads to query at the
+     * same time, which decides the number of stripes
+     *
+     * @throws IllegalArgumentException if an argument is not positive
+     */
+    public IntersectionCache(int maximumSize, int concurrencyLevel) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid maximum size: " + maximumSize);
+        }
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid concurrency level: " + concurrencyLevel);
+        }
+
+        // A power of 2, not greater than the maximum size
+        int stripeCount = 1;
+        while (stripeCount < concurrencyLevel &&
+                stripeCount < Integer.highestOneBit(maximumSize)) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int s = 0; s < stripeCount; s++) {
+            stripes[s] = new Stripe(maximumSize / stripeCount);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Get intersection point from given two lines. Same as {@link
+     * IntersectionPoint#getIntersectionPoint(Line2D, Line2D, boolean)}.
+     *
+     * @param l1 1st line
+     * @param l2 2nd line
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     *
+     * @return A intersection point if exists. Otherwise empty. The point is
+     * shared with other callers, so it's an immutable {@link Point2D} rather
+     * than {@link Point2D.Double}: it equals and prints the same as the point
+     * of {@link IntersectionPoint}, but {@code setLocation} throws {@link
+     * UnsupportedOperationException}.
+     */
+    public Optional<Point2D> getIntersectionPoint(Line2D l1, Line2D l2,
+            boolean includesEndpoint) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final double x1 = l1.getX1();
+        final double y1 = l1.getY1();
+        final double x2 = l1.getX2();
+        final double y2 = l1.getY2();
+        final double x3 = l2.getX1();
+        final double y3 = l2.getY1();
+        final double x4 = l2.getX2();
+        final double y4 = l2.getY2();
+        final int kind = LINE_PAIR + (includesEndpoint ? 1 : 0);
+
+        final boolean ordered = compare(x1, y1, x2, y2, x3, y3, x4, y4) <= 0;
+        final Object cached;
+        if (ordered) {
+            cached = get(kind, x1, y1, x2, y2, x3, y3, x4, y4);
+        } else {
+            cached = get(kind, x3, y3, x4, y4, x1, y1, x2, y2);
+        }
+        if (cached != null) {
+            @SuppressWarnings("unchecked")
+            final Optional<Point2D> point = (Optional<Point2D>) cached;
+            if (metrics != null) {
+                metrics.recordCall(Operation.INTERSECTION_POINT, start);
+            }
+            return point;
+        }
+
+        final double[] crossPoint = new double[2];
+        final Optional<Point2D> point =
+                IntersectionPoint.computeIntersectionPoint(x1, y1, x2, y2, x3,
+                        y3, x4, y4, includesEndpoint, null, crossPoint, 0) ==
+                        IntersectionPoint.INTERSECTED ?
+                        Optional.of(new ImmutablePoint(crossPoint[0],
+                                crossPoint[1])) : Optional.empty();
+
+        if (ordered) {
+            put(new Key(kind, x1, y1, x2, y2, x3, y3, x4, y4), point);
+        } else {
+            put(new Key(kind, x3, y3, x4, y4, x1, y1, x2, y2), point);
+        }
+        if (metrics != null) {
+            metrics.recordCall(Operation.INTERSECTION_POINT, start);
+        }
+        return point;
+    }
+
+    /**
+     * Get intersection points from a given rectangle and a line. Same as
+     * {@link IntersectionPoint#getIntersectionPoints(Rectangle2D, Line2D,
+     * boolean)}.
+     *
+     * @param rect the specified rectangle
+     * @param line the specified line
+     * @param includesEndpoint Same as {@link
+     * IntersectionPoint#getIntersectionPoints(Rectangle2D, Line2D, boolean)}
+     *
+     * @return unmodifiable list of intersection points. Empty list if not
+     * intersected. The points are immutable {@link Point2D} same as {@link
+     * #getIntersectionPoint(Line2D, Line2D, boolean)}.
+     */
+    public List<Point2D> getIntersectionPoints(Rectangle2D rect, Line2D line,
+            boolean includesEndpoint) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final double x = rect.getX();
+        final double y = rect.getY();
+        final double width = rect.getWidth();
+        final double height = rect.getHeight();
+        final double x1 = line.getX1();
+        final double y1 = line.getY1();
+        final double x2 = line.getX2();
+        final double y2 = line.getY2();
+        final int kind = RECTANGLE_LINE + (includesEndpoint ? 1 : 0);
+
+        final Object cached = get(kind, x, y, width, height, x1, y1, x2, y2);
+        if (cached != null) {
+            @SuppressWarnings("unchecked")
+            final List<Point2D> points = (List<Point2D>) cached;
+            if (metrics != null) {
+                metrics.recordCall(Operation.RECTANGLE_INTERSECTION_POINTS,
+                        start);
+            }
+            return points;
+        }
+
+        final double[] crossPoints =
+                new double[IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+        final int count = IntersectionPoint.rectangleIntersectionPoints(x, y,
+                width, height, x1, y1, x2, y2, includesEndpoint, crossPoints);
+        final Point2D[] points = new Point2D[count];
+        for (int n = 0; n < count; n++) {
+            points[n] = new ImmutablePoint(crossPoints[2 * n],
+                    crossPoints[2 * n + 1]);
+        }
+        final List<Point2D> result = count == 0 ? Collections.emptyList() :
+                Collections.unmodifiableList(Arrays.asList(points));
+
+        put(new Key(kind, x, y, width, height, x1, y1, x2, y2), result);
+        if (metrics != null) {
+            metrics.recordCall(Operation.RECTANGLE_INTERSECTION_POINTS, start);
+        }
+        return result;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Get the number of results currently held
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Remove all results. Counters are not reset.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Get the number of queries answered by held results
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Get the number of queries which computed their results
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Get the number of results removed to keep the maximum size
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private Object get(int kind, double v0, double v1, double v2, double v3,
+            double v4, double v5, double v6, double v7) {
+
+        final int hash = Key.hash(kind, v0, v1, v2, v3, v4, v5, v6, v7);
+        final Stripe stripe = stripeOf(hash);
+        final Object value;
+        synchronized (stripe) {
+            stripe.probe.set(kind, v0, v1, v2, v3, v4, v5, v6, v7, hash);
+            value = stripe.get(stripe.probe);
+        }
+
+        if (value != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+        return value;
+    }
+
+    private void put(Key key, Object value) {
+        final Stripe stripe = stripeOf(key.hash);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    private Stripe stripeOf(int hash) {
+        return stripes[(hash ^ hash >>> 16) & stripes.length - 1];
+    }
+
+    /**
+     * Compare a line from ({@code x1}, {@code y1}) to ({@code x2}, {@code
+     * y2}) and a line from ({@code x3}, {@code y3}) to ({@code x4}, {@code
+     * y4}) by their coordinates in order
+     */
+    static private int compare(double x1, double y1, double x2, double y2,
+            double x3, double y3, double x4, double y4) {
+
+        int result = Double.compare(x1, x3);
+        if (result == 0) {
+            result = Double.compare(y1, y3);
+        }
+        if (result == 0) {
+            result = Double.compare(x2, x4);
+        }
+        if (result == 0) {
+            result = Double.compare(y2, y4);
+        }
+        return result;
+    }
+
+    /**
+     * Entries of a part of keys in the order of access. The eldest entry is
+     * removed when the capacity is exceeded.
+     */
+    private class Stripe extends LinkedHashMap<Key, Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        final int capacity;
+
+        /**
+         * The key to look up, modified only under the lock of this
+         */
+        final Key probe = new Key();
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+
+            evictionCount.increment();
+            return true;
+        }
+    }
+
+    /**
+     * The kind of query and 8 coordinates. Coordinates are compared by their
+     * bits.
+     */
+    static private final class Key {
+
+        int kind;
+        double v0;
+        double v1;
+        double v2;
+        double v3;
+        double v4;
+        double v5;
+        double v6;
+        double v7;
+        int hash;
+
+        Key() {
+        }
+
+        Key(int kind, double v0, double v1, double v2, double v3, double v4,
+                double v5, double v6, double v7) {
+
+            set(kind, v0, v1, v2, v3, v4, v5, v6, v7,
+                    hash(kind, v0, v1, v2, v3, v4, v5, v6, v7));
+        }
+
+        void set(int kind, double v0, double v1, double v2, double v3,
+                double v4, double v5, double v6, double v7, int hash) {
+
+            this.kind = kind;
+            this.v0 = v0;
+            this.v1 = v1;
+            this.v2 = v2;
+            this.v3 = v3;
+            this.v4 = v4;
+            this.v5 = v5;
+            this.v6 = v6;
+            this.v7 = v7;
+            this.hash = hash;
+        }
+
+        static int hash(int kind, double v0, double v1, double v2, double v3,
+                double v4, double v5, double v6, double v7) {
+
+            int result = kind;
+            result = 31 * result + Double.hashCode(v0);
+            result = 31 * result + Double.hashCode(v1);
+            result = 31 * result + Double.hashCode(v2);
+            result = 31 * result + Double.hashCode(v3);
+            result = 31 * result + Double.hashCode(v4);
+            result = 31 * result + Double.hashCode(v5);
+            result = 31 * result + Double.hashCode(v6);
+            result = 31 * result + Double.hashCode(v7);
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return kind == key.kind && same(v0, key.v0) &&
+                    same(v1, key.v1) && same(v2, key.v2) &&
+                    same(v3, key.v3) && same(v4, key.v4) &&
+                    same(v5, key.v5) && same(v6, key.v6) &&
+                    same(v7, key.v7);
+        }
+
+        static private boolean same(double value1, double value2) {
+            return Double.doubleToLongBits(value1) ==
+                    Double.doubleToLongBits(value2);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Point whose location can't be changed, so that it's shared by results.
+     * It prints same as {@link Point2D.Double}, as the points of {@link
+     * IntersectionPoint} do.
+     */
+    static private final class ImmutablePoint extends Point2D {
+
+        private final double x;
+        private final double y;
+
+        ImmutablePoint(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public double getX() {
+            return x;
+        }
+
+        @Override
+        public double getY() {
+            return y;
+        }
+
+        /**
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public void setLocation(double x, double y) {
+            throw new UnsupportedOperationException("Immutable point");
+        }
+
+        @Override
+        public String toString() {
+            return "Point2D.Double[" + x + ", " + y + "]";
+        }
+    }
+}
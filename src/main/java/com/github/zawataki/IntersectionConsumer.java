@@ -0,0 +1,19 @@
+package com.github.zawataki;
+
+/**
+ * Receiver of intersection points between lines identified by index
+ */
+@FunctionalInterface
+public interface IntersectionConsumer {
+
+    /**
+     * Accept an intersection point
+     *
+     * @param index1 index of 1st line, less than {@code index2} when both
+     * lines are in the same input
+     * @param index2 index of 2nd line
+     * @param x x of the intersection point
+     * @param y y of the intersection point
+     */
+    void accept(int index1, int index2, double x, double y);
+}
@@ -0,0 +1,279 @@
+package com.github.zawataki;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of public methods of {@link
+ * IntersectionPoint}. Metrics are disabled by default, and then each method
+ * only reads a volatile field which is {@code null}, so nothing is allocated
+ * and nothing is measured.
+ * <p>
+ * While enabled, each call is timed by {@link System#nanoTime()}, and each
+ * intersection point computed by truncation, including edges of rectangles,
+ * is counted by its status. Counters are {@link LongAdder}s, so an instance
+ * is thread-safe and cheap under contention.
+ */
+public final class IntersectionMetrics implements IntersectionMetricsMXBean {
+
+    /**
+     * Kinds of public methods of {@link IntersectionPoint}
+     */
+    public enum Operation {
+        /**
+         * {@code getIntersectionPoint} and {@code computeIntersectionPoint}
+         */
+        INTERSECTION_POINT,
+        /**
+         * {@code pointIsOnLine}
+         */
+        POINT_ON_LINE,
+        /**
+         * {@link IntersectionPoint#intersects(Line2D, Line2D, boolean)}
+         */
+        INTERSECTS,
+        /**
+         * {@code getIntersectionPoints} of rectangles
+         */
+        RECTANGLE_INTERSECTION_POINTS,
+        /**
+         * {@link IntersectionPoint#intersects(Rectangle2D, Line2D, boolean)}
+         */
+        RECTANGLE_INTERSECTS,
+        /**
+         * {@code getIntersectionPoints} and {@code
+         * getEllipseIntersectionPoints} of ellipses
+         */
+        ELLIPSE_INTERSECTION_POINTS
+    }
+
+    /**
+     * The name under which {@link #registerMBean(MBeanServer)} registers
+     */
+    static public final String OBJECT_NAME =
+            "com.github.zawataki:type=IntersectionMetrics";
+
+    /**
+     * The number of buckets of a latency histogram, one for each bit length
+     * of nanoseconds
+     */
+    static public final int HISTOGRAM_BUCKETS = 64;
+
+    /**
+     * The enabled metrics, or {@code null} if disabled
+     */
+    static volatile IntersectionMetrics active;
+
+    static private final Operation[] OPERATIONS = Operation.values();
+
+    private final LongAdder[] callCounts = newAdders(OPERATIONS.length);
+    private final LongAdder[] totalNanos = newAdders(OPERATIONS.length);
+    private final LongAdder[] latencies =
+            newAdders(OPERATIONS.length * HISTOGRAM_BUCKETS);
+
+    private final LongAdder intersectedCount = new LongAdder();
+    private final LongAdder parallelCount = new LongAdder();
+    private final LongAdder notOnLineCount = new LongAdder();
+    private final LongAdder singlePointExcludedCount = new LongAdder();
+
+    private IntersectionMetrics() {
+    }
+
+    static private LongAdder[] newAdders(int length) {
+        final LongAdder[] adders = new LongAdder[length];
+        for (int n = 0; n < length; n++) {
+            adders[n] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Enable metrics. If already enabled, the current metrics are kept.
+     *
+     * @return the enabled metrics
+     */
+    static public synchronized IntersectionMetrics enable() {
+        if (active == null) {
+            active = new IntersectionMetrics();
+        }
+        return active;
+    }
+
+    /**
+     * Disable metrics. The metrics enabled so far keep their values.
+     */
+    static public synchronized void disable() {
+        active = null;
+    }
+
+    /**
+     * @return the enabled metrics if enabled. Otherwise empty.
+     */
+    static public Optional<IntersectionMetrics> current() {
+        return Optional.ofNullable(active);
+    }
+
+    /**
+     * Register this to a given server as {@link #OBJECT_NAME}
+     *
+     * @throws JMException if the server fails to register, e.g. another
+     * instance is already registered
+     */
+    public void registerMBean(MBeanServer server) throws JMException {
+        server.registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    /**
+     * Record a call of an operation started at {@code startNanos} of {@link
+     * System#nanoTime()}
+     */
+    void recordCall(Operation operation, long startNanos) {
+        final long nanos = Math.max(System.nanoTime() - startNanos, 0);
+        final int index = operation.ordinal();
+
+        callCounts[index].increment();
+        totalNanos[index].add(nanos);
+        latencies[index * HISTOGRAM_BUCKETS +
+                Math.min(64 - Long.numberOfLeadingZeros(nanos),
+                        HISTOGRAM_BUCKETS - 1)].increment();
+    }
+
+    /**
+     * Record a status of computing an intersection point by truncation, one of
+     * {@link IntersectionPoint#INTERSECTED}, {@link IntersectionPoint#PARALLEL}
+     * and {@link IntersectionPoint#NOT_ON_LINE}
+     */
+    void recordStatus(int status) {
+        switch (status) {
+            case IntersectionPoint.INTERSECTED:
+                intersectedCount.increment();
+                break;
+            case IntersectionPoint.PARALLEL:
+                parallelCount.increment();
+                break;
+            default:
+                notOnLineCount.increment();
+                break;
+        }
+    }
+
+    /**
+     * Record a single intersection point of a rectangle excluded as an
+     * endpoint or a vertex
+     */
+    void recordSinglePointExcluded() {
+        singlePointExcludedCount.increment();
+    }
+
+    public long getCallCount(Operation operation) {
+        return callCounts[operation.ordinal()].sum();
+    }
+
+    public long getTotalNanos(Operation operation) {
+        return totalNanos[operation.ordinal()].sum();
+    }
+
+    /**
+     * Get the latency histogram of an operation. The {@code n}-th bucket
+     * counts calls which took less than {@code 2^n} and at least {@code
+     * 2^(n-1)} nanoseconds, and the last bucket also counts longer calls.
+     *
+     * @return a new array of {@link #HISTOGRAM_BUCKETS} counts
+     */
+    public long[] getLatencyHistogram(Operation operation) {
+        final long[] histogram = new long[HISTOGRAM_BUCKETS];
+        final int offset = operation.ordinal() * HISTOGRAM_BUCKETS;
+        for (int n = 0; n < HISTOGRAM_BUCKETS; n++) {
+            histogram[n] = latencies[offset + n].sum();
+        }
+        return histogram;
+    }
+
+    @Override
+    public long[] getLatencyHistogram(String operation) {
+        return getLatencyHistogram(Operation.valueOf(operation));
+    }
+
+    @Override
+    public Map<String, Long> getCallCounts() {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            counts.put(operation.name(), getCallCount(operation));
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getMeanNanos() {
+        final Map<String, Long> means = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            final long count = getCallCount(operation);
+            means.put(operation.name(),
+                    count == 0 ? 0 : getTotalNanos(operation) / count);
+        }
+        return means;
+    }
+
+    /**
+     * Get the number of intersection points found by truncation
+     */
+    @Override
+    public long getIntersectedCount() {
+        return intersectedCount.sum();
+    }
+
+    /**
+     * Get the number of lines regarded as parallel because the determinant is
+     * zero
+     */
+    @Override
+    public long getParallelCount() {
+        return parallelCount.sum();
+    }
+
+    /**
+     * Get the number of crossing points of extended lines which failed
+     * {@code pointIsOnLine}
+     */
+    @Override
+    public long getNotOnLineCount() {
+        return notOnLineCount.sum();
+    }
+
+    /**
+     * Get the number of rectangles whose single intersection point was
+     * excluded as an endpoint or a vertex
+     */
+    @Override
+    public long getSinglePointExcludedCount() {
+        return singlePointExcludedCount.sum();
+    }
+
+    /**
+     * Reset all counters to zero. Calls at the same time may be lost or
+     * partly kept.
+     */
+    @Override
+    public void reset() {
+        for (LongAdder adder : callCounts) {
+            adder.reset();
+        }
+        for (LongAdder adder : totalNanos) {
+            adder.reset();
+        }
+        for (LongAdder adder : latencies) {
+            adder.reset();
+        }
+        intersectedCount.reset();
+        parallelCount.reset();
+        notOnLineCount.reset();
+        singlePointExcludedCount.reset();
+    }
+}
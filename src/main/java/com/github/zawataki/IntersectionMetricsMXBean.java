@@ -0,0 +1,39 @@
+package com.github.zawataki;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link IntersectionMetrics}
+ */
+public interface IntersectionMetricsMXBean {
+
+    /**
+     * @return the number of calls of each {@link
+     * IntersectionMetrics.Operation}
+     */
+    Map<String, Long> getCallCounts();
+
+    /**
+     * @return the mean latency in nanoseconds of each {@link
+     * IntersectionMetrics.Operation}, or 0 if not called
+     */
+    Map<String, Long> getMeanNanos();
+
+    long getIntersectedCount();
+
+    long getParallelCount();
+
+    long getNotOnLineCount();
+
+    long getSinglePointExcludedCount();
+
+    /**
+     * @param operation the name of an {@link IntersectionMetrics.Operation}
+     *
+     * @return same as {@link
+     * IntersectionMetrics#getLatencyHistogram(IntersectionMetrics.Operation)}
+     */
+    long[] getLatencyHistogram(String operation);
+
+    void reset();
+}
@@ -1,5 +1,8 @@
 package com.github.zawataki;
 
+import com.github.zawataki.IntersectionMetrics.Operation;
+
+import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -7,9 +10,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * A library for getting an intersection point of lines or rectangles
@@ -32,6 +33,61 @@ public class IntersectionPoint {
         return getIntersectionPoint(l1, l2, false);
     }
 
+    /**
+     * Status of {@link #computeIntersectionPoint(double, double, double,
+     * double, double, double, double, double, boolean, Point2D)}: the lines
+     * are intersected
+     */
+    static public final int INTERSECTED = 0;
+
+    /**
+     * Status of {@link #computeIntersectionPoint(double, double, double,
+     * double, double, double, double, double, boolean, Point2D)}: the lines
+     * are parallel, i.e. the determinant is zero
+     */
+    static public final int PARALLEL = 1;
+
+    /**
+     * Status of {@link #computeIntersectionPoint(double, double, double,
+     * double, double, double, double, double, boolean, Point2D)}: the crossing
+     * point of the extended lines is not on both lines
+     */
+    static public final int NOT_ON_LINE = 2;
+
+    /**
+     * The maximum number of intersection points from a rectangle and a line
+     */
+    static public final int MAX_RECTANGLE_POINTS = 4;
+
+    /**
+     * The maximum number of intersection points from an ellipse and a line
+     */
+    static public final int MAX_ELLIPSE_POINTS = 2;
+
+    /**
+     * Decimal places which intersection points are truncated to
+     */
+    static final int DECIMAL_PLACES = 5;
+
+    /**
+     * Scratch space of the writers into {@link IntersectionSink}, so that a
+     * write allocates nothing after the 1st one on each thread
+     */
+    static private final ThreadLocal<double[]> SINK_SCRATCH =
+            ThreadLocal.withInitial(
+                    () -> new double[MAX_RECTANGLE_POINTS * 2]);
+
+    /**
+     * Half of the machine epsilon, i.e. 2^-53
+     */
+    static private final double EPSILON = 0x1p-53;
+
+    /**
+     * Magnitude below which {@link #truncatedUnits(double)} gives the same
+     * result as {@link #doubleToBigDecimal(double)}
+     */
+    static private final double FAST_TRUNCATION_LIMIT = 1e9;
+
     /**
      * Get intersection point from given two lines
      *
@@ -45,35 +101,368 @@ public class IntersectionPoint {
     static public Optional<Point2D> getIntersectionPoint(Line2D l1, Line2D l2,
             boolean includesEndpoint) {
 
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final Point2D crossPoint = new Point2D.Double();
+        final int status =
+                computeIntersectionPoint(l1.getX1(), l1.getY1(), l1.getX2(),
+                        l1.getY2(), l2.getX1(), l2.getY1(), l2.getX2(),
+                        l2.getY2(), includesEndpoint, crossPoint, null, 0);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.INTERSECTION_POINT, start);
+        }
+        if (status != INTERSECTED) {
+            return Optional.empty();
+        }
+
+        return Optional.of(crossPoint);
+    }
+
+    /**
+     * Get intersection point from given two lines under a given precision
+     * policy
+     *
+     * @param l1 1st line
+     * @param l2 2nd line
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param policy how the lines are compared
+     *
+     * @return A intersection point if exists. Otherwise empty.
+     */
+    static public Optional<Point2D> getIntersectionPoint(Line2D l1, Line2D l2,
+            boolean includesEndpoint, PrecisionPolicy policy) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final double[] crossPoint = new double[2];
+        final int status =
+                policy.computeIntersectionPoint(l1.getX1(), l1.getY1(),
+                        l1.getX2(), l1.getY2(), l2.getX1(), l2.getY1(),
+                        l2.getX2(), l2.getY2(), includesEndpoint, crossPoint,
+                        0);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.INTERSECTION_POINT, start);
+        }
+        if (status != INTERSECTED) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Point2D.Double(crossPoint[0], crossPoint[1]));
+    }
+
+    /**
+     * Get intersection point from given two lines, 1st line from
+     * ({@code x1}, {@code y1}) to ({@code x2}, {@code y2}) and 2nd line from
+     * ({@code x3}, {@code y3}) to ({@code x4}, {@code y4}). The result is same
+     * as {@link #getIntersectionPoint(Line2D, Line2D, boolean)}, but nothing is
+     * allocated.
+     *
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param result the holder where the intersection point is stored when
+     * {@link #INTERSECTED} is returned. Not modified otherwise. May be {@code
+     * null} if only the status is needed.
+     *
+     * @return {@link #INTERSECTED}, {@link #PARALLEL} or {@link #NOT_ON_LINE}
+     */
+    static public int computeIntersectionPoint(double x1, double y1, double x2,
+            double y2, double x3, double y3, double x4, double y4,
+            boolean includesEndpoint, Point2D result) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final int status = computeIntersectionPoint(x1, y1, x2, y2, x3, y3, x4,
+                y4, includesEndpoint, result, null, 0);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.INTERSECTION_POINT, start);
+        }
+        return status;
+    }
+
+    /**
+     * Same as {@link #computeIntersectionPoint(double, double, double, double,
+     * double, double, double, double, boolean, Point2D)}, but the intersection
+     * point is stored in an array
+     *
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param result x and y of the intersection point are stored at {@code
+     * offset} and {@code offset + 1} when {@link #INTERSECTED} is returned.
+     * Not modified otherwise.
+     * @param offset the index of x in {@code result}
+     *
+     * @return {@link #INTERSECTED}, {@link #PARALLEL} or {@link #NOT_ON_LINE}
+     */
+    static public int computeIntersectionPoint(double x1, double y1, double x2,
+            double y2, double x3, double y3, double x4, double y4,
+            boolean includesEndpoint, double[] result, int offset) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final int status = computeIntersectionPoint(x1, y1, x2, y2, x3, y3, x4,
+                y4, includesEndpoint, null, result, offset);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.INTERSECTION_POINT, start);
+        }
+        return status;
+    }
+
+    /**
+     * Write intersection point from given two lines into a sink as a record
+     * of a query. The record has the intersection point same as {@link
+     * #getIntersectionPoint(Line2D, Line2D, boolean)} if exists. Otherwise it
+     * has no point. Nothing is allocated, as scratch space of the current
+     * thread is reused.
+     *
+     * @param l1 1st line
+     * @param l2 2nd line
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param query the query index of the record
+     * @param sink the sink to write the record into
+     *
+     * @return {@code true} if intersected. Otherwise {@code false}
+     */
+    static public boolean writeIntersectionPoint(Line2D l1, Line2D l2,
+            boolean includesEndpoint, int query, IntersectionSink sink) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final double[] crossPoint = sinkScratch();
+        final int status = computeIntersectionPoint(l1.getX1(), l1.getY1(),
+                l1.getX2(), l1.getY2(), l2.getX1(), l2.getY1(), l2.getX2(),
+                l2.getY2(), includesEndpoint, null, crossPoint, 0);
+        final boolean intersected = status == INTERSECTED;
+
+        sink.beginRecord(query);
+        if (intersected) {
+            sink.addPoint(crossPoint[0], crossPoint[1]);
+        }
+        sink.endRecord();
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.INTERSECTION_POINT, start);
+        }
+        return intersected;
+    }
+
+    /**
+     * Compute the intersection point into either or both of the holders.
+     * Calls are not recorded to {@link IntersectionMetrics}, but the status
+     * is.
+     */
+    static int computeIntersectionPoint(double x1, double y1,
+            double x2, double y2, double x3, double y3, double x4, double y4,
+            boolean includesEndpoint, Point2D pointResult,
+            double[] arrayResult, int offset) {
+
+        return computeIntersectionPoint(x1, y1, x2, y2, x3, y3, x4, y4,
+                includesEndpoint, DECIMAL_PLACES, pointResult, arrayResult,
+                offset);
+    }
+
+    /**
+     * Same as {@link #computeIntersectionPoint(double, double, double,
+     * double, double, double, double, double, boolean, Point2D, double[],
+     * int)}, but truncated to given decimal places
+     */
+    static int computeIntersectionPoint(double x1, double y1,
+            double x2, double y2, double x3, double y3, double x4, double y4,
+            boolean includesEndpoint, int decimalPlaces, Point2D pointResult,
+            double[] arrayResult, int offset) {
+
         // Line AB represented as a1x + b1y = c1
-        final double a1 = l1.getP2().getY() - l1.getP1().getY();
-        final double b1 = l1.getP1().getX() - l1.getP2().getX();
+        final double a1 = y2 - y1;
+        final double b1 = x1 - x2;
 
         // Line CD represented as a2x + b2y = c2
-        final double a2 = l2.getP2().getY() - l2.getP1().getY();
-        final double b2 = l2.getP1().getX() - l2.getP2().getX();
+        final double a2 = y4 - y3;
+        final double b2 = x3 - x4;
 
         final double determinant = a1 * b2 - a2 * b1;
         if (determinant == 0) {
-            return Optional.empty();
+            return recordStatus(PARALLEL);
         }
 
-        final double c1 = a1 * (l1.getP1().getX()) + b1 * (l1.getP1().getY());
-        final double c2 = a2 * (l2.getP1().getX()) + b2 * (l2.getP1().getY());
+        final double c1 = a1 * x1 + b1 * y1;
+        final double c2 = a2 * x3 + b2 * y3;
 
-        final double x = (b2 * c1 - b1 * c2) / determinant + 0.0;
-        final double y = (a1 * c2 - a2 * c1) / determinant + 0.0;
+        final double x = truncate((b2 * c1 - b1 * c2) / determinant + 0.0,
+                decimalPlaces);
+        final double y = truncate((a1 * c2 - a2 * c1) / determinant + 0.0,
+                decimalPlaces);
 
-        final Point2D crossPoint =
-                new Point2D.Double(doubleToBigDecimal(x).doubleValue(),
-                        doubleToBigDecimal(y).doubleValue());
+        if (!isOnLine(x, y, x1, y1, x2, y2, includesEndpoint,
+                decimalPlaces) ||
+                !isOnLine(x, y, x3, y3, x4, y4, includesEndpoint,
+                        decimalPlaces)) {
+            return recordStatus(NOT_ON_LINE);
+        }
 
-        if (!pointIsOnLine(crossPoint, l1, includesEndpoint) ||
-                !pointIsOnLine(crossPoint, l2, includesEndpoint)) {
-            return Optional.empty();
+        if (pointResult != null) {
+            pointResult.setLocation(x, y);
+        }
+        if (arrayResult != null) {
+            arrayResult[offset] = x;
+            arrayResult[offset + 1] = y;
         }
 
-        return Optional.of(crossPoint);
+        return recordStatus(INTERSECTED);
+    }
+
+    /**
+     * Record a status to {@link IntersectionMetrics} if enabled
+     *
+     * @return the status
+     */
+    static int recordStatus(int status) {
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        if (metrics != null) {
+            metrics.recordStatus(status);
+        }
+        return status;
+    }
+
+    /**
+     * @return the scratch space of the writers into {@link IntersectionSink}
+     * of the current thread, {@code 2 * MAX_RECTANGLE_POINTS} long
+     */
+    static double[] sinkScratch() {
+        return SINK_SCRATCH.get();
+    }
+
+    /**
+     * Whether given two lines are intersected. The result is same as {@code
+     * getIntersectionPoint(l1, l2, includesEndpoint).isPresent()}, but most
+     * lines apart from each other are rejected by their sides without
+     * division, and no point is allocated.
+     *
+     * @param l1 1st line
+     * @param l2 2nd line
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     *
+     * @return {@code true} if intersected. Otherwise {@code false}
+     */
+    static public boolean intersects(Line2D l1, Line2D l2,
+            boolean includesEndpoint) {
+
+        return intersects(l1.getX1(), l1.getY1(), l1.getX2(), l1.getY2(),
+                l2.getX1(), l2.getY1(), l2.getX2(), l2.getY2(),
+                includesEndpoint);
+    }
+
+    /**
+     * Whether a line from ({@code x1}, {@code y1}) to ({@code x2}, {@code
+     * y2}) and a line from ({@code x3}, {@code y3}) to ({@code x4}, {@code
+     * y4}) are intersected. Same as {@link #intersects(Line2D, Line2D,
+     * boolean)}.
+     *
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     *
+     * @return {@code true} if intersected. Otherwise {@code false}
+     */
+    static public boolean intersects(double x1, double y1, double x2,
+            double y2, double x3, double y3, double x4, double y4,
+            boolean includesEndpoint) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final boolean intersected = linesIntersect(x1, y1, x2, y2, x3, y3, x4,
+                y4, includesEndpoint);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.INTERSECTS, start);
+        }
+        return intersected;
+    }
+
+    static private boolean linesIntersect(double x1, double y1, double x2,
+            double y2, double x3, double y3, double x4, double y4,
+            boolean includesEndpoint) {
+
+        return !isClearlyApart(x1, y1, x2, y2, x3, y3, x4, y4) &&
+                computeIntersectionPoint(x1, y1, x2, y2, x3, y3, x4, y4,
+                        includesEndpoint, null, null, 0) == INTERSECTED;
+    }
+
+    /**
+     * Whether two lines can't be intersected, decided without division. A
+     * point regarded as on a line is within {@link #boundsPadding(double,
+     * double, double, double)} from the line, so the lines are apart if their
+     * expanded bounds don't overlap, or if both endpoints of either line are
+     * on the same side of the other apart by more than both paddings. The
+     * rounding errors of the orientation are bounded term by term.
+     * <p>
+     * Lines crossing clearly are still left to {@link
+     * #computeIntersectionPoint(double, double, double, double, double,
+     * double, double, double, boolean, Point2D)}, because the truncated point
+     * exactly on a line may be rejected when the distances are truncated.
+     */
+    static private boolean isClearlyApart(double x1, double y1, double x2,
+            double y2, double x3, double y3, double x4, double y4) {
+
+        final double sum = x1 + y1 + x2 + y2 + x3 + y3 + x4 + y4;
+        if (sum - sum != 0) {
+            // NaN or infinity is left to the exact check
+            return false;
+        }
+
+        final double padding12 = boundsPadding(x1, y1, x2, y2);
+        final double padding34 = boundsPadding(x3, y3, x4, y4);
+        if (Math.max(x1, x2) + padding12 < Math.min(x3, x4) - padding34 ||
+                Math.max(x3, x4) + padding34 < Math.min(x1, x2) - padding12 ||
+                Math.max(y1, y2) + padding12 < Math.min(y3, y4) - padding34 ||
+                Math.max(y3, y4) + padding34 < Math.min(y1, y2) - padding12) {
+            return true;
+        }
+
+        final double dx12 = x2 - x1;
+        final double dy12 = y2 - y1;
+        final double dx34 = x4 - x3;
+        final double dy34 = y4 - y3;
+        final double padding = (padding12 + padding34) * (1 + 8 * EPSILON);
+
+        // Distances from the other line multiplied by its length
+        final double gap34 = padding * Point2D.distance(x3, y3, x4, y4);
+        if (isApartFromSide(dx34 * (y1 - y3), dy34 * (x1 - x3),
+                dx34 * (y2 - y3), dy34 * (x2 - x3), gap34)) {
+            return true;
+        }
+        final double gap12 = padding * Point2D.distance(x1, y1, x2, y2);
+        return isApartFromSide(dx12 * (y3 - y1), dy12 * (x3 - x1),
+                dx12 * (y4 - y1), dy12 * (x4 - x1), gap12);
+    }
+
+    /**
+     * Whether both endpoints are on the same side of a line apart by more
+     * than a given gap. The orientation of each endpoint is {@code left -
+     * right} of its products.
+     */
+    static private boolean isApartFromSide(double left1, double right1,
+            double left2, double right2, double gap) {
+
+        final double cross1 = left1 - right1;
+        final double error1 =
+                8 * EPSILON * (Math.abs(left1) + Math.abs(right1));
+        final double cross2 = left2 - right2;
+        final double error2 =
+                8 * EPSILON * (Math.abs(left2) + Math.abs(right2));
+
+        return cross1 - error1 > gap && cross2 - error2 > gap ||
+                cross1 + error1 < -gap && cross2 + error2 < -gap;
     }
 
     /**
@@ -89,19 +478,198 @@ public class IntersectionPoint {
     static public boolean pointIsOnLine(Point2D point, Line2D line,
             boolean includesEndpoint) {
 
-        if (!includesEndpoint && pointIsOnLineEndpoint(point, line)) {
+        return pointIsOnLine(point.getX(), point.getY(), line.getX1(),
+                line.getY1(), line.getX2(), line.getY2(), includesEndpoint);
+    }
+
+    /**
+     * A given point is on a given line or not under a given precision policy
+     *
+     * @param point the specified point
+     * @param line the specified line
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param policy how the point and the line are compared
+     *
+     * @return {@code true} if a point is on a line. Otherwise {@code false}
+     */
+    static public boolean pointIsOnLine(Point2D point, Line2D line,
+            boolean includesEndpoint, PrecisionPolicy policy) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final boolean onLine = policy.pointIsOnLine(point.getX(), point.getY(),
+                line.getX1(), line.getY1(), line.getX2(), line.getY2(),
+                includesEndpoint);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.POINT_ON_LINE, start);
+        }
+        return onLine;
+    }
+
+    /**
+     * A given point ({@code px}, {@code py}) is on a line from ({@code x1},
+     * {@code y1}) to ({@code x2}, {@code y2}) or not. The result is same as
+     * {@link #pointIsOnLine(Point2D, Line2D, boolean)}, but nothing is
+     * allocated.
+     *
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     *
+     * @return {@code true} if a point is on a line. Otherwise {@code false}
+     */
+    static public boolean pointIsOnLine(double px, double py, double x1,
+            double y1, double x2, double y2, boolean includesEndpoint) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final boolean onLine = isOnLine(px, py, x1, y1, x2, y2,
+                includesEndpoint);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.POINT_ON_LINE, start);
+        }
+        return onLine;
+    }
+
+    /**
+     * Same as {@link #pointIsOnLine(double, double, double, double, double,
+     * double, boolean)}, but not recorded to {@link IntersectionMetrics}
+     */
+    static boolean isOnLine(double px, double py, double x1, double y1,
+            double x2, double y2, boolean includesEndpoint) {
+
+        if (!includesEndpoint &&
+                (px == x1 && py == y1 || px == x2 && py == y2)) {
+            return false;
+        }
+
+        if (isApartFromLine(px, py, x1, y1, x2, y2, 1e-4)) {
             return false;
         }
 
+        return distancesMatchLength(Point2D.distance(px, py, x1, y1),
+                Point2D.distance(px, py, x2, y2),
+                Point2D.distance(x1, y1, x2, y2));
+    }
+
+    /**
+     * Same as {@link #isOnLine(double, double, double, double, double,
+     * double, boolean)}, but the distances are truncated to given decimal
+     * places and may differ by a unit of them. Other than {@link
+     * #DECIMAL_PLACES}, they are truncated with {@link BigDecimal}.
+     */
+    static boolean isOnLine(double px, double py, double x1, double y1,
+            double x2, double y2, boolean includesEndpoint,
+            int decimalPlaces) {
+
+        if (decimalPlaces == DECIMAL_PLACES) {
+            return isOnLine(px, py, x1, y1, x2, y2, includesEndpoint);
+        }
+
+        if (!includesEndpoint &&
+                (px == x1 && py == y1 || px == x2 && py == y2)) {
+            return false;
+        }
+
+        if (isApartFromLine(px, py, x1, y1, x2, y2,
+                10 * Math.pow(10, -decimalPlaces))) {
+            return false;
+        }
+
+        final BigDecimal difference =
+                doubleToBigDecimal(Point2D.distance(px, py, x1, y1),
+                        decimalPlaces)
+                        .add(doubleToBigDecimal(
+                                Point2D.distance(px, py, x2, y2),
+                                decimalPlaces))
+                        .subtract(doubleToBigDecimal(
+                                Point2D.distance(x1, y1, x2, y2),
+                                decimalPlaces));
+
+        return difference.abs()
+                .compareTo(BigDecimal.ONE.scaleByPowerOfTen(-decimalPlaces))
+                <= 0;
+    }
+
+    /**
+     * Whether a point is so far from a line that the sum of the distances to
+     * the endpoints exceeds the line length by more than the truncation can
+     * hide. Comparisons involving NaN or infinity are {@code false}, so such
+     * input falls through to the exact check.
+     *
+     * @param unitTolerance the tolerance for the truncation, several units of
+     * its decimal places
+     */
+    static private boolean isApartFromLine(double px, double py, double x1,
+            double y1, double x2, double y2, double unitTolerance) {
+
+        final double tolerance = unitTolerance + 1e-12 *
+                (Math.abs(px) + Math.abs(py) + Math.abs(x1) + Math.abs(y1) +
+                        Math.abs(x2) + Math.abs(y2));
+        final double halfTolerance = tolerance / 2;
+
+        final double dx = x2 - x1;
+        final double dy = y2 - y1;
+        final double qx = px - x1;
+        final double qy = py - y1;
+        final double squaredLength = dx * dx + dy * dy;
+
+        // Beyond an endpoint by h, the distance sum is at least length + 2h
+        final double dot = qx * dx + qy * dy;
+        final double overhang = dot < 0 ? -dot : dot - squaredLength;
+        if (overhang > 0 && overhang * overhang >
+                halfTolerance * halfTolerance * squaredLength) {
+            return true;
+        }
+
+        // Off the line by h, the distance sum is at least sqrt(length^2 + 4h^2)
+        final double cross = qx * dy - qy * dx;
+        return 4 * cross * cross > squaredLength *
+                (2 * tolerance * Math.sqrt(squaredLength) +
+                        tolerance * tolerance);
+    }
+
+    /**
+     * Get the distance by which the bounds of a line must be expanded to
+     * contain every point regarded as on the line by {@link
+     * #pointIsOnLine(double, double, double, double, double, double,
+     * boolean)}. Those points are within an ellipse whose foci are the
+     * endpoints, so two lines whose expanded bounds don't overlap are never
+     * intersected.
+     */
+    static double boundsPadding(double x1, double y1, double x2, double y2) {
+        final double tolerance = 1e-4 + 1e-11 *
+                (Math.abs(x1) + Math.abs(y1) + Math.abs(x2) + Math.abs(y2));
+        final double length = Point2D.distance(x1, y1, x2, y2);
+
+        return tolerance +
+                Math.sqrt(tolerance * (2 * length + tolerance)) / 2;
+    }
+
+    static private boolean distancesMatchLength(double distanceToP1,
+            double distanceToP2, double length) {
+
+        if (distanceToP1 < FAST_TRUNCATION_LIMIT &&
+                distanceToP2 < FAST_TRUNCATION_LIMIT &&
+                length < FAST_TRUNCATION_LIMIT) {
+
+            final long difference = truncatedUnits(distanceToP1) +
+                    truncatedUnits(distanceToP2) - truncatedUnits(length);
+            return -1 <= difference && difference <= 1;
+        }
+
         final BigDecimal distanceBetweenPointAndLineP1 =
-                doubleToBigDecimal(point.distance(line.getP1()));
+                doubleToBigDecimal(distanceToP1);
         final BigDecimal distanceBetweenPointAndLineP2 =
-                doubleToBigDecimal(point.distance(line.getP2()));
+                doubleToBigDecimal(distanceToP2);
         final BigDecimal distanceBetweenPointAndLineEndpoint =
                 distanceBetweenPointAndLineP1.add(distanceBetweenPointAndLineP2)
                         .stripTrailingZeros();
-        final BigDecimal lineLength =
-                doubleToBigDecimal(line.getP1().distance(line.getP2()));
+        final BigDecimal lineLength = doubleToBigDecimal(length);
 
         return distanceBetweenPointAndLineEndpoint.equals(lineLength) ||
                 (distanceBetweenPointAndLineEndpoint.subtract(lineLength)
@@ -109,10 +677,67 @@ public class IntersectionPoint {
                         .doubleValue() == 0.00001);
     }
 
+    /**
+     * Truncate a given value to 5 decimal places, same as {@link
+     * #doubleToBigDecimal(double)}
+     */
+    static double truncate(double value) {
+        if (Math.abs(value) < FAST_TRUNCATION_LIMIT) {
+            return truncatedUnits(value) / 1e5;
+        }
+
+        return doubleToBigDecimal(value).doubleValue();
+    }
+
+    /**
+     * Truncate a given value to 5 decimal places and return it in units of
+     * 0.00001. Like {@link BigDecimal#valueOf(double)}, the value is regarded
+     * as the shortest decimal of {@link Double#toString(double)}, so 0.3 is
+     * 30000 although the nearest double is slightly less than 0.3. Only valid
+     * for a magnitude less than {@link #FAST_TRUNCATION_LIMIT}.
+     */
+    static private long truncatedUnits(double value) {
+        final double magnitude = Math.abs(value);
+        final double scaled = magnitude * 1e5;
+        final double nearest = Math.rint(scaled);
+
+        long units;
+        if (Math.abs(scaled - nearest) > 4 * Math.ulp(scaled)) {
+            units = (long) scaled;
+        } else {
+            // Close to a multiple of 0.00001. Its shortest decimal is on the
+            // multiple only if the value is not less than the nearest double
+            // of the multiple.
+            units = (long) nearest;
+            if (magnitude < nearest / 1e5) {
+                units--;
+            }
+        }
+
+        return value < 0 ? -units : units;
+    }
+
+    /**
+     * Truncate a given value to given decimal places. Other than {@link
+     * #DECIMAL_PLACES}, it's truncated with {@link BigDecimal}.
+     */
+    static double truncate(double value, int decimalPlaces) {
+        if (decimalPlaces == DECIMAL_PLACES) {
+            return truncate(value);
+        }
+
+        return doubleToBigDecimal(value, decimalPlaces).doubleValue();
+    }
+
     static private BigDecimal doubleToBigDecimal(double value) {
+        return doubleToBigDecimal(value, DECIMAL_PLACES).stripTrailingZeros();
+    }
+
+    static private BigDecimal doubleToBigDecimal(double value,
+            int decimalPlaces) {
+
         return BigDecimal.valueOf(value)
-                .setScale(5, RoundingMode.DOWN)
-                .stripTrailingZeros();
+                .setScale(decimalPlaces, RoundingMode.DOWN);
     }
 
     /**
@@ -135,56 +760,574 @@ public class IntersectionPoint {
     static public List<Point2D> getIntersectionPoints(Rectangle2D rect,
             Line2D line, boolean includesEndpoint) {
 
-        final List<Line2D> linesOfRectangle = getLinesOfRectangle(rect);
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
 
-        final List<Point2D> intersectionPoints = linesOfRectangle.stream()
-                .map(lineOfRect -> getIntersectionPoint(lineOfRect, line,
-                        true).orElse(null))
-                .filter(Objects::nonNull)
-                .distinct()
-                .collect(Collectors.toList());
+        final double[] points = new double[MAX_RECTANGLE_POINTS * 2];
+        final int count = rectangleIntersectionPoints(rect.getX(), rect.getY(),
+                rect.getWidth(), rect.getHeight(), line.getX1(), line.getY1(),
+                line.getX2(), line.getY2(), includesEndpoint, points);
 
-        if (includesEndpoint || intersectionPoints.size() != 1) {
-            return intersectionPoints;
+        final List<Point2D> intersectionPoints = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            intersectionPoints.add(
+                    new Point2D.Double(points[2 * n], points[2 * n + 1]));
         }
 
-        final Point2D point = intersectionPoints.get(0);
+        if (metrics != null) {
+            metrics.recordCall(Operation.RECTANGLE_INTERSECTION_POINTS, start);
+        }
+        return intersectionPoints;
+    }
 
-        if (pointIsOnLineEndpoint(point, line) || linesOfRectangle.stream()
-                .anyMatch(li -> pointIsOnLineEndpoint(point, li))) {
+    /**
+     * Get intersection points from a given rectangle and a line under a given
+     * precision policy
+     *
+     * @param rect the specified rectangle
+     * @param line the specified line
+     * @param includesEndpoint Same as {@link
+     * #getIntersectionPoints(Rectangle2D, Line2D, boolean)}
+     * @param policy how the edges and the line are compared
+     *
+     * @return list of intersection points if exists. Otherwise empty list.
+     */
+    static public List<Point2D> getIntersectionPoints(Rectangle2D rect,
+            Line2D line, boolean includesEndpoint, PrecisionPolicy policy) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
 
-            return new ArrayList<>();
+        final double[] points = new double[MAX_RECTANGLE_POINTS * 2];
+        final int count = policy.getIntersectionPoints(rect.getX(),
+                rect.getY(), rect.getWidth(), rect.getHeight(), line.getX1(),
+                line.getY1(), line.getX2(), line.getY2(), includesEndpoint,
+                points);
+
+        final List<Point2D> intersectionPoints = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            intersectionPoints.add(
+                    new Point2D.Double(points[2 * n], points[2 * n + 1]));
         }
 
+        if (metrics != null) {
+            metrics.recordCall(Operation.RECTANGLE_INTERSECTION_POINTS, start);
+        }
         return intersectionPoints;
     }
 
-    static private List<Line2D> getLinesOfRectangle(Rectangle2D rect) {
+    /**
+     * Get intersection points from a given rectangle and a line into an array.
+     * The result is same as {@link #getIntersectionPoints(Rectangle2D, Line2D,
+     * boolean)}, but nothing is allocated.
+     *
+     * @param rect the specified rectangle
+     * @param line the specified line
+     * @param includesEndpoint Same as {@link
+     * #getIntersectionPoints(Rectangle2D, Line2D, boolean)}
+     * @param points the {@code n}-th intersection point is stored at {@code 2
+     * * n} and {@code 2 * n + 1}. At least {@code 2 * MAX_RECTANGLE_POINTS}
+     * long.
+     *
+     * @return the number of intersection points
+     */
+    static public int getIntersectionPoints(Rectangle2D rect, Line2D line,
+            boolean includesEndpoint, double[] points) {
+
+        return getIntersectionPoints(rect.getX(), rect.getY(), rect.getWidth(),
+                rect.getHeight(), line.getX1(), line.getY1(), line.getX2(),
+                line.getY2(), includesEndpoint, points);
+    }
 
-        final Point2D upperLeftPoint =
-                new Point2D.Double(rect.getX(), rect.getY());
-        final Point2D upperRightPoint =
-                new Point2D.Double(rect.getX() + rect.getWidth(), rect.getY());
-        final Point2D lowerLeftPoint =
-                new Point2D.Double(rect.getX(), rect.getY() - rect.getHeight());
-        final Point2D lowerRightPoint =
-                new Point2D.Double(rect.getX() + rect.getWidth(),
-                        rect.getY() - rect.getHeight());
+    /**
+     * Write intersection points from a given rectangle and a line into a sink
+     * as a record of a query. The record has the intersection points same as
+     * {@link #getIntersectionPoints(Rectangle2D, Line2D, boolean)} in the same
+     * order. Nothing is allocated, as scratch space of the current thread is
+     * reused.
+     *
+     * @param rect the specified rectangle
+     * @param line the specified line
+     * @param includesEndpoint Same as {@link
+     * #getIntersectionPoints(Rectangle2D, Line2D, boolean)}
+     * @param query the query index of the record
+     * @param sink the sink to write the record into
+     *
+     * @return the number of intersection points
+     */
+    static public int writeIntersectionPoints(Rectangle2D rect, Line2D line,
+            boolean includesEndpoint, int query, IntersectionSink sink) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final double[] points = sinkScratch();
+        final int count = rectangleIntersectionPoints(rect.getX(), rect.getY(),
+                rect.getWidth(), rect.getHeight(), line.getX1(), line.getY1(),
+                line.getX2(), line.getY2(), includesEndpoint, points);
+
+        sink.beginRecord(query);
+        for (int n = 0; n < count; n++) {
+            sink.addPoint(points[2 * n], points[2 * n + 1]);
+        }
+        sink.endRecord();
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.RECTANGLE_INTERSECTION_POINTS, start);
+        }
+        return count;
+    }
 
-        List<Line2D> linesOfRect = new ArrayList<>();
+    /**
+     * Get intersection points from a rectangle of ({@code x}, {@code y},
+     * {@code width}, {@code height}) and a line from ({@code x1}, {@code y1})
+     * to ({@code x2}, {@code y2}) into an array. Same as {@link
+     * #getIntersectionPoints(Rectangle2D, Line2D, boolean)}, the upper edge of
+     * the rectangle is at {@code y} and the lower edge is at {@code y -
+     * height}.
+     * <p>
+     * Before checking each edge, the line is clipped by the bounds of the
+     * rectangle expanded by the tolerance of 5 decimal places truncation, and
+     * it's regarded as not intersected if nothing is left.
+     *
+     * @param includesEndpoint Same as {@link
+     * #getIntersectionPoints(Rectangle2D, Line2D, boolean)}
+     * @param points the {@code n}-th intersection point is stored at {@code 2
+     * * n} and {@code 2 * n + 1}. At least {@code 2 * MAX_RECTANGLE_POINTS}
+     * long.
+     *
+     * @return the number of intersection points
+     */
+    static public int getIntersectionPoints(double x, double y, double width,
+            double height, double x1, double y1, double x2, double y2,
+            boolean includesEndpoint, double[] points) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final int count = rectangleIntersectionPoints(x, y, width, height, x1,
+                y1, x2, y2, includesEndpoint, points);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.RECTANGLE_INTERSECTION_POINTS, start);
+        }
+        return count;
+    }
+
+    /**
+     * Same as {@code rectangleIntersectionPoints(...) > 0} excluding
+     * endpoints, but the 1st point is kept in locals instead of an array,
+     * and it returns as soon as a 2nd distinct point is found. Each edge is
+     * computed same as {@link #computeIntersectionPoint(double, double,
+     * double, double, double, double, double, double, boolean, Point2D,
+     * double[], int)}.
+     */
+    static private boolean rectangleIntersectsExcludingEndpoint(double left,
+            double right, double upper, double lower, double x1, double y1,
+            double x2, double y2) {
+
+        final double a2 = y2 - y1;
+        final double b2 = x1 - x2;
+        final double c2 = a2 * x1 + b2 * y1;
+
+        boolean found = false;
+        double foundX = 0;
+        double foundY = 0;
+        for (int edge = 0; edge < 4; edge++) {
+            // upper, lower, left and right line
+            final double ex1 = edge == 3 ? right : left;
+            final double ey1 = edge == 1 ? lower : upper;
+            final double ex2 = edge == 2 ? left : right;
+            final double ey2 = edge == 0 ? upper : lower;
+
+            final double a1 = ey2 - ey1;
+            final double b1 = ex1 - ex2;
+            final double determinant = a1 * b2 - a2 * b1;
+            if (determinant == 0) {
+                continue;
+            }
+
+            final double c1 = a1 * ex1 + b1 * ey1;
+            final double px =
+                    truncate((b2 * c1 - b1 * c2) / determinant + 0.0);
+            final double py =
+                    truncate((a1 * c2 - a2 * c1) / determinant + 0.0);
+            if (!isOnLine(px, py, ex1, ey1, ex2, ey2, true) ||
+                    !isOnLine(px, py, x1, y1, x2, y2, true)) {
+                continue;
+            }
+
+            if (!found) {
+                found = true;
+                foundX = px;
+                foundY = py;
+            } else if (px != foundX || py != foundY) {
+                return true;
+            }
+        }
+
+        if (!found) {
+            return false;
+        }
+        if (foundX == x1 && foundY == y1 || foundX == x2 && foundY == y2 ||
+                (foundX == left || foundX == right) &&
+                        (foundY == upper || foundY == lower)) {
+            final IntersectionMetrics metrics = IntersectionMetrics.active;
+            if (metrics != null) {
+                metrics.recordSinglePointExcluded();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #getIntersectionPoints(double, double, double, double,
+     * double, double, double, double, boolean, double[])}, but the call is not
+     * recorded to {@link IntersectionMetrics}
+     */
+    static int rectangleIntersectionPoints(double x, double y, double width,
+            double height, double x1, double y1, double x2, double y2,
+            boolean includesEndpoint, double[] points) {
+
+        final double left = x;
+        final double right = x + width;
+        final double upper = y;
+        final double lower = y - height;
+
+        if (isOutsideOfRectangle(left, right, upper, lower, x1, y1, x2, y2)) {
+            return 0;
+        }
+
+        int count = 0;
         // upper line
-        linesOfRect.add(new Line2D.Double(upperLeftPoint, upperRightPoint));
+        count = addIntersectionPoint(left, upper, right, upper, x1, y1, x2, y2,
+                points, count);
         // lower line
-        linesOfRect.add(new Line2D.Double(lowerLeftPoint, lowerRightPoint));
+        count = addIntersectionPoint(left, lower, right, lower, x1, y1, x2, y2,
+                points, count);
         // left line
-        linesOfRect.add(new Line2D.Double(upperLeftPoint, lowerLeftPoint));
+        count = addIntersectionPoint(left, upper, left, lower, x1, y1, x2, y2,
+                points, count);
         // right line
-        linesOfRect.add(new Line2D.Double(upperRightPoint, lowerRightPoint));
+        count = addIntersectionPoint(right, upper, right, lower, x1, y1, x2, y2,
+                points, count);
+
+        if (includesEndpoint || count != 1) {
+            return count;
+        }
+
+        final double px = points[0];
+        final double py = points[1];
+        if (px == x1 && py == y1 || px == x2 && py == y2 ||
+                (px == left || px == right) && (py == upper || py == lower)) {
+            final IntersectionMetrics metrics = IntersectionMetrics.active;
+            if (metrics != null) {
+                metrics.recordSinglePointExcluded();
+            }
+            return 0;
+        }
+
+        return count;
+    }
+
+    /**
+     * Get intersection points from a given ellipse and a line. Same as {@link
+     * Ellipse2D} itself and unlike {@link #getIntersectionPoints(Rectangle2D,
+     * Line2D, boolean)}, the ellipse is inscribed in the bounds spanning from
+     * {@code y} to {@code y + height}. A circle is an ellipse whose width and
+     * height are same.
+     * <p>
+     * The crossing points of the extended line are solved analytically, then
+     * each of them is truncated to 5 decimal places and checked to be on the
+     * line same as {@link #getIntersectionPoint(Line2D, Line2D, boolean)}.
+     *
+     * @param ellipse the specified ellipse
+     * @param line the specified line
+     * @param includesEndpoint Includes an intersection point on endpoint of
+     * the line if {@code true}. If {@code false}, a single intersection point
+     * on endpoint of the line is regarded as NOT intersected, but two
+     * intersection points are regarded as intersected.
+     *
+     * @return list of intersection points in the order from the start point
+     * of the line if exists. Otherwise empty list.
+     */
+    static public List<Point2D> getIntersectionPoints(Ellipse2D ellipse,
+            Line2D line, boolean includesEndpoint) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final double[] points = new double[MAX_ELLIPSE_POINTS * 2];
+        final int count = ellipseIntersectionPoints(ellipse.getX(),
+                ellipse.getY(), ellipse.getWidth(), ellipse.getHeight(),
+                line.getX1(), line.getY1(), line.getX2(), line.getY2(),
+                includesEndpoint, points);
+
+        final List<Point2D> intersectionPoints = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            intersectionPoints.add(
+                    new Point2D.Double(points[2 * n], points[2 * n + 1]));
+        }
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.ELLIPSE_INTERSECTION_POINTS, start);
+        }
+        return intersectionPoints;
+    }
+
+    /**
+     * Get intersection points from an ellipse inscribed in the bounds from
+     * ({@code x}, {@code y}) to ({@code x + width}, {@code y + height}), same
+     * as {@link Ellipse2D}, and a line from
+     * ({@code x1}, {@code y1}) to ({@code x2}, {@code y2}) into an array. The
+     * result is same as {@link #getIntersectionPoints(Ellipse2D, Line2D,
+     * boolean)}, but nothing is allocated.
+     *
+     * @param includesEndpoint Same as {@link #getIntersectionPoints(Ellipse2D,
+     * Line2D, boolean)}
+     * @param points the {@code n}-th intersection point is stored at {@code 2
+     * * n} and {@code 2 * n + 1}. At least {@code 2 * MAX_ELLIPSE_POINTS}
+     * long.
+     *
+     * @return the number of intersection points
+     */
+    static public int getEllipseIntersectionPoints(double x, double y,
+            double width, double height, double x1, double y1, double x2,
+            double y2, boolean includesEndpoint, double[] points) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final int count = ellipseIntersectionPoints(x, y, width, height, x1,
+                y1, x2, y2, includesEndpoint, points);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.ELLIPSE_INTERSECTION_POINTS, start);
+        }
+        return count;
+    }
+
+    /**
+     * Same as {@link #getEllipseIntersectionPoints(double, double, double,
+     * double, double, double, double, double, boolean, double[])}, but the
+     * call is not recorded to {@link IntersectionMetrics}
+     */
+    static int ellipseIntersectionPoints(double x, double y, double width,
+            double height, double x1, double y1, double x2, double y2,
+            boolean includesEndpoint, double[] points) {
+
+        // An empty ellipse, or NaN, has no point
+        if (!(width > 0 && height > 0)) {
+            return 0;
+        }
+
+        // Squares of the semi-axes, and the start point from the center
+        final double a2 = width * width / 4;
+        final double b2 = height * height / 4;
+        final double px = x1 - (x + width / 2);
+        final double py = y1 - (y + height / 2);
+        final double dx = x2 - x1;
+        final double dy = y2 - y1;
+
+        // (px + t dx)^2 / a2 + (py + t dy)^2 / b2 = 1 multiplied by a2 * b2,
+        // which is exact for small integers
+        final double a = b2 * dx * dx + a2 * dy * dy;
+        final double halfB = b2 * px * dx + a2 * py * dy;
+        final double c = b2 * px * px + a2 * py * py - a2 * b2;
+        final double discriminant = halfB * halfB - a * c;
+        if (a == 0 || !(discriminant >= 0)) {
+            return 0;
+        }
+
+        // Roots without cancellation of the subtraction
+        final double q =
+                -(halfB + Math.copySign(Math.sqrt(discriminant), halfB));
+        final double root1 = q / a;
+        final double root2 = q == 0 ? root1 : c / q;
+        final double t1 = Math.min(root1, root2);
+        final double t2 = Math.max(root1, root2);
+
+        int count = addEllipsePoint(x1 + t1 * dx, y1 + t1 * dy, x1, y1, x2, y2,
+                points, 0);
+        count = addEllipsePoint(x1 + t2 * dx, y1 + t2 * dy, x1, y1, x2, y2,
+                points, count);
+
+        if (includesEndpoint || count != 1) {
+            return count;
+        }
+
+        return points[0] == x1 && points[1] == y1 ||
+                points[0] == x2 && points[1] == y2 ? 0 : count;
+    }
+
+    /**
+     * Truncate a crossing point of an ellipse and the extended line, and add
+     * it if it's on the line, including endpoints, unless it's already added
+     *
+     * @return the number of points after adding
+     */
+    static private int addEllipsePoint(double crossX, double crossY,
+            double x1, double y1, double x2, double y2, double[] points,
+            int count) {
+
+        final double px = truncate(crossX + 0.0);
+        final double py = truncate(crossY + 0.0);
+        if (!isOnLine(px, py, x1, y1, x2, y2, true)) {
+            return count;
+        }
+        for (int n = 0; n < count; n++) {
+            if (points[2 * n] == px && points[2 * n + 1] == py) {
+                return count;
+            }
+        }
 
-        return linesOfRect;
+        points[2 * count] = px;
+        points[2 * count + 1] = py;
+        return count + 1;
     }
 
-    static private boolean pointIsOnLineEndpoint(Point2D point, Line2D line) {
-        return point.equals(line.getP1()) || point.equals(line.getP2());
+    /**
+     * Whether a given rectangle and a line are intersected. The result is same
+     * as {@code !getIntersectionPoints(rect, line, includesEndpoint)
+     * .isEmpty()}. Edges apart from the line are rejected same as {@link
+     * #intersects(Line2D, Line2D, boolean)}, and if endpoints are included,
+     * it returns as soon as an edge is intersected. Otherwise the
+     * intersection points are counted for the rule of a single point.
+     *
+     * @param rect the specified rectangle
+     * @param line the specified line
+     * @param includesEndpoint Same as {@link
+     * #getIntersectionPoints(Rectangle2D, Line2D, boolean)}
+     *
+     * @return {@code true} if intersected. Otherwise {@code false}
+     */
+    static public boolean intersects(Rectangle2D rect, Line2D line,
+            boolean includesEndpoint) {
+
+        final IntersectionMetrics metrics = IntersectionMetrics.active;
+        final long start = metrics == null ? 0 : System.nanoTime();
+
+        final boolean intersected = rectangleIntersects(rect.getX(),
+                rect.getY(), rect.getWidth(), rect.getHeight(), line.getX1(),
+                line.getY1(), line.getX2(), line.getY2(), includesEndpoint);
+
+        if (metrics != null) {
+            metrics.recordCall(Operation.RECTANGLE_INTERSECTS, start);
+        }
+        return intersected;
+    }
+
+    static private boolean rectangleIntersects(double x, double y,
+            double width, double height, double x1, double y1, double x2,
+            double y2, boolean includesEndpoint) {
+
+        final double left = x;
+        final double right = x + width;
+        final double upper = y;
+        final double lower = y - height;
+
+        if (isOutsideOfRectangle(left, right, upper, lower, x1, y1, x2, y2)) {
+            return false;
+        }
+
+        if (!includesEndpoint) {
+            return rectangleIntersectsExcludingEndpoint(left, right, upper,
+                    lower, x1, y1, x2, y2);
+        }
+
+        return linesIntersect(left, upper, right, upper, x1, y1, x2, y2,
+                true) ||
+                linesIntersect(left, lower, right, lower, x1, y1, x2, y2,
+                        true) ||
+                linesIntersect(left, upper, left, lower, x1, y1, x2, y2,
+                        true) ||
+                linesIntersect(right, upper, right, lower, x1, y1, x2, y2,
+                        true);
+    }
+
+    /**
+     * Whether a line can't have any point regarded as on edges of a
+     * rectangle. First the outcodes of the endpoints are compared, then the
+     * line is clipped by the Liang-Barsky algorithm. Both use the bounds
+     * expanded by the padding of the edges and the line.
+     */
+    static private boolean isOutsideOfRectangle(double left, double right,
+            double upper, double lower, double x1, double y1, double x2,
+            double y2) {
+
+        final double sum = left + right + upper + lower + x1 + y1 + x2 + y2;
+        if (sum - sum != 0) {
+            // NaN or infinity is left to the edges as before
+            return false;
+        }
+
+        final double padding = Math.max(
+                Math.max(boundsPadding(left, upper, right, upper),
+                        boundsPadding(left, lower, right, lower)),
+                Math.max(boundsPadding(left, upper, left, lower),
+                        boundsPadding(right, upper, right, lower))) +
+                boundsPadding(x1, y1, x2, y2);
+
+        final double minX = Math.min(left, right) - padding;
+        final double maxX = Math.max(left, right) + padding;
+        final double minY = Math.min(upper, lower) - padding;
+        final double maxY = Math.max(upper, lower) + padding;
+
+        if ((outcode(x1, y1, minX, minY, maxX, maxY) &
+                outcode(x2, y2, minX, minY, maxX, maxY)) != 0) {
+            return true;
+        }
+
+        return PackedRTree.entryParameter(x1, y1, x2 - x1, y2 - y1, 1, minX,
+                minY, maxX, maxY) == Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Cohen-Sutherland outcode of a point
+     */
+    static private int outcode(double px, double py, double minX, double minY,
+            double maxX, double maxY) {
+
+        int code = 0;
+        if (px < minX) {
+            code |= 1;
+        } else if (maxX < px) {
+            code |= 2;
+        }
+        if (py < minY) {
+            code |= 4;
+        } else if (maxY < py) {
+            code |= 8;
+        }
+        return code;
+    }
+
+    /**
+     * Add the intersection point of an edge of a rectangle and a line,
+     * including endpoints, unless it's already added
+     *
+     * @return the number of points after adding
+     */
+    static private int addIntersectionPoint(double ex1, double ey1, double ex2,
+            double ey2, double x1, double y1, double x2, double y2,
+            double[] points, int count) {
+
+        final int status =
+                computeIntersectionPoint(ex1, ey1, ex2, ey2, x1, y1, x2, y2,
+                        true, null, points, 2 * count);
+        if (status != INTERSECTED) {
+            return count;
+        }
+
+        final double px = points[2 * count];
+        final double py = points[2 * count + 1];
+        for (int n = 0; n < count; n++) {
+            if (points[2 * n] == px && points[2 * n + 1] == py) {
+                return count;
+            }
+        }
+
+        return count + 1;
     }
 }
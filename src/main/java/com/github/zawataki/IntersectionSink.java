@@ -0,0 +1,44 @@
+package com.github.zawataki;
+
+/**
+ * Receiver of intersection points written as records, one record per query.
+ * A record is written by {@link #beginRecord(int)}, {@link #addPoint(double,
+ * double)} for each intersection point, and {@link #endRecord()}, so that
+ * intersection points are passed without allocating an object for each.
+ * <p>
+ * {@link IntersectionPoint#writeIntersectionPoint(java.awt.geom.Line2D,
+ * java.awt.geom.Line2D, boolean, int, IntersectionSink)}, {@link
+ * IntersectionPoint#writeIntersectionPoints(java.awt.geom.Rectangle2D,
+ * java.awt.geom.Line2D, boolean, int, IntersectionSink)} and {@link
+ * SegmentBatch#writeIntersectionPoints(double[], double[], int, boolean,
+ * IntersectionSink)} write into a sink. They share scratch space of the
+ * current thread, so a sink must not call them from its own methods. Other
+ * producers, e.g. {@link SweepLineIntersector}, {@link SpatialIndex}, {@link
+ * Polygon2D} and ellipses, return lists of points and don't write into a
+ * sink.
+ *
+ * @see ByteBufferSink
+ * @see DoubleBufferSink
+ */
+public interface IntersectionSink {
+
+    /**
+     * Begin a record
+     *
+     * @param query index of the query, e.g. index of the pair of lines
+     */
+    void beginRecord(int query);
+
+    /**
+     * Add an intersection point to the current record
+     *
+     * @param x x of the intersection point
+     * @param y y of the intersection point
+     */
+    void addPoint(double x, double y);
+
+    /**
+     * End the current record
+     */
+    void endRecord();
+}
@@ -0,0 +1,364 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tracker of intersection points among lines which are inserted, updated and
+ * removed by id. Lines are hashed into a uniform grid by their bounds, so a
+ * change only checks lines in the same cells. Each pair gives the same result
+ * as {@link IntersectionPoint#getIntersectionPoint(Line2D, Line2D, boolean)}.
+ * <p>
+ * Changes of intersection points are accumulated until {@link
+ * #flush(IntersectionConsumer, IntersectionConsumer)}, which passes the net
+ * differences of the batch.
+ * <p>
+ * An instance is not thread-safe.
+ */
+public final class IntersectionTracker {
+
+    /**
+     * Lines covering more cells than this are not hashed, and checked with
+     * every line instead
+     */
+    static private final int MAX_CELLS_OF_LINE = 64;
+
+    private final double cellSize;
+    private final boolean includesEndpoint;
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final Set<Entry> unhashedEntries = new HashSet<>();
+
+    /**
+     * The current intersection point of each pair of ids
+     */
+    private final Map<Long, Point2D> crossings = new HashMap<>();
+
+    /**
+     * The intersection point of each changed pair at the beginning of the
+     * batch, or {@code null} if not intersected
+     */
+    private final Map<Long, Point2D> changes = new LinkedHashMap<>();
+
+    private final double[] point = new double[2];
+
+    /**
+     * @param cellSize the width and height of a cell of the grid, about the
+     * typical length of lines
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     *
+     * @throws IllegalArgumentException if {@code cellSize} is not a positive
+     * finite value
+     */
+    public IntersectionTracker(double cellSize, boolean includesEndpoint) {
+        if (!(cellSize > 0 && cellSize < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException(
+                    "Invalid cell size: " + cellSize);
+        }
+
+        this.cellSize = cellSize;
+        this.includesEndpoint = includesEndpoint;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean contains(int id) {
+        return entries.containsKey(id);
+    }
+
+    /**
+     * Get the number of current intersected pairs
+     */
+    public int getCrossingCount() {
+        return crossings.size();
+    }
+
+    /**
+     * Get the current intersection point of lines of given ids
+     *
+     * @return the intersection point if exists. Otherwise empty.
+     */
+    public Optional<Point2D> getIntersectionPoint(int id1, int id2) {
+        final Point2D crossing = crossings.get(pairKey(id1, id2));
+        return crossing == null ? Optional.empty() :
+                Optional.of((Point2D) crossing.clone());
+    }
+
+    /**
+     * Pass all current intersection points, in no particular order, with the
+     * less id as {@code index1}
+     */
+    public void forEachCrossing(IntersectionConsumer consumer) {
+        crossings.forEach((key, crossing) ->
+                consumer.accept(firstId(key), secondId(key), crossing.getX(),
+                        crossing.getY()));
+    }
+
+    /**
+     * Insert a line of a given id
+     *
+     * @throws IllegalArgumentException if the id already exists
+     */
+    public void insert(int id, Line2D line) {
+        if (entries.containsKey(id)) {
+            throw new IllegalArgumentException("Duplicate id: " + id);
+        }
+
+        final Entry entry = new Entry(id, line);
+        entries.put(id, entry);
+        addToGrid(entry);
+        addCrossings(entry);
+    }
+
+    /**
+     * Replace the line of a given id
+     *
+     * @throws IllegalArgumentException if the id doesn't exist
+     */
+    public void update(int id, Line2D line) {
+        final Entry entry = entries.remove(id);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown id: " + id);
+        }
+
+        removeFromGrid(entry);
+        removeCrossings(entry);
+
+        final Entry newEntry = new Entry(id, line);
+        entries.put(id, newEntry);
+        addToGrid(newEntry);
+        addCrossings(newEntry);
+    }
+
+    /**
+     * Remove the line of a given id
+     *
+     * @return {@code true} if the id existed
+     */
+    public boolean remove(int id) {
+        final Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+
+        removeFromGrid(entry);
+        removeCrossings(entry);
+        return true;
+    }
+
+    /**
+     * Pass the differences of intersection points since the last flush and
+     * start a new batch. A pair whose intersection point is moved is passed
+     * to both. Pairs are in the order of their 1st change, with the less id
+     * as {@code index1}.
+     *
+     * @param added the receiver of new intersection points
+     * @param removed the receiver of old intersection points which no longer
+     * exist
+     */
+    public void flush(IntersectionConsumer added,
+            IntersectionConsumer removed) {
+
+        changes.forEach((key, before) -> {
+            final Point2D after = crossings.get(key);
+            if (before != null && before.equals(after)) {
+                return;
+            }
+
+            if (before != null) {
+                removed.accept(firstId(key), secondId(key), before.getX(),
+                        before.getY());
+            }
+            if (after != null) {
+                added.accept(firstId(key), secondId(key), after.getX(),
+                        after.getY());
+            }
+        });
+        changes.clear();
+    }
+
+    private void addCrossings(Entry entry) {
+        final Collection<Entry> candidates;
+        if (entry.cellMinX > entry.cellMaxX) {
+            candidates = entries.values();
+        } else {
+            final Set<Entry> neighbors = new HashSet<>(unhashedEntries);
+            for (long cx = entry.cellMinX; cx <= entry.cellMaxX; cx++) {
+                for (long cy = entry.cellMinY; cy <= entry.cellMaxY; cy++) {
+                    final List<Entry> cell = cells.get(cellKey(cx, cy));
+                    if (cell != null) {
+                        neighbors.addAll(cell);
+                    }
+                }
+            }
+            candidates = neighbors;
+        }
+
+        for (Entry other : candidates) {
+            if (other == entry || !entry.overlaps(other)) {
+                continue;
+            }
+
+            final Entry first = entry.id < other.id ? entry : other;
+            final Entry second = first == entry ? other : entry;
+            final int status = IntersectionPoint.computeIntersectionPoint(
+                    first.x1, first.y1, first.x2, first.y2, second.x1,
+                    second.y1, second.x2, second.y2, includesEndpoint, null,
+                    point, 0);
+            if (status != IntersectionPoint.INTERSECTED) {
+                continue;
+            }
+
+            final long key = pairKey(entry.id, other.id);
+            recordChange(key);
+            crossings.put(key, new Point2D.Double(point[0], point[1]));
+            entry.partners.add(other.id);
+            other.partners.add(entry.id);
+        }
+    }
+
+    private void removeCrossings(Entry entry) {
+        for (int partner : entry.partners) {
+            final long key = pairKey(entry.id, partner);
+            recordChange(key);
+            crossings.remove(key);
+            entries.get(partner).partners.remove(entry.id);
+        }
+    }
+
+    private void recordChange(long key) {
+        if (!changes.containsKey(key)) {
+            changes.put(key, crossings.get(key));
+        }
+    }
+
+    private void addToGrid(Entry entry) {
+        if (entry.cellMinX > entry.cellMaxX) {
+            unhashedEntries.add(entry);
+            return;
+        }
+
+        for (long cx = entry.cellMinX; cx <= entry.cellMaxX; cx++) {
+            for (long cy = entry.cellMinY; cy <= entry.cellMaxY; cy++) {
+                cells.computeIfAbsent(cellKey(cx, cy), k -> new ArrayList<>())
+                        .add(entry);
+            }
+        }
+    }
+
+    private void removeFromGrid(Entry entry) {
+        if (entry.cellMinX > entry.cellMaxX) {
+            unhashedEntries.remove(entry);
+            return;
+        }
+
+        for (long cx = entry.cellMinX; cx <= entry.cellMaxX; cx++) {
+            for (long cy = entry.cellMinY; cy <= entry.cellMaxY; cy++) {
+                final long key = cellKey(cx, cy);
+                final List<Entry> cell = cells.get(key);
+                cell.remove(entry);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    static private long cellKey(long cx, long cy) {
+        return cx << 32 | cy & 0xffffffffL;
+    }
+
+    static private long pairKey(int id1, int id2) {
+        final int first = Math.min(id1, id2);
+        final int second = Math.max(id1, id2);
+        return (long) first << 32 | second & 0xffffffffL;
+    }
+
+    static private int firstId(long key) {
+        return (int) (key >> 32);
+    }
+
+    static private int secondId(long key) {
+        return (int) key;
+    }
+
+    /**
+     * A line and its cells. Cells are [{@code cellMinX}, {@code cellMaxX}] x
+     * [{@code cellMinY}, {@code cellMaxY}], or none if it's not hashed.
+     */
+    private class Entry {
+
+        final int id;
+        final double x1;
+        final double y1;
+        final double x2;
+        final double y2;
+        final double minX;
+        final double minY;
+        final double maxX;
+        final double maxY;
+        final long cellMinX;
+        final long cellMinY;
+        final long cellMaxX;
+        final long cellMaxY;
+
+        /**
+         * Ids of lines intersected with this
+         */
+        final Set<Integer> partners = new HashSet<>();
+
+        Entry(int id, Line2D line) {
+            this.id = id;
+            x1 = line.getX1();
+            y1 = line.getY1();
+            x2 = line.getX2();
+            y2 = line.getY2();
+
+            final double padding =
+                    IntersectionPoint.boundsPadding(x1, y1, x2, y2);
+            minX = Math.min(x1, x2) - padding;
+            minY = Math.min(y1, y2) - padding;
+            maxX = Math.max(x1, x2) + padding;
+            maxY = Math.max(y1, y2) + padding;
+
+            final double cellWidth = Math.floor(maxX / cellSize) -
+                    Math.floor(minX / cellSize) + 1;
+            final double cellHeight = Math.floor(maxY / cellSize) -
+                    Math.floor(minY / cellSize) + 1;
+            // Also false for NaN, infinity and cells out of the int range
+            if (cellWidth * cellHeight <= MAX_CELLS_OF_LINE &&
+                    Math.abs(minX / cellSize) < Integer.MAX_VALUE &&
+                    Math.abs(maxX / cellSize) < Integer.MAX_VALUE &&
+                    Math.abs(minY / cellSize) < Integer.MAX_VALUE &&
+                    Math.abs(maxY / cellSize) < Integer.MAX_VALUE) {
+                cellMinX = (long) Math.floor(minX / cellSize);
+                cellMinY = (long) Math.floor(minY / cellSize);
+                cellMaxX = (long) Math.floor(maxX / cellSize);
+                cellMaxY = (long) Math.floor(maxY / cellSize);
+            } else {
+                cellMinX = 0;
+                cellMinY = 0;
+                cellMaxX = -1;
+                cellMaxY = -1;
+            }
+        }
+
+        boolean overlaps(Entry other) {
+            return minX <= other.maxX && other.minX <= maxX &&
+                    minY <= other.maxY && other.minY <= maxY;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.zawataki;
+
+/**
+ * Bounds of lines packed in an interleaved array, expanded by {@link
+ * IntersectionPoint#boundsPadding(double, double, double, double)}. Lines
+ * whose bounds don't overlap are never intersected.
+ */
+final class LineBounds {
+
+    final double[] minX;
+    final double[] minY;
+    final double[] maxX;
+    final double[] maxY;
+
+    private LineBounds(int count) {
+        minX = new double[count];
+        minY = new double[count];
+        maxX = new double[count];
+        maxY = new double[count];
+    }
+
+    static LineBounds of(double[] lines, int count) {
+        final LineBounds bounds = new LineBounds(count);
+
+        for (int i = 0; i < count; i++) {
+            final int l = i * SegmentBatch.STRIDE;
+            final double x1 = lines[l];
+            final double y1 = lines[l + 1];
+            final double x2 = lines[l + 2];
+            final double y2 = lines[l + 3];
+            final double padding =
+                    IntersectionPoint.boundsPadding(x1, y1, x2, y2);
+
+            bounds.minX[i] = Math.min(x1, x2) - padding;
+            bounds.minY[i] = Math.min(y1, y2) - padding;
+            bounds.maxX[i] = Math.max(x1, x2) + padding;
+            bounds.maxY[i] = Math.max(y1, y2) + padding;
+        }
+
+        return bounds;
+    }
+
+    boolean overlaps(int i, int j) {
+        return minX[i] <= maxX[j] && minX[j] <= maxX[i] &&
+                minY[i] <= maxY[j] && minY[j] <= maxY[i];
+    }
+}
@@ -0,0 +1,387 @@
+package com.github.zawataki;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Edges of a polyline or a polygon split into monotone chains. Edges of a
+ * chain go in the same direction along both axes, so their bounds are sorted
+ * along the main axis of the chain, and the edges close to a query box are
+ * found by binary search. Chain and edge bounds are expanded by {@link
+ * IntersectionPoint#boundsPadding(double, double, double, double)} same as
+ * {@link LineBounds}.
+ */
+final class MonotoneChains {
+
+    /**
+     * Packed edges, {@code x1, y1, x2, y2} for each
+     */
+    final double[] edges;
+    final int edgeCount;
+    final LineBounds edgeBounds;
+
+    /**
+     * Edges of chain {@code c} are {@code [chainStart[c], chainStart[c +
+     * 1])}
+     */
+    final int[] chainStart;
+    final int chainCount;
+
+    final double[] minX;
+    final double[] minY;
+    final double[] maxX;
+    final double[] maxY;
+
+    /**
+     * Twice the maximum padding of edges of each chain. The binary search
+     * compares unexpanded coordinates with it, and the margin keeps rounding
+     * errors from excluding an edge whose expanded bounds overlap.
+     */
+    private final double[] padding;
+
+    /**
+     * The main axis of each chain, 0 for x and 1 for y
+     */
+    private final int[] axis;
+
+    /**
+     * The direction of each chain along its main axis, or 0 if all edges are
+     * points
+     */
+    private final int[] direction;
+
+    /**
+     * @param vertices packed vertices, {@code x, y} for each
+     * @param closed {@code true} if the last vertex is connected to the 1st
+     * vertex
+     */
+    MonotoneChains(double[] vertices, int vertexCount, boolean closed) {
+        edgeCount = closed ? (vertexCount < 2 ? 0 : vertexCount) :
+                Math.max(vertexCount - 1, 0);
+        edges = new double[edgeCount * SegmentBatch.STRIDE];
+        for (int k = 0; k < edgeCount; k++) {
+            final int next = (k + 1) % vertexCount;
+            edges[4 * k] = vertices[2 * k];
+            edges[4 * k + 1] = vertices[2 * k + 1];
+            edges[4 * k + 2] = vertices[2 * next];
+            edges[4 * k + 3] = vertices[2 * next + 1];
+        }
+        edgeBounds = LineBounds.of(edges, edgeCount);
+
+        final int[] starts = new int[edgeCount + 1];
+        final int[] axes = new int[edgeCount];
+        final int[] directions = new int[edgeCount];
+        int count = 0;
+        int signX = 0;
+        int signY = 0;
+        for (int k = 0; k < edgeCount; k++) {
+            final int dx = sign(edges[4 * k + 2] - edges[4 * k]);
+            final int dy = sign(edges[4 * k + 3] - edges[4 * k + 1]);
+
+            if (k == 0 || signX * dx < 0 || signY * dy < 0) {
+                if (k > 0) {
+                    setDirection(axes, directions, count - 1, signX, signY);
+                }
+                starts[count++] = k;
+                signX = dx;
+                signY = dy;
+            } else {
+                signX = signX == 0 ? dx : signX;
+                signY = signY == 0 ? dy : signY;
+            }
+        }
+        if (count > 0) {
+            setDirection(axes, directions, count - 1, signX, signY);
+        }
+        starts[count] = edgeCount;
+
+        chainCount = count;
+        chainStart = Arrays.copyOf(starts, count + 1);
+        axis = Arrays.copyOf(axes, count);
+        direction = Arrays.copyOf(directions, count);
+        minX = new double[count];
+        minY = new double[count];
+        maxX = new double[count];
+        maxY = new double[count];
+        padding = new double[count];
+
+        for (int c = 0; c < count; c++) {
+            minX[c] = Double.POSITIVE_INFINITY;
+            minY[c] = Double.POSITIVE_INFINITY;
+            maxX[c] = Double.NEGATIVE_INFINITY;
+            maxY[c] = Double.NEGATIVE_INFINITY;
+            for (int k = chainStart[c]; k < chainStart[c + 1]; k++) {
+                minX[c] = Math.min(minX[c], edgeBounds.minX[k]);
+                minY[c] = Math.min(minY[c], edgeBounds.minY[k]);
+                maxX[c] = Math.max(maxX[c], edgeBounds.maxX[k]);
+                maxY[c] = Math.max(maxY[c], edgeBounds.maxY[k]);
+                padding[c] = Math.max(padding[c],
+                        2 * IntersectionPoint.boundsPadding(edges[4 * k],
+                                edges[4 * k + 1], edges[4 * k + 2],
+                                edges[4 * k + 3]));
+            }
+        }
+    }
+
+    static private int sign(double value) {
+        return value > 0 ? 1 : value < 0 ? -1 : 0;
+    }
+
+    static private void setDirection(int[] axes, int[] directions, int chain,
+            int signX, int signY) {
+
+        axes[chain] = signX != 0 ? 0 : 1;
+        directions[chain] = signX != 0 ? signX : signY;
+    }
+
+    boolean chainOverlaps(int chain, double queryMinX, double queryMinY,
+            double queryMaxX, double queryMaxY) {
+
+        return minX[chain] <= queryMaxX && queryMinX <= maxX[chain] &&
+                minY[chain] <= queryMaxY && queryMinY <= maxY[chain];
+    }
+
+    boolean edgeOverlaps(int edge, double queryMinX, double queryMinY,
+            double queryMaxX, double queryMaxY) {
+
+        return edgeBounds.minX[edge] <= queryMaxX &&
+                queryMinX <= edgeBounds.maxX[edge] &&
+                edgeBounds.minY[edge] <= queryMaxY &&
+                queryMinY <= edgeBounds.maxY[edge];
+    }
+
+    /**
+     * Add intersection points of edges with a line from ({@code x1}, {@code
+     * y1}) to ({@code x2}, {@code y2}), including endpoints, in the order of
+     * edges
+     */
+    void addIntersectionPoints(double x1, double y1, double x2, double y2,
+            Collection<Point2D> points) {
+
+        final double linePadding =
+                IntersectionPoint.boundsPadding(x1, y1, x2, y2);
+        final double queryMinX = Math.min(x1, x2) - linePadding;
+        final double queryMinY = Math.min(y1, y2) - linePadding;
+        final double queryMaxX = Math.max(x1, x2) + linePadding;
+        final double queryMaxY = Math.max(y1, y2) + linePadding;
+        final double[] point = new double[2];
+
+        for (int c = 0; c < chainCount; c++) {
+            if (chainOverlaps(c, queryMinX, queryMinY, queryMaxX,
+                    queryMaxY)) {
+                addIntersectionPoints(c, x1, y1, x2, y2, queryMinX,
+                        queryMinY, queryMaxX, queryMaxY, point, points);
+            }
+        }
+    }
+
+    /**
+     * Add intersection points of edges with edges of other chains, including
+     * endpoints, in the order of edges and then edges of the other. Only
+     * chains of the other overlapping a chain are checked against its edges,
+     * since the bounds of the chain contain the bounds of its edges.
+     */
+    void addIntersectionPoints(MonotoneChains other,
+            Collection<Point2D> points) {
+
+        final int[] otherChains = new int[other.chainCount];
+        final double[] point = new double[2];
+
+        for (int c = 0; c < chainCount; c++) {
+            int otherChainCount = 0;
+            for (int d = 0; d < other.chainCount; d++) {
+                if (other.chainOverlaps(d, minX[c], minY[c], maxX[c],
+                        maxY[c])) {
+                    otherChains[otherChainCount++] = d;
+                }
+            }
+            if (otherChainCount == 0) {
+                continue;
+            }
+
+            for (int k = chainStart[c]; k < chainStart[c + 1]; k++) {
+                // Same as the query box of the edge as a line
+                final double queryMinX = edgeBounds.minX[k];
+                final double queryMinY = edgeBounds.minY[k];
+                final double queryMaxX = edgeBounds.maxX[k];
+                final double queryMaxY = edgeBounds.maxY[k];
+
+                for (int n = 0; n < otherChainCount; n++) {
+                    final int d = otherChains[n];
+                    if (other.chainOverlaps(d, queryMinX, queryMinY,
+                            queryMaxX, queryMaxY)) {
+                        other.addIntersectionPoints(d, edges[4 * k],
+                                edges[4 * k + 1], edges[4 * k + 2],
+                                edges[4 * k + 3], queryMinX, queryMinY,
+                                queryMaxX, queryMaxY, point, points);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add intersection points of edges of a chain with a line whose bounds
+     * expanded by its padding are a given query box
+     *
+     * @param point the scratch space of an intersection point
+     */
+    private void addIntersectionPoints(int chain, double x1, double y1,
+            double x2, double y2, double queryMinX, double queryMinY,
+            double queryMaxX, double queryMaxY, double[] point,
+            Collection<Point2D> points) {
+
+        final int to =
+                candidateTo(chain, queryMinX, queryMinY, queryMaxX, queryMaxY);
+        for (int k = candidateFrom(chain, queryMinX, queryMinY, queryMaxX,
+                queryMaxY); k < to; k++) {
+            if (edgeOverlaps(k, queryMinX, queryMinY, queryMaxX, queryMaxY) &&
+                    IntersectionPoint.computeIntersectionPoint(edges[4 * k],
+                            edges[4 * k + 1], edges[4 * k + 2],
+                            edges[4 * k + 3], x1, y1, x2, y2, true, null,
+                            point, 0) == IntersectionPoint.INTERSECTED) {
+                points.add(new Point2D.Double(point[0], point[1]));
+            }
+        }
+    }
+
+    /**
+     * Add intersection points of edges with a rectangle, including endpoints,
+     * in the order of edges. Points of an edge are in the order of {@link
+     * IntersectionPoint#getIntersectionPoints(double, double, double, double,
+     * double, double, double, double, boolean, double[])}.
+     */
+    void addRectangleIntersectionPoints(double x, double y, double width,
+            double height, Collection<Point2D> points) {
+
+        final double left = x;
+        final double right = x + width;
+        final double upper = y;
+        final double lower = y - height;
+        final double rectanglePadding = Math.max(
+                Math.max(IntersectionPoint.boundsPadding(left, upper, right,
+                        upper), IntersectionPoint.boundsPadding(left, lower,
+                        right, lower)),
+                Math.max(IntersectionPoint.boundsPadding(left, upper, left,
+                        lower), IntersectionPoint.boundsPadding(right, upper,
+                        right, lower)));
+        final double queryMinX = Math.min(left, right) - rectanglePadding;
+        final double queryMinY = Math.min(upper, lower) - rectanglePadding;
+        final double queryMaxX = Math.max(left, right) + rectanglePadding;
+        final double queryMaxY = Math.max(upper, lower) + rectanglePadding;
+        final double[] edgePoints =
+                new double[IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+
+        for (int c = 0; c < chainCount; c++) {
+            if (!chainOverlaps(c, queryMinX, queryMinY, queryMaxX,
+                    queryMaxY)) {
+                continue;
+            }
+
+            final int to =
+                    candidateTo(c, queryMinX, queryMinY, queryMaxX, queryMaxY);
+            for (int k = candidateFrom(c, queryMinX, queryMinY, queryMaxX,
+                    queryMaxY); k < to; k++) {
+                if (!edgeOverlaps(k, queryMinX, queryMinY, queryMaxX,
+                        queryMaxY)) {
+                    continue;
+                }
+
+                final int count = IntersectionPoint.rectangleIntersectionPoints(
+                        x, y, width, height, edges[4 * k], edges[4 * k + 1],
+                        edges[4 * k + 2], edges[4 * k + 3], true, edgePoints);
+                for (int n = 0; n < count; n++) {
+                    points.add(new Point2D.Double(edgePoints[2 * n],
+                            edgePoints[2 * n + 1]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the first edge of a chain which may overlap a query box. Edges
+     * before it never overlap.
+     */
+    int candidateFrom(int chain, double queryMinX, double queryMinY,
+            double queryMaxX, double queryMaxY) {
+
+        final int a = axis[chain];
+        final double queryMin = a == 0 ? queryMinX : queryMinY;
+        final double queryMax = a == 0 ? queryMaxX : queryMaxY;
+        final int from = chainStart[chain];
+        final int to = chainStart[chain + 1];
+
+        if (direction[chain] > 0) {
+            // Ends are ascending
+            return firstAtLeast(from, to, 2 + a, queryMin - padding[chain]);
+        }
+        if (direction[chain] < 0) {
+            // Ends are descending
+            return firstAtMost(from, to, 2 + a, queryMax + padding[chain]);
+        }
+        return from;
+    }
+
+    /**
+     * Get the end of edges of a chain which may overlap a query box. Edges
+     * from it never overlap.
+     */
+    int candidateTo(int chain, double queryMinX, double queryMinY,
+            double queryMaxX, double queryMaxY) {
+
+        final int a = axis[chain];
+        final double queryMin = a == 0 ? queryMinX : queryMinY;
+        final double queryMax = a == 0 ? queryMaxX : queryMaxY;
+        final int from = chainStart[chain];
+        final int to = chainStart[chain + 1];
+
+        if (direction[chain] > 0) {
+            // Starts are ascending
+            return firstAtLeast(from, to, a,
+                    Math.nextUp(queryMax + padding[chain]));
+        }
+        if (direction[chain] < 0) {
+            // Starts are descending
+            return firstAtMost(from, to, a,
+                    Math.nextDown(queryMin - padding[chain]));
+        }
+        return to;
+    }
+
+    /**
+     * Get the first edge in {@code [from, to)} whose value at {@code offset}
+     * is not less than {@code bound}, where the values are ascending
+     */
+    private int firstAtLeast(int from, int to, int offset, double bound) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (edges[4 * middle + offset] < bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the first edge in {@code [from, to)} whose value at {@code offset}
+     * is not greater than {@code bound}, where the values are descending
+     */
+    private int firstAtMost(int from, int to, int offset, double bound) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (edges[4 * middle + offset] > bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.zawataki;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of nodes of a {@link PackedRTree} by distance, to visit the
+ * nearest node first
+ */
+final class NodeQueue {
+
+    private int[] nodes = new int[64];
+    private double[] distances = new double[64];
+    private int size;
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    double minDistance() {
+        return distances[0];
+    }
+
+    void add(int node, double distance) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+        }
+
+        int n = size++;
+        while (n > 0) {
+            final int parent = (n - 1) >>> 1;
+            if (distances[parent] <= distance) {
+                break;
+            }
+            nodes[n] = nodes[parent];
+            distances[n] = distances[parent];
+            n = parent;
+        }
+        nodes[n] = node;
+        distances[n] = distance;
+    }
+
+    int poll() {
+        final int first = nodes[0];
+        final int lastNode = nodes[--size];
+        final double lastDistance = distances[size];
+
+        int n = 0;
+        while (true) {
+            int child = 2 * n + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distances[child + 1] < distances[child]) {
+                child++;
+            }
+            if (lastDistance <= distances[child]) {
+                break;
+            }
+            nodes[n] = nodes[child];
+            distances[n] = distances[child];
+            n = child;
+        }
+        nodes[n] = lastNode;
+        distances[n] = lastDistance;
+
+        return first;
+    }
+}
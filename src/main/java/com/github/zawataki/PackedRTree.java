@@ -0,0 +1,261 @@
+package com.github.zawataki;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable R-tree bulk loaded by Sort-Tile-Recursive and packed in arrays.
+ * Nodes {@code [0, leafCount)} are leaves whose children are positions of
+ * {@link #items}, and other nodes have children of nodes. Children of a node
+ * are {@code [childStart[node], childEnd[node])}.
+ */
+final class PackedRTree {
+
+    static final int NODE_CAPACITY = 16;
+
+    /**
+     * Item ids in the order of leaves
+     */
+    final int[] items;
+
+    final double[] minX;
+    final double[] minY;
+    final double[] maxX;
+    final double[] maxY;
+    final int[] childStart;
+    final int[] childEnd;
+    final int leafCount;
+
+    /**
+     * The root node, or -1 if there is no item
+     */
+    final int root;
+
+    /**
+     * @param count the number of items, whose ids are {@code [0, count)}
+     */
+    PackedRTree(double[] itemMinX, double[] itemMinY, double[] itemMaxX,
+            double[] itemMaxY, int count) {
+
+        items = new int[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = i;
+        }
+        sortTileRecursive(items, count, itemMinX, itemMinY, itemMaxX,
+                itemMaxY);
+
+        final List<Level> levels = new ArrayList<>();
+        Level level = count == 0 ? null :
+                Level.group(items, count, itemMinX, itemMinY, itemMaxX,
+                        itemMaxY);
+        while (level != null) {
+            levels.add(level);
+            if (level.count == 1) {
+                break;
+            }
+
+            final int[] order = new int[level.count];
+            for (int n = 0; n < level.count; n++) {
+                order[n] = n;
+            }
+            sortTileRecursive(order, level.count, level.minX, level.minY,
+                    level.maxX, level.maxY);
+            level.reorder(order);
+
+            final int[] nodes = new int[level.count];
+            for (int n = 0; n < level.count; n++) {
+                nodes[n] = n;
+            }
+            level = Level.group(nodes, level.count, level.minX, level.minY,
+                    level.maxX, level.maxY);
+        }
+
+        int nodeCount = 0;
+        for (Level l : levels) {
+            nodeCount += l.count;
+        }
+
+        minX = new double[nodeCount];
+        minY = new double[nodeCount];
+        maxX = new double[nodeCount];
+        maxY = new double[nodeCount];
+        childStart = new int[nodeCount];
+        childEnd = new int[nodeCount];
+        leafCount = levels.isEmpty() ? 0 : levels.get(0).count;
+        root = nodeCount - 1;
+
+        // Children of level n + 1 are nodes of level n, so they are shifted
+        // by the offset of level n
+        int offset = 0;
+        int childOffset = 0;
+        for (int n = 0; n < levels.size(); n++) {
+            final Level l = levels.get(n);
+            System.arraycopy(l.minX, 0, minX, offset, l.count);
+            System.arraycopy(l.minY, 0, minY, offset, l.count);
+            System.arraycopy(l.maxX, 0, maxX, offset, l.count);
+            System.arraycopy(l.maxY, 0, maxY, offset, l.count);
+            for (int node = 0; node < l.count; node++) {
+                childStart[offset + node] = l.start[node] + childOffset;
+                childEnd[offset + node] = l.end[node] + childOffset;
+            }
+            childOffset = offset;
+            offset += l.count;
+        }
+    }
+
+    boolean isLeaf(int node) {
+        return node < leafCount;
+    }
+
+    /**
+     * Get the parameter where a line from ({@code x}, {@code y}) with
+     * direction ({@code dx}, {@code dy}) enters a box, limited to [0, {@code
+     * maxT}]
+     *
+     * @return the parameter, or {@link Double#POSITIVE_INFINITY} if the line
+     * doesn't touch the box in the range
+     */
+    static double entryParameter(double x, double y, double dx, double dy,
+            double maxT, double minX, double minY, double maxX, double maxY) {
+
+        double near = 0;
+        double far = maxT;
+
+        if (dx == 0) {
+            if (x < minX || maxX < x) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            final double t1 = (minX - x) / dx;
+            final double t2 = (maxX - x) / dx;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+
+        if (dy == 0) {
+            if (y < minY || maxY < y) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            final double t1 = (minY - y) / dy;
+            final double t2 = (maxY - y) / dy;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+
+        return near <= far ? near : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Sort ids by the center x, then sort each vertical slice by the center y
+     */
+    static private void sortTileRecursive(int[] ids, int count, double[] minX,
+            double[] minY, double[] maxX, double[] maxY) {
+
+        final double[] centerX = new double[minX.length];
+        final double[] centerY = new double[minY.length];
+        for (int n = 0; n < count; n++) {
+            final int id = ids[n];
+            centerX[id] = (minX[id] + maxX[id]) / 2;
+            centerY[id] = (minY[id] + maxY[id]) / 2;
+        }
+
+        IndexSort.sort(ids, 0, count, centerX);
+
+        final int nodeCount = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        final int sliceCount = (int) Math.ceil(Math.sqrt(nodeCount));
+        final int sliceSize = sliceCount * NODE_CAPACITY;
+        for (int from = 0; from < count; from += sliceSize) {
+            IndexSort.sort(ids, from, Math.min(from + sliceSize, count),
+                    centerY);
+        }
+    }
+
+    /**
+     * Nodes of a level before packing. Children of a node are {@code
+     * [start[node], end[node])} of the level below, or of items for leaves.
+     */
+    static private class Level {
+
+        final int count;
+        double[] minX;
+        double[] minY;
+        double[] maxX;
+        double[] maxY;
+        int[] start;
+        int[] end;
+
+        private Level(int count) {
+            this.count = count;
+            minX = new double[count];
+            minY = new double[count];
+            maxX = new double[count];
+            maxY = new double[count];
+            start = new int[count];
+            end = new int[count];
+        }
+
+        /**
+         * Group every {@link #NODE_CAPACITY} consecutive children into a node
+         */
+        static Level group(int[] children, int childCount,
+                double[] childMinX, double[] childMinY, double[] childMaxX,
+                double[] childMaxY) {
+
+            final Level level =
+                    new Level((childCount + NODE_CAPACITY - 1) / NODE_CAPACITY);
+
+            for (int node = 0; node < level.count; node++) {
+                final int from = node * NODE_CAPACITY;
+                final int to = Math.min(from + NODE_CAPACITY, childCount);
+
+                level.start[node] = from;
+                level.end[node] = to;
+                level.minX[node] = Double.POSITIVE_INFINITY;
+                level.minY[node] = Double.POSITIVE_INFINITY;
+                level.maxX[node] = Double.NEGATIVE_INFINITY;
+                level.maxY[node] = Double.NEGATIVE_INFINITY;
+                for (int n = from; n < to; n++) {
+                    final int child = children[n];
+                    level.minX[node] = Math.min(level.minX[node],
+                            childMinX[child]);
+                    level.minY[node] = Math.min(level.minY[node],
+                            childMinY[child]);
+                    level.maxX[node] = Math.max(level.maxX[node],
+                            childMaxX[child]);
+                    level.maxY[node] = Math.max(level.maxY[node],
+                            childMaxY[child]);
+                }
+            }
+
+            return level;
+        }
+
+        /**
+         * Reorder nodes so that {@code order[n]} becomes the {@code n}-th
+         */
+        void reorder(int[] order) {
+            minX = permute(minX, order);
+            minY = permute(minY, order);
+            maxX = permute(maxX, order);
+            maxY = permute(maxY, order);
+
+            final int[] newStart = new int[count];
+            final int[] newEnd = new int[count];
+            for (int n = 0; n < count; n++) {
+                newStart[n] = start[order[n]];
+                newEnd[n] = end[order[n]];
+            }
+            start = newStart;
+            end = newEnd;
+        }
+
+        static private double[] permute(double[] values, int[] order) {
+            final double[] permuted = new double[values.length];
+            for (int n = 0; n < order.length; n++) {
+                permuted[n] = values[order[n]];
+            }
+            return permuted;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Find all intersection points among a set of lines in parallel.
+ * <p>
+ * The bounds of all lines are split into a uniform grid of tiles, and each
+ * tile is swept by {@link SweepLineIntersector} as a task of a {@link
+ * ForkJoinPool}. A line straddling borders belongs to every tile it overlaps,
+ * but a pair is checked only in the tile containing the minimum corner of the
+ * overlap of their bounds, so each pair is found once. The result is exactly
+ * same as checking all pairs with {@link
+ * IntersectionPoint#getIntersectionPoint(Line2D, Line2D, boolean)}.
+ */
+public class ParallelIntersector {
+
+    /**
+     * The number of tiles per parallelism, to balance tiles of different
+     * density
+     */
+    static private final int TILES_PER_PARALLELISM = 4;
+
+    /**
+     * Find all intersection points among given lines in parallel. Each
+     * intersected pair is passed to {@code consumer} once, in no particular
+     * order and from any thread of {@code pool}.
+     *
+     * @param lines the specified lines
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param pool the pool to run tiles
+     * @param parallelism the expected number of threads to work, which
+     * decides the number of tiles
+     * @param consumer the receiver of intersection points. Must be thread
+     * safe.
+     */
+    static public void findIntersectionPoints(List<? extends Line2D> lines,
+            boolean includesEndpoint, ForkJoinPool pool, int parallelism,
+            IntersectionConsumer consumer) {
+
+        final double[] packed = SegmentBatch.pack(lines);
+        final TileGrid grid =
+                new TileGrid(packed, lines.size(), includesEndpoint,
+                        parallelism);
+
+        pool.invoke(new TileTask(grid, 0, grid.tileCount(),
+                tile -> consumer));
+    }
+
+    /**
+     * Find all intersection points among given lines in parallel
+     *
+     * @param lines the specified lines
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param pool the pool to run tiles
+     * @param parallelism the expected number of threads to work, which
+     * decides the number of tiles
+     *
+     * @return list of intersection points in {@link
+     * SegmentIntersection#INDEX_ORDER}
+     */
+    static public List<SegmentIntersection> findIntersectionPoints(
+            List<? extends Line2D> lines, boolean includesEndpoint,
+            ForkJoinPool pool, int parallelism) {
+
+        final double[] packed = SegmentBatch.pack(lines);
+        final TileGrid grid =
+                new TileGrid(packed, lines.size(), includesEndpoint,
+                        parallelism);
+
+        final List<List<SegmentIntersection>> pointsOfTiles =
+                new ArrayList<>(grid.tileCount());
+        for (int tile = 0; tile < grid.tileCount(); tile++) {
+            pointsOfTiles.add(new ArrayList<>());
+        }
+
+        pool.invoke(new TileTask(grid, 0, grid.tileCount(),
+                tile -> (index1, index2, x, y) -> pointsOfTiles.get(tile)
+                        .add(new SegmentIntersection(index1, index2, x, y))));
+
+        final List<SegmentIntersection> intersectionPoints = new ArrayList<>();
+        pointsOfTiles.forEach(intersectionPoints::addAll);
+        intersectionPoints.sort(SegmentIntersection.INDEX_ORDER);
+
+        return intersectionPoints;
+    }
+
+    /**
+     * Lines distributed to tiles. Tile borders are {@code xs} and {@code ys},
+     * whose first and last elements are infinite.
+     */
+    static private class TileGrid {
+
+        final double[] lines;
+        final LineBounds bounds;
+        final boolean includesEndpoint;
+        final double[] xs;
+        final double[] ys;
+
+        /**
+         * Indices of lines in a tile are {@code indices[start[tile],
+         * start[tile + 1])}
+         */
+        final int[] start;
+        final int[] indices;
+
+        TileGrid(double[] lines, int count, boolean includesEndpoint,
+                int parallelism) {
+
+            this.lines = lines;
+            this.bounds = LineBounds.of(lines, count);
+            this.includesEndpoint = includesEndpoint;
+
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                minX = Math.min(minX, bounds.minX[i]);
+                minY = Math.min(minY, bounds.minY[i]);
+                maxX = Math.max(maxX, bounds.maxX[i]);
+                maxY = Math.max(maxY, bounds.maxY[i]);
+            }
+
+            final int tiles = Math.max(1, parallelism * TILES_PER_PARALLELISM);
+            final double width = maxX - minX;
+            final double height = maxY - minY;
+            int columns = 1;
+            int rows = 1;
+            if (width > 0 && height > 0) {
+                columns = (int) Math.max(1, Math.min(tiles,
+                        Math.round(Math.sqrt(tiles * width / height))));
+                rows = Math.max(1, tiles / columns);
+            } else if (width > 0) {
+                columns = tiles;
+            } else if (height > 0) {
+                rows = tiles;
+            }
+
+            xs = borders(minX, width, columns);
+            ys = borders(minY, height, rows);
+
+            final int tileCount = columns * rows;
+            start = new int[tileCount + 1];
+            for (int i = 0; i < count; i++) {
+                forEachTile(i, tile -> start[tile + 1]++);
+            }
+            for (int tile = 0; tile < tileCount; tile++) {
+                start[tile + 1] += start[tile];
+            }
+
+            indices = new int[start[tileCount]];
+            final int[] filled = new int[tileCount];
+            for (int i = 0; i < count; i++) {
+                final int line = i;
+                forEachTile(i, tile -> indices[start[tile] + filled[tile]++] =
+                        line);
+            }
+        }
+
+        static private double[] borders(double min, double size, int tiles) {
+            final double[] borders = new double[tiles + 1];
+            for (int n = 1; n < tiles; n++) {
+                borders[n] = min + size * n / tiles;
+            }
+            borders[0] = Double.NEGATIVE_INFINITY;
+            borders[tiles] = Double.POSITIVE_INFINITY;
+            return borders;
+        }
+
+        int tileCount() {
+            return start.length - 1;
+        }
+
+        private void forEachTile(int line, IntConsumer action) {
+            final int columnCount = xs.length - 1;
+            final int lastColumn = cellOf(xs, bounds.maxX[line]);
+            final int lastRow = cellOf(ys, bounds.maxY[line]);
+
+            for (int row = cellOf(ys, bounds.minY[line]); row <= lastRow;
+                    row++) {
+                for (int column = cellOf(xs, bounds.minX[line]);
+                        column <= lastColumn; column++) {
+                    action.accept(row * columnCount + column);
+                }
+            }
+        }
+
+        /**
+         * @return {@code n} where {@code borders[n] <= value < borders[n +
+         * 1]}
+         */
+        static private int cellOf(double[] borders, double value) {
+            int low = 0;
+            int high = borders.length - 2;
+            while (low < high) {
+                final int middle = (low + high + 1) >>> 1;
+                if (borders[middle] <= value) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        void sweep(int tile, IntersectionConsumer consumer) {
+            final int columnCount = xs.length - 1;
+            final int column = tile % columnCount;
+            final int row = tile / columnCount;
+
+            final int count = start[tile + 1] - start[tile];
+            final int[] indicesOfTile = new int[count];
+            System.arraycopy(indices, start[tile], indicesOfTile, 0, count);
+
+            SweepLineIntersector.sweep(lines, bounds, indicesOfTile, count,
+                    includesEndpoint, xs[column], ys[row], xs[column + 1],
+                    ys[row + 1], consumer);
+        }
+    }
+
+    static private class TileTask extends RecursiveAction {
+
+        static private final long serialVersionUID = 1L;
+
+        private final TileGrid grid;
+        private final int from;
+        private final int to;
+        private final IntFunction<IntersectionConsumer> consumers;
+
+        TileTask(TileGrid grid, int from, int to,
+                IntFunction<IntersectionConsumer> consumers) {
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+            this.consumers = consumers;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                grid.sweep(from, consumers.apply(from));
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(grid, from, middle, consumers),
+                    new TileTask(grid, middle, to, consumers));
+        }
+    }
+}
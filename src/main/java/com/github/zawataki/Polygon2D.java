@@ -0,0 +1,172 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable polygon of vertices packed in an array. The last vertex is
+ * connected to the 1st vertex implicitly. Edges are split into monotone
+ * chains with bounds once, so most edges are rejected without computing the
+ * intersection point. Each edge gives the same result as {@link
+ * IntersectionPoint#getIntersectionPoint(Line2D, Line2D, boolean)} including
+ * endpoints.
+ */
+public final class Polygon2D {
+
+    /**
+     * Packed vertices, {@code x, y} for each
+     */
+    private final double[] vertices;
+    private final MonotoneChains chains;
+
+    private Polygon2D(double[] vertices) {
+        this.vertices = vertices;
+        this.chains = new MonotoneChains(vertices, vertices.length / 2, true);
+    }
+
+    /**
+     * Get a polygon of given coordinates
+     *
+     * @param coordinates {@code x, y} for each vertex
+     *
+     * @return a polygon
+     *
+     * @throws IllegalArgumentException if the number of coordinates is odd
+     */
+    static public Polygon2D of(double... coordinates) {
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException(
+                    "Odd number of coordinates: " + coordinates.length);
+        }
+
+        return new Polygon2D(coordinates.clone());
+    }
+
+    /**
+     * Get a polygon of given vertices
+     *
+     * @param vertices the specified vertices
+     *
+     * @return a polygon
+     */
+    static public Polygon2D of(List<? extends Point2D> vertices) {
+        return new Polygon2D(Polyline2D.packVertices(vertices));
+    }
+
+    public int getVertexCount() {
+        return vertices.length / 2;
+    }
+
+    /**
+     * @return a new point of the {@code index}-th vertex
+     */
+    public Point2D getVertex(int index) {
+        return new Point2D.Double(vertices[2 * index],
+                vertices[2 * index + 1]);
+    }
+
+    /**
+     * Get intersection points of edges of this and a given line
+     *
+     * @param line the specified line
+     * @param includesEndpoint Same as {@link
+     * IntersectionPoint#getIntersectionPoints(Rectangle2D, Line2D, boolean)},
+     * where vertices of this are regarded as vertices of the rectangle
+     *
+     * @return list of distinct intersection points in the order of edges.
+     * Empty list if not intersected.
+     */
+    public List<Point2D> getIntersectionPoints(Line2D line,
+            boolean includesEndpoint) {
+
+        final Set<Point2D> points = new LinkedHashSet<>();
+        chains.addIntersectionPoints(line.getX1(), line.getY1(), line.getX2(),
+                line.getY2(), points);
+
+        if (!includesEndpoint && points.size() == 1) {
+            final Point2D point = points.iterator().next();
+            if (point.equals(line.getP1()) || point.equals(line.getP2()) ||
+                    isVertex(point)) {
+                return Collections.emptyList();
+            }
+        }
+
+        return new ArrayList<>(points);
+    }
+
+    /**
+     * Get intersection points of edges of this and a given rectangle. Same
+     * as {@link IntersectionPoint#getIntersectionPoints(Rectangle2D, Line2D,
+     * boolean)}, the upper edge of the rectangle is at {@code y} and the
+     * lower edge is at {@code y - height}.
+     *
+     * @param rect the specified rectangle
+     * @param includesEndpoint Same as {@link
+     * IntersectionPoint#getIntersectionPoints(Rectangle2D, Line2D, boolean)},
+     * where vertices of this are regarded as endpoints of the line
+     *
+     * @return list of distinct intersection points in the order of edges.
+     * Empty list if not intersected.
+     */
+    public List<Point2D> getIntersectionPoints(Rectangle2D rect,
+            boolean includesEndpoint) {
+
+        final Set<Point2D> points = new LinkedHashSet<>();
+        chains.addRectangleIntersectionPoints(rect.getX(), rect.getY(),
+                rect.getWidth(), rect.getHeight(), points);
+
+        if (!includesEndpoint && points.size() == 1) {
+            final Point2D point = points.iterator().next();
+            final double left = rect.getX();
+            final double right = rect.getX() + rect.getWidth();
+            final double upper = rect.getY();
+            final double lower = rect.getY() - rect.getHeight();
+            if (isVertex(point) ||
+                    (point.getX() == left || point.getX() == right) &&
+                            (point.getY() == upper ||
+                                    point.getY() == lower)) {
+                return Collections.emptyList();
+            }
+        }
+
+        return new ArrayList<>(points);
+    }
+
+    private boolean isVertex(Point2D point) {
+        for (int v = 0; v < vertices.length; v += 2) {
+            if (point.getX() == vertices[v] &&
+                    point.getY() == vertices[v + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(vertices, ((Polygon2D) o).vertices);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(vertices);
+    }
+
+    @Override
+    public String toString() {
+        return "Polygon2D" + Arrays.toString(vertices);
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable polyline of vertices packed in an array. Edges are split into
+ * monotone chains with bounds once, so most pairs of edges are rejected
+ * without computing the intersection point. Each pair of edges gives the
+ * same result as {@link IntersectionPoint#getIntersectionPoint(Line2D,
+ * Line2D, boolean)}.
+ */
+public final class Polyline2D {
+
+    /**
+     * Packed vertices, {@code x, y} for each
+     */
+    private final double[] vertices;
+    private final MonotoneChains chains;
+
+    private Polyline2D(double[] vertices) {
+        this.vertices = vertices;
+        this.chains = new MonotoneChains(vertices, vertices.length / 2, false);
+    }
+
+    /**
+     * Get a polyline of given coordinates
+     *
+     * @param coordinates {@code x, y} for each vertex
+     *
+     * @return a polyline
+     *
+     * @throws IllegalArgumentException if the number of coordinates is odd
+     */
+    static public Polyline2D of(double... coordinates) {
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException(
+                    "Odd number of coordinates: " + coordinates.length);
+        }
+
+        return new Polyline2D(coordinates.clone());
+    }
+
+    /**
+     * Get a polyline of given vertices
+     *
+     * @param vertices the specified vertices
+     *
+     * @return a polyline
+     */
+    static public Polyline2D of(List<? extends Point2D> vertices) {
+        return new Polyline2D(packVertices(vertices));
+    }
+
+    static double[] packVertices(List<? extends Point2D> vertices) {
+        final double[] packed = new double[vertices.size() * 2];
+
+        int v = 0;
+        for (Point2D vertex : vertices) {
+            packed[v++] = vertex.getX();
+            packed[v++] = vertex.getY();
+        }
+
+        return packed;
+    }
+
+    public int getVertexCount() {
+        return vertices.length / 2;
+    }
+
+    /**
+     * @return a new point of the {@code index}-th vertex
+     */
+    public Point2D getVertex(int index) {
+        return new Point2D.Double(vertices[2 * index],
+                vertices[2 * index + 1]);
+    }
+
+    /**
+     * Get intersection points of edges of this and a given polyline
+     *
+     * @param other the specified polyline
+     * @param includesEndpoint If {@code false}, intersection points on the
+     * 1st or the last vertex of either polyline are excluded. Intersection
+     * points on other vertices are always included.
+     *
+     * @return list of distinct intersection points in the order of edges of
+     * this and then edges of {@code other}. Empty list if not intersected.
+     */
+    public List<Point2D> getIntersectionPoints(Polyline2D other,
+            boolean includesEndpoint) {
+
+        final Set<Point2D> points = new LinkedHashSet<>();
+        chains.addIntersectionPoints(other.chains, points);
+
+        if (!includesEndpoint) {
+            points.removeIf(point -> isEndpoint(point) ||
+                    other.isEndpoint(point));
+        }
+
+        return new ArrayList<>(points);
+    }
+
+    private boolean isEndpoint(Point2D point) {
+        final int last = vertices.length - 2;
+        return last >= 0 &&
+                (point.getX() == vertices[0] && point.getY() == vertices[1] ||
+                        point.getX() == vertices[last] &&
+                                point.getY() == vertices[last + 1]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(vertices, ((Polyline2D) o).vertices);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(vertices);
+    }
+
+    @Override
+    public String toString() {
+        return "Polyline2D" + Arrays.toString(vertices);
+    }
+}
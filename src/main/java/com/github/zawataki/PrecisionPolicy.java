@@ -0,0 +1,313 @@
+package com.github.zawataki;
+
+/**
+ * How coordinates are compared to decide whether lines are intersected.
+ * <ul>
+ * <li>{@link #truncation()} is the default of {@link IntersectionPoint}.
+ * Intersection points are truncated to 5 decimal places, and a point is
+ * regarded as on a line if the distances to the endpoints add up to the
+ * length within 0.00001. {@link #truncation(int)} does the same with other
+ * decimal places.</li>
+ * <li>{@link #robust()} decides everything by the exact sign of orientation,
+ * so it works for any magnitude of coordinates, e.g. below 0.00001 or UTM
+ * metres. Intersection points are not truncated.</li>
+ * </ul>
+ */
+public abstract class PrecisionPolicy {
+
+    static private final PrecisionPolicy TRUNCATION =
+            new Truncation(IntersectionPoint.DECIMAL_PLACES);
+
+    static private final PrecisionPolicy ROBUST = new Robust();
+
+    PrecisionPolicy() {
+    }
+
+    /**
+     * Get the policy of truncating to 5 decimal places
+     */
+    static public PrecisionPolicy truncation() {
+        return TRUNCATION;
+    }
+
+    /**
+     * Get the policy of truncating to given decimal places. Intersection
+     * points are truncated to them, and a point is regarded as on a line if
+     * the distances to the endpoints add up to the length within a unit of
+     * them. Other than 5, values are truncated with {@link
+     * java.math.BigDecimal}, so it's slower than {@link #truncation()}.
+     *
+     * @param decimalPlaces the decimal places, e.g. 3 for millimetres of
+     * coordinates in metres
+     * @throws IllegalArgumentException if {@code decimalPlaces} is negative
+     */
+    static public PrecisionPolicy truncation(int decimalPlaces) {
+        if (decimalPlaces < 0) {
+            throw new IllegalArgumentException(
+                    "decimalPlaces must not be negative: " + decimalPlaces);
+        }
+        if (decimalPlaces == IntersectionPoint.DECIMAL_PLACES) {
+            return TRUNCATION;
+        }
+
+        return new Truncation(decimalPlaces);
+    }
+
+    /**
+     * Get the policy of exact predicates. The sign of orientation is
+     * computed in floating point with an error bound, and computed exactly
+     * only if it's within the bound.
+     */
+    static public PrecisionPolicy robust() {
+        return ROBUST;
+    }
+
+    /**
+     * Same as {@link IntersectionPoint#computeIntersectionPoint(double,
+     * double, double, double, double, double, double, double, boolean,
+     * double[], int)} under this policy
+     *
+     * @return {@link IntersectionPoint#INTERSECTED}, {@link
+     * IntersectionPoint#PARALLEL} or {@link IntersectionPoint#NOT_ON_LINE}
+     */
+    public abstract int computeIntersectionPoint(double x1, double y1,
+            double x2, double y2, double x3, double y3, double x4, double y4,
+            boolean includesEndpoint, double[] result, int offset);
+
+    /**
+     * Same as {@link IntersectionPoint#pointIsOnLine(double, double, double,
+     * double, double, double, boolean)} under this policy
+     */
+    public abstract boolean pointIsOnLine(double px, double py, double x1,
+            double y1, double x2, double y2, boolean includesEndpoint);
+
+    /**
+     * Same as {@link IntersectionPoint#getIntersectionPoints(double, double,
+     * double, double, double, double, double, double, boolean, double[])}
+     * under this policy
+     *
+     * @return the number of intersection points
+     */
+    public int getIntersectionPoints(double x, double y, double width,
+            double height, double x1, double y1, double x2, double y2,
+            boolean includesEndpoint, double[] points) {
+
+        final double left = x;
+        final double right = x + width;
+        final double upper = y;
+        final double lower = y - height;
+
+        int count = 0;
+        // upper line
+        count = addIntersectionPoint(left, upper, right, upper, x1, y1, x2, y2,
+                points, count);
+        // lower line
+        count = addIntersectionPoint(left, lower, right, lower, x1, y1, x2, y2,
+                points, count);
+        // left line
+        count = addIntersectionPoint(left, upper, left, lower, x1, y1, x2, y2,
+                points, count);
+        // right line
+        count = addIntersectionPoint(right, upper, right, lower, x1, y1, x2, y2,
+                points, count);
+
+        if (includesEndpoint || count != 1) {
+            return count;
+        }
+
+        final double px = points[0];
+        final double py = points[1];
+        if (px == x1 && py == y1 || px == x2 && py == y2 ||
+                (px == left || px == right) && (py == upper || py == lower)) {
+            return 0;
+        }
+
+        return count;
+    }
+
+    private int addIntersectionPoint(double ex1, double ey1, double ex2,
+            double ey2, double x1, double y1, double x2, double y2,
+            double[] points, int count) {
+
+        final int status =
+                computeIntersectionPoint(ex1, ey1, ex2, ey2, x1, y1, x2, y2,
+                        true, points, 2 * count);
+        if (status != IntersectionPoint.INTERSECTED) {
+            return count;
+        }
+
+        final double px = points[2 * count];
+        final double py = points[2 * count + 1];
+        for (int n = 0; n < count; n++) {
+            if (points[2 * n] == px && points[2 * n + 1] == py) {
+                return count;
+            }
+        }
+
+        return count + 1;
+    }
+
+    static private class Truncation extends PrecisionPolicy {
+
+        private final int decimalPlaces;
+
+        Truncation(int decimalPlaces) {
+            this.decimalPlaces = decimalPlaces;
+        }
+
+        @Override
+        public int computeIntersectionPoint(double x1, double y1, double x2,
+                double y2, double x3, double y3, double x4, double y4,
+                boolean includesEndpoint, double[] result, int offset) {
+
+            return IntersectionPoint.computeIntersectionPoint(x1, y1, x2, y2,
+                    x3, y3, x4, y4, includesEndpoint, decimalPlaces, null,
+                    result, offset);
+        }
+
+        @Override
+        public boolean pointIsOnLine(double px, double py, double x1,
+                double y1, double x2, double y2, boolean includesEndpoint) {
+
+            return IntersectionPoint.isOnLine(px, py, x1, y1, x2, y2,
+                    includesEndpoint, decimalPlaces);
+        }
+
+        @Override
+        public int getIntersectionPoints(double x, double y, double width,
+                double height, double x1, double y1, double x2, double y2,
+                boolean includesEndpoint, double[] points) {
+
+            if (decimalPlaces != IntersectionPoint.DECIMAL_PLACES) {
+                return super.getIntersectionPoints(x, y, width, height, x1,
+                        y1, x2, y2, includesEndpoint, points);
+            }
+
+            return IntersectionPoint.rectangleIntersectionPoints(x, y, width,
+                    height, x1, y1, x2, y2, includesEndpoint, points);
+        }
+
+        @Override
+        public String toString() {
+            if (decimalPlaces == IntersectionPoint.DECIMAL_PLACES) {
+                return "truncation";
+            }
+
+            return "truncation(" + decimalPlaces + ")";
+        }
+    }
+
+    /**
+     * Exact predicates of {@link RobustPredicates}. Coordinates must be
+     * finite, or {@link NumberFormatException} may be thrown.
+     */
+    static private class Robust extends PrecisionPolicy {
+
+        @Override
+        public int computeIntersectionPoint(double x1, double y1, double x2,
+                double y2, double x3, double y3, double x4, double y4,
+                boolean includesEndpoint, double[] result, int offset) {
+
+            if (RobustPredicates.crossProductSign(x1, y1, x2, y2, x3, y3, x4,
+                    y4) == 0) {
+                return IntersectionPoint.PARALLEL;
+            }
+
+            // Sides of the endpoints of a line relative to the other line.
+            // Both of a pair can't be 0 since the lines are not parallel.
+            final int side1 =
+                    RobustPredicates.orientation(x3, y3, x4, y4, x1, y1);
+            final int side2 =
+                    RobustPredicates.orientation(x3, y3, x4, y4, x2, y2);
+            if (side1 == side2) {
+                return IntersectionPoint.NOT_ON_LINE;
+            }
+            final int side3 =
+                    RobustPredicates.orientation(x1, y1, x2, y2, x3, y3);
+            final int side4 =
+                    RobustPredicates.orientation(x1, y1, x2, y2, x4, y4);
+            if (side3 == side4) {
+                return IntersectionPoint.NOT_ON_LINE;
+            }
+
+            final double x;
+            final double y;
+            if (side1 == 0 || side2 == 0 || side3 == 0 || side4 == 0) {
+                if (!includesEndpoint) {
+                    return IntersectionPoint.NOT_ON_LINE;
+                }
+                if (side1 == 0) {
+                    x = x1;
+                    y = y1;
+                } else if (side2 == 0) {
+                    x = x2;
+                    y = y2;
+                } else if (side3 == 0) {
+                    x = x3;
+                    y = y3;
+                } else {
+                    x = x4;
+                    y = y4;
+                }
+            } else {
+                // Properly crossed, so only the position is approximated
+                final double dx1 = x2 - x1;
+                final double dy1 = y2 - y1;
+                final double dx2 = x4 - x3;
+                final double dy2 = y4 - y3;
+                final double t = Math.min(1, Math.max(0,
+                        ((x3 - x1) * dy2 - (y3 - y1) * dx2) /
+                                (dx1 * dy2 - dy1 * dx2)));
+                x = x1 + t * dx1;
+                y = y1 + t * dy1;
+            }
+
+            if (result != null) {
+                result[offset] = x;
+                result[offset + 1] = y;
+            }
+
+            return IntersectionPoint.INTERSECTED;
+        }
+
+        @Override
+        public boolean pointIsOnLine(double px, double py, double x1,
+                double y1, double x2, double y2, boolean includesEndpoint) {
+
+            if (!includesEndpoint &&
+                    (px == x1 && py == y1 || px == x2 && py == y2)) {
+                return false;
+            }
+
+            if (px < Math.min(x1, x2) || Math.max(x1, x2) < px ||
+                    py < Math.min(y1, y2) || Math.max(y1, y2) < py) {
+                return false;
+            }
+
+            return RobustPredicates.orientation(x1, y1, x2, y2, px, py) == 0;
+        }
+
+        @Override
+        public int getIntersectionPoints(double x, double y, double width,
+                double height, double x1, double y1, double x2, double y2,
+                boolean includesEndpoint, double[] points) {
+
+            final double right = x + width;
+            final double lower = y - height;
+            if (Math.max(x1, x2) < Math.min(x, right) ||
+                    Math.max(x, right) < Math.min(x1, x2) ||
+                    Math.max(y1, y2) < Math.min(y, lower) ||
+                    Math.max(y, lower) < Math.min(y1, y2)) {
+                return 0;
+            }
+
+            return super.getIntersectionPoints(x, y, width, height, x1, y1,
+                    x2, y2, includesEndpoint, points);
+        }
+
+        @Override
+        public String toString() {
+            return "robust";
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable set of rectangles to find the rectangle first hit by a ray. A ray
+ * starts at an origin and goes along a direction up to a max distance, and
+ * points of the ray are {@code origin + t * direction} for the parameter
+ * {@code t}. A rectangle is {@code [x, x + width]} by {@code [y - height,
+ * y]}, same as {@link IntersectionPoint#getIntersectionPoints(Rectangle2D,
+ * Line2D, boolean)}.
+ * <p>
+ * The rectangles are bulk loaded into an R-tree once. A ray visits nodes in
+ * the order of the parameter where it enters them, and the search stops as
+ * soon as no closer hit can exist. Each rectangle is tested by the slab
+ * method in {@code double}, and the entry point is not truncated to 5 decimal
+ * places.
+ * <p>
+ * An instance can be shared across threads without locking.
+ */
+public final class RayCaster {
+
+    /**
+     * Packed edges, {@code left, upper, right, lower} for each rectangle
+     */
+    private final double[] edges;
+    private final int rectangleCount;
+    private final PackedRTree tree;
+
+    private RayCaster(double[] rectangles, int count) {
+        edges = new double[count * 4];
+        rectangleCount = count;
+
+        final double[] minX = new double[count];
+        final double[] minY = new double[count];
+        final double[] maxX = new double[count];
+        final double[] maxY = new double[count];
+
+        for (int r = 0; r < count; r++) {
+            final int e = r * 4;
+            final double left = rectangles[e];
+            final double upper = rectangles[e + 1];
+            final double right = left + rectangles[e + 2];
+            final double lower = upper - rectangles[e + 3];
+            edges[e] = left;
+            edges[e + 1] = upper;
+            edges[e + 2] = right;
+            edges[e + 3] = lower;
+
+            // A rectangle of NaN is never hit, so it gets empty bounds not to
+            // hide other rectangles in the same node
+            if (Double.isNaN(left + upper + right + lower)) {
+                minX[r] = Double.POSITIVE_INFINITY;
+                minY[r] = Double.POSITIVE_INFINITY;
+                maxX[r] = Double.NEGATIVE_INFINITY;
+                maxY[r] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            minX[r] = Math.min(left, right);
+            minY[r] = Math.min(upper, lower);
+            maxX[r] = Math.max(left, right);
+            maxY[r] = Math.max(upper, lower);
+        }
+
+        tree = new PackedRTree(minX, minY, maxX, maxY, count);
+    }
+
+    /**
+     * Create a ray caster of given rectangles. The rectangles are copied, so
+     * later changes of them don't affect the ray caster.
+     *
+     * @param rectangles the specified rectangles
+     *
+     * @return the ray caster
+     */
+    static public RayCaster of(Collection<? extends Rectangle2D> rectangles) {
+        final double[] packed = new double[rectangles.size() * 4];
+        int r = 0;
+        for (Rectangle2D rectangle : rectangles) {
+            packed[r++] = rectangle.getX();
+            packed[r++] = rectangle.getY();
+            packed[r++] = rectangle.getWidth();
+            packed[r++] = rectangle.getHeight();
+        }
+
+        return new RayCaster(packed, rectangles.size());
+    }
+
+    /**
+     * Create a ray caster of rectangles packed in an interleaved array
+     *
+     * @param rectangles {@code x, y, width, height} for each rectangle, at
+     * least {@code count * 4} long. Copied, so later changes of it don't
+     * affect the ray caster.
+     * @param count the number of rectangles
+     *
+     * @return the ray caster
+     */
+    static public RayCaster of(double[] rectangles, int count) {
+        return new RayCaster(rectangles, count);
+    }
+
+    public int getRectangleCount() {
+        return rectangleCount;
+    }
+
+    /**
+     * Cast a ray and get the first hit
+     *
+     * @param originX x of the origin
+     * @param originY y of the origin
+     * @param directionX x of the direction
+     * @param directionY y of the direction
+     * @param maxDistance the max distance from the origin. Rectangles farther
+     * than this are not hit.
+     *
+     * @return the hit nearest to the origin, or the one of the smallest index
+     * among the nearest. Empty if no rectangle is hit.
+     */
+    public Optional<Hit> cast(double originX, double originY,
+            double directionX, double directionY, double maxDistance) {
+
+        final Ray ray = new Ray(new NodeQueue());
+        ray.set(originX, originY, directionX, directionY, maxDistance);
+        if (!castRay(ray)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Hit(ray.rectangle, ray.face, ray.entryX(),
+                ray.entryY(), ray.t, ray.t * ray.length));
+    }
+
+    /**
+     * Cast a ray from the start point to the end point of a given line, e.g.
+     * to get the rectangle first intersected by the line. The parameter of
+     * the hit is in {@code [0, 1]}.
+     *
+     * @param line the specified line
+     *
+     * @return same as {@link #cast(double, double, double, double, double)}
+     */
+    public Optional<Hit> cast(Line2D line) {
+        final double dx = line.getX2() - line.getX1();
+        final double dy = line.getY2() - line.getY1();
+        return cast(line.getX1(), line.getY1(), dx, dy, Math.hypot(dx, dy));
+    }
+
+    /**
+     * Cast rays packed in an interleaved array and get the first hit of each.
+     * The results are same as {@link #cast(double, double, double, double,
+     * double)} for each ray.
+     *
+     * @param rays {@code originX, originY, directionX, directionY} for each
+     * ray, at least {@code count * 4} long
+     * @param count the number of rays
+     * @param maxDistance the max distance from the origin of every ray
+     * @param rectangles the index of the rectangle hit by the {@code i}-th ray
+     * is stored at {@code i}. Otherwise -1. At least {@code count} long.
+     * @param parameters the parameter of the hit of the {@code i}-th ray is
+     * stored at {@code i}. Otherwise NaN. At least {@code count} long.
+     * @param points the entry point of the {@code i}-th ray is stored at
+     * {@code 2 * i} and {@code 2 * i + 1}. Otherwise NaN. At least {@code 2 *
+     * count} long, or {@code null} if not needed.
+     * @param faces the face hit by the {@code i}-th ray is stored at {@code
+     * i}. Otherwise {@code null}. At least {@code count} long, or {@code
+     * null} if not needed.
+     *
+     * @return the number of rays hitting a rectangle
+     */
+    public int castAll(double[] rays, int count, double maxDistance,
+            int[] rectangles, double[] parameters, double[] points,
+            Face[] faces) {
+
+        final Ray ray = new Ray(new NodeQueue());
+        int hitCount = 0;
+        for (int i = 0; i < count; i++) {
+            final int r = i * 4;
+            ray.set(rays[r], rays[r + 1], rays[r + 2], rays[r + 3],
+                    maxDistance);
+            final boolean hit = castRay(ray);
+
+            rectangles[i] = hit ? ray.rectangle : -1;
+            parameters[i] = hit ? ray.t : Double.NaN;
+            if (points != null) {
+                points[2 * i] = hit ? ray.entryX() : Double.NaN;
+                points[2 * i + 1] = hit ? ray.entryY() : Double.NaN;
+            }
+            if (faces != null) {
+                faces[i] = hit ? ray.face : null;
+            }
+            if (hit) {
+                hitCount++;
+            }
+        }
+
+        return hitCount;
+    }
+
+    /**
+     * Find the first hit of a ray, keeping the nearest one found so far in
+     * the ray
+     *
+     * @return {@code true} if a rectangle is hit
+     */
+    private boolean castRay(Ray ray) {
+        if (tree.root < 0) {
+            return false;
+        }
+
+        final NodeQueue queue = ray.queue;
+        queue.clear();
+        final double rootT = ray.entryParameter(tree, tree.root);
+        if (rootT < Double.POSITIVE_INFINITY) {
+            queue.add(tree.root, rootT);
+        }
+
+        while (!queue.isEmpty()) {
+            // Equal parameters are still visited for the smaller index
+            if (queue.minDistance() > ray.t) {
+                break;
+            }
+
+            final int node = queue.poll();
+
+            if (tree.isLeaf(node)) {
+                for (int n = tree.childStart[node]; n < tree.childEnd[node];
+                        n++) {
+                    ray.test(tree.items[n], edges);
+                }
+                continue;
+            }
+
+            for (int child = tree.childStart[node];
+                    child < tree.childEnd[node]; child++) {
+                final double t = ray.entryParameter(tree, child);
+                if (t < Double.POSITIVE_INFINITY) {
+                    queue.add(child, t);
+                }
+            }
+        }
+
+        return ray.rectangle >= 0;
+    }
+
+    /**
+     * A ray being cast, with the nearest hit found so far
+     */
+    static private class Ray {
+
+        final NodeQueue queue;
+
+        double x;
+        double y;
+        double dx;
+        double dy;
+        double length;
+        double maxT;
+
+        /**
+         * The rectangle hit, or -1 if not found yet
+         */
+        int rectangle;
+        double t;
+        Face face;
+        double faceEdge;
+
+        Ray(NodeQueue queue) {
+            this.queue = queue;
+        }
+
+        void set(double x, double y, double dx, double dy,
+                double maxDistance) {
+
+            this.x = x;
+            this.y = y;
+            this.dx = dx;
+            this.dy = dy;
+            length = Math.hypot(dx, dy);
+            // A ray of zero length hits only rectangles containing the origin
+            maxT = length == 0 ? 0 : maxDistance / length;
+            rectangle = -1;
+            t = Double.POSITIVE_INFINITY;
+            face = null;
+        }
+
+        /**
+         * Limited to the nearest hit so far, so that farther nodes are not
+         * visited
+         */
+        double entryParameter(PackedRTree tree, int node) {
+            return PackedRTree.entryParameter(x, y, dx, dy,
+                    Math.min(maxT, t), tree.minX[node], tree.minY[node],
+                    tree.maxX[node], tree.maxY[node]);
+        }
+
+        /**
+         * Test a rectangle by the slab method, and keep it if it's hit before
+         * the nearest hit so far
+         */
+        void test(int r, double[] edges) {
+            final int e = r * 4;
+            double near = 0;
+            double far = Math.min(maxT, t);
+            Face nearFace = Face.INSIDE;
+            double nearEdge = Double.NaN;
+
+            if (dx == 0) {
+                if (!isBetween(x, edges[e], edges[e + 2])) {
+                    return;
+                }
+            } else {
+                final double tLeft = (edges[e] - x) / dx;
+                final double tRight = (edges[e + 2] - x) / dx;
+                final boolean left = tLeft <= tRight;
+                final double tIn = left ? tLeft : tRight;
+                if (tIn > near) {
+                    near = tIn;
+                    nearFace = left ? Face.LEFT : Face.RIGHT;
+                    nearEdge = left ? edges[e] : edges[e + 2];
+                }
+                far = Math.min(far, left ? tRight : tLeft);
+            }
+
+            if (dy == 0) {
+                if (!isBetween(y, edges[e + 3], edges[e + 1])) {
+                    return;
+                }
+            } else {
+                final double tUpper = (edges[e + 1] - y) / dy;
+                final double tLower = (edges[e + 3] - y) / dy;
+                final boolean upper = tUpper <= tLower;
+                final double tIn = upper ? tUpper : tLower;
+                // A corner is regarded as on the upper or the lower edge,
+                // same as the order of edges in IntersectionPoint
+                if (tIn > 0 && tIn >= near) {
+                    near = tIn;
+                    nearFace = upper ? Face.UPPER : Face.LOWER;
+                    nearEdge = upper ? edges[e + 1] : edges[e + 3];
+                }
+                far = Math.min(far, upper ? tLower : tUpper);
+            }
+
+            // NaN of a rectangle fails here
+            if (!(near <= far)) {
+                return;
+            }
+            if (near == t && r > rectangle) {
+                return;
+            }
+
+            rectangle = r;
+            t = near;
+            face = nearFace;
+            faceEdge = nearEdge;
+        }
+
+        /**
+         * @return x of the entry point. Exactly on the edge if the face is
+         * left or right.
+         */
+        double entryX() {
+            if (face == Face.LEFT || face == Face.RIGHT) {
+                return faceEdge;
+            }
+            return face == Face.INSIDE ? x : x + t * dx;
+        }
+
+        /**
+         * @return y of the entry point. Exactly on the edge if the face is
+         * upper or lower.
+         */
+        double entryY() {
+            if (face == Face.UPPER || face == Face.LOWER) {
+                return faceEdge;
+            }
+            return face == Face.INSIDE ? y : y + t * dy;
+        }
+
+        static private boolean isBetween(double value, double edge1,
+                double edge2) {
+            return Math.min(edge1, edge2) <= value &&
+                    value <= Math.max(edge1, edge2);
+        }
+    }
+
+    /**
+     * An edge of a rectangle where a ray enters it
+     */
+    public enum Face {
+        /**
+         * The edge at {@code y}
+         */
+        UPPER,
+        /**
+         * The edge at {@code y - height}
+         */
+        LOWER,
+        /**
+         * The edge at {@code x}
+         */
+        LEFT,
+        /**
+         * The edge at {@code x + width}
+         */
+        RIGHT,
+        /**
+         * The origin of the ray is in the rectangle, including its edges
+         */
+        INSIDE
+    }
+
+    /**
+     * The first hit of a ray
+     */
+    static public final class Hit {
+
+        private final int rectangle;
+        private final Face face;
+        private final double x;
+        private final double y;
+        private final double parameter;
+        private final double distance;
+
+        Hit(int rectangle, Face face, double x, double y, double parameter,
+                double distance) {
+
+            this.rectangle = rectangle;
+            this.face = face;
+            this.x = x;
+            this.y = y;
+            this.parameter = parameter;
+            this.distance = distance;
+        }
+
+        /**
+         * @return index of the rectangle given to the ray caster
+         */
+        public int getRectangle() {
+            return rectangle;
+        }
+
+        public Face getFace() {
+            return face;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        /**
+         * @return a new point where the ray enters the rectangle. The origin
+         * if it's in the rectangle.
+         */
+        public Point2D getPoint() {
+            return new Point2D.Double(x, y);
+        }
+
+        /**
+         * @return the parameter {@code t} of the entry point, {@code origin +
+         * t * direction}
+         */
+        public double getParameter() {
+            return parameter;
+        }
+
+        /**
+         * @return the distance from the origin to the entry point
+         */
+        public double getDistance() {
+            return distance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Hit)) {
+                return false;
+            }
+            final Hit that = (Hit) o;
+            return rectangle == that.rectangle && face == that.face &&
+                    Double.compare(that.x, x) == 0 &&
+                    Double.compare(that.y, y) == 0 &&
+                    Double.compare(that.parameter, parameter) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rectangle, face, x, y, parameter);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Hit[rectangle %d %s -> (%s, %s) at %s]",
+                    rectangle, face, x, y, parameter);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.zawataki;
+
+import java.math.BigDecimal;
+
+/**
+ * Adaptive exact predicates in the manner of Shewchuk, "Adaptive Precision
+ * Floating-Point Arithmetic and Fast Robust Geometric Predicates". The sign is
+ * decided by floating point arithmetic when it's larger than its error bound,
+ * which is almost always. Otherwise it's computed exactly by {@link
+ * BigDecimal}, which represents any {@code double} exactly.
+ */
+final class RobustPredicates {
+
+    /**
+     * Half of the machine epsilon, i.e. 2^-53
+     */
+    static private final double EPSILON = 0x1p-53;
+
+    /**
+     * Relative error bound of {@code (a - b) * (c - d) - (e - f) * (g - h)}
+     * computed in floating point, {@code ccwerrboundA} of Shewchuk
+     */
+    static private final double ERROR_BOUND = (3 + 16 * EPSILON) * EPSILON;
+
+    /**
+     * Below this, products may lose precision by underflow and the error
+     * bound doesn't hold
+     */
+    static private final double MIN_FILTERED_MAGNITUDE = 0x1p-900;
+
+    private RobustPredicates() {
+    }
+
+    /**
+     * Get the sign of the orientation of a point ({@code px}, {@code py})
+     * relative to a line from ({@code x1}, {@code y1}) to ({@code x2}, {@code
+     * y2})
+     *
+     * @return positive if counterclockwise, negative if clockwise, and 0 if
+     * the three points are collinear
+     */
+    static int orientation(double x1, double y1, double x2, double y2,
+            double px, double py) {
+
+        return crossProductSign(x1, y1, x2, y2, x1, y1, px, py);
+    }
+
+    /**
+     * Get the sign of the cross product of a vector from ({@code x1}, {@code
+     * y1}) to ({@code x2}, {@code y2}) and a vector from ({@code x3}, {@code
+     * y3}) to ({@code x4}, {@code y4})
+     *
+     * @return positive, negative or 0
+     */
+    static int crossProductSign(double x1, double y1, double x2, double y2,
+            double x3, double y3, double x4, double y4) {
+
+        final double dx1 = x2 - x1;
+        final double dy1 = y2 - y1;
+        final double dx2 = x4 - x3;
+        final double dy2 = y4 - y3;
+
+        // A difference of doubles is 0 only if they are equal
+        if ((dx1 == 0 || dy2 == 0) && (dy1 == 0 || dx2 == 0)) {
+            return 0;
+        }
+
+        final double left = dx1 * dy2;
+        final double right = dy1 * dx2;
+        final double cross = left - right;
+
+        final double magnitude = Math.abs(left) + Math.abs(right);
+        if (magnitude > MIN_FILTERED_MAGNITUDE) {
+            final double bound = ERROR_BOUND * magnitude;
+            if (cross > bound) {
+                return 1;
+            }
+            if (-cross > bound) {
+                return -1;
+            }
+        }
+
+        return exact(x2, x1).multiply(exact(y4, y3))
+                .subtract(exact(y2, y1).multiply(exact(x4, x3)))
+                .signum();
+    }
+
+    static private BigDecimal exact(double minuend, double subtrahend) {
+        return new BigDecimal(minuend).subtract(new BigDecimal(subtrahend));
+    }
+}
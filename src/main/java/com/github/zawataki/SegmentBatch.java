@@ -0,0 +1,228 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.util.Collection;
+
+/**
+ * Intersection points of many pairs of lines packed in {@code double} arrays.
+ * The {@code i}-th line of 1st lines and the {@code i}-th line of 2nd lines
+ * are regarded as a pair, and each pair gives the same result as {@link
+ * IntersectionPoint#getIntersectionPoint(Line2D, Line2D, boolean)}.
+ * <p>
+ * Each call runs in two passes. The 1st pass only does arithmetic on arrays
+ * without branches, so the JIT compiler can vectorize it. The 2nd pass
+ * truncates and checks the candidate points of non-parallel pairs only.
+ */
+public class SegmentBatch {
+
+    /**
+     * The number of {@code double} values of a line in an interleaved array,
+     * i.e. {@code x1, y1, x2, y2}
+     */
+    static public final int STRIDE = 4;
+
+    /**
+     * Pack given lines into an interleaved array, {@code x1, y1, x2, y2} for
+     * each line in iteration order
+     *
+     * @param lines the specified lines
+     *
+     * @return an array of {@code lines.size() * STRIDE} length
+     */
+    static public double[] pack(Collection<? extends Line2D> lines) {
+        final double[] packed = new double[lines.size() * STRIDE];
+
+        int l = 0;
+        for (Line2D line : lines) {
+            packed[l++] = line.getX1();
+            packed[l++] = line.getY1();
+            packed[l++] = line.getX2();
+            packed[l++] = line.getY2();
+        }
+
+        return packed;
+    }
+
+    /**
+     * Get intersection points of pairs of lines packed in interleaved arrays,
+     * {@code x1, y1, x2, y2} for each line.
+     *
+     * @param lines1 1st lines, at least {@code count * STRIDE} long
+     * @param lines2 2nd lines, at least {@code count * STRIDE} long
+     * @param count the number of pairs
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param intersected {@code true} is stored at {@code i} if the
+     * {@code i}-th pair is intersected. Otherwise {@code false}. At least
+     * {@code count} long.
+     * @param points the intersection point of the {@code i}-th pair is stored
+     * at {@code 2 * i} and {@code 2 * i + 1}. Otherwise NaN. At least {@code 2
+     * * count} long.
+     *
+     * @return the number of intersected pairs
+     */
+    static public int getIntersectionPoints(double[] lines1, double[] lines2,
+            int count, boolean includesEndpoint, boolean[] intersected,
+            double[] points) {
+
+        for (int i = 0; i < count; i++) {
+            final int l = i * STRIDE;
+
+            final double a1 = lines1[l + 3] - lines1[l + 1];
+            final double b1 = lines1[l] - lines1[l + 2];
+            final double a2 = lines2[l + 3] - lines2[l + 1];
+            final double b2 = lines2[l] - lines2[l + 2];
+
+            final double determinant = a1 * b2 - a2 * b1;
+            final double c1 = a1 * lines1[l] + b1 * lines1[l + 1];
+            final double c2 = a2 * lines2[l] + b2 * lines2[l + 1];
+
+            intersected[i] = determinant != 0;
+            points[2 * i] = (b2 * c1 - b1 * c2) / determinant + 0.0;
+            points[2 * i + 1] = (a1 * c2 - a2 * c1) / determinant + 0.0;
+        }
+
+        int intersectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            final int l = i * STRIDE;
+            if (finish(i, lines1[l], lines1[l + 1], lines1[l + 2],
+                    lines1[l + 3], lines2[l], lines2[l + 1], lines2[l + 2],
+                    lines2[l + 3], includesEndpoint, intersected, points,
+                    points, 2 * i, 2 * i + 1)) {
+                intersectedCount++;
+            }
+        }
+
+        return intersectedCount;
+    }
+
+    /**
+     * Write intersection points of pairs of lines packed in interleaved
+     * arrays into a sink. A record is written for every pair in order, whose
+     * query index is the index of the pair and which has the intersection
+     * point if exists. Nothing is allocated, as scratch space of the current
+     * thread is reused.
+     *
+     * @param lines1 1st lines, at least {@code count * STRIDE} long
+     * @param lines2 2nd lines, at least {@code count * STRIDE} long
+     * @param count the number of pairs
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param sink the sink to write records into
+     *
+     * @return the number of intersected pairs
+     */
+    static public int writeIntersectionPoints(double[] lines1,
+            double[] lines2, int count, boolean includesEndpoint,
+            IntersectionSink sink) {
+
+        final double[] point = IntersectionPoint.sinkScratch();
+        int intersectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            final int l = i * STRIDE;
+            final int status = IntersectionPoint.computeIntersectionPoint(
+                    lines1[l], lines1[l + 1], lines1[l + 2], lines1[l + 3],
+                    lines2[l], lines2[l + 1], lines2[l + 2], lines2[l + 3],
+                    includesEndpoint, null, point, 0);
+
+            sink.beginRecord(i);
+            if (status == IntersectionPoint.INTERSECTED) {
+                sink.addPoint(point[0], point[1]);
+                intersectedCount++;
+            }
+            sink.endRecord();
+        }
+
+        return intersectedCount;
+    }
+
+    /**
+     * Get intersection points of pairs of lines packed in one array per
+     * coordinate. The {@code i}-th 1st line is from ({@code x1[i]},
+     * {@code y1[i]}) to ({@code x2[i]}, {@code y2[i]}) and the {@code i}-th
+     * 2nd line is from ({@code x3[i]}, {@code y3[i]}) to ({@code x4[i]},
+     * {@code y4[i]}). All arrays must be at least {@code count} long.
+     *
+     * @param count the number of pairs
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param intersected {@code true} is stored at {@code i} if the
+     * {@code i}-th pair is intersected. Otherwise {@code false}.
+     * @param pointsX x of the intersection point of the {@code i}-th pair is
+     * stored at {@code i}. Otherwise NaN.
+     * @param pointsY y of the intersection point of the {@code i}-th pair is
+     * stored at {@code i}. Otherwise NaN.
+     *
+     * @return the number of intersected pairs
+     */
+    static public int getIntersectionPoints(double[] x1, double[] y1,
+            double[] x2, double[] y2, double[] x3, double[] y3, double[] x4,
+            double[] y4, int count, boolean includesEndpoint,
+            boolean[] intersected, double[] pointsX, double[] pointsY) {
+
+        for (int i = 0; i < count; i++) {
+            final double a1 = y2[i] - y1[i];
+            final double b1 = x1[i] - x2[i];
+            final double a2 = y4[i] - y3[i];
+            final double b2 = x3[i] - x4[i];
+
+            final double determinant = a1 * b2 - a2 * b1;
+            final double c1 = a1 * x1[i] + b1 * y1[i];
+            final double c2 = a2 * x3[i] + b2 * y3[i];
+
+            intersected[i] = determinant != 0;
+            pointsX[i] = (b2 * c1 - b1 * c2) / determinant + 0.0;
+            pointsY[i] = (a1 * c2 - a2 * c1) / determinant + 0.0;
+        }
+
+        int intersectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (finish(i, x1[i], y1[i], x2[i], y2[i], x3[i], y3[i], x4[i],
+                    y4[i], includesEndpoint, intersected, pointsX, pointsY, i,
+                    i)) {
+                intersectedCount++;
+            }
+        }
+
+        return intersectedCount;
+    }
+
+    /**
+     * Truncate the candidate point of the {@code i}-th pair computed by the
+     * 1st pass and check it's on both lines. The status of the pair is
+     * recorded to {@link IntersectionMetrics} same as {@link
+     * IntersectionPoint#getIntersectionPoint(Line2D, Line2D, boolean)}.
+     */
+    static private boolean finish(int i, double x1, double y1, double x2,
+            double y2, double x3, double y3, double x4, double y4,
+            boolean includesEndpoint, boolean[] intersected, double[] pointsX,
+            double[] pointsY, int xIndex, int yIndex) {
+
+        if (!intersected[i]) {
+            pointsX[xIndex] = Double.NaN;
+            pointsY[yIndex] = Double.NaN;
+            IntersectionPoint.recordStatus(IntersectionPoint.PARALLEL);
+            return false;
+        }
+
+        final double x = IntersectionPoint.truncate(pointsX[xIndex]);
+        final double y = IntersectionPoint.truncate(pointsY[yIndex]);
+
+        if (!IntersectionPoint.isOnLine(x, y, x1, y1, x2, y2,
+                includesEndpoint) ||
+                !IntersectionPoint.isOnLine(x, y, x3, y3, x4, y4,
+                        includesEndpoint)) {
+
+            intersected[i] = false;
+            pointsX[xIndex] = Double.NaN;
+            pointsY[yIndex] = Double.NaN;
+            IntersectionPoint.recordStatus(IntersectionPoint.NOT_ON_LINE);
+            return false;
+        }
+
+        pointsX[xIndex] = x;
+        pointsY[yIndex] = y;
+        IntersectionPoint.recordStatus(IntersectionPoint.INTERSECTED);
+        return true;
+    }
+}
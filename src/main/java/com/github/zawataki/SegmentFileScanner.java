@@ -0,0 +1,160 @@
+package com.github.zawataki;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Scanner of a file of packed segments, {@code x1, y1, x2, y2} doubles for
+ * each, against lines and rectangles of a {@link SpatialIndex}. The file is
+ * memory-mapped in windows, so it may be larger than 2 GB, and segments are
+ * never loaded into the heap at once. Hits are written to a channel as
+ * records of {@link #RECORD_BYTES} bytes:
+ * <ol>
+ * <li>the index of the segment in the file as {@code long}</li>
+ * <li>the index of the line or the rectangle in the index as {@code int}</li>
+ * <li>{@code 0} if it's a line, {@code 1} if it's a rectangle as {@code
+ * int}</li>
+ * <li>x and y of the intersection point as {@code double}</li>
+ * </ol>
+ * Records of a segment are in {@link SpatialIndex.Hit#DISTANCE_ORDER} from
+ * the start point of the segment, and segments are in the order of the file.
+ */
+public final class SegmentFileScanner {
+
+    /**
+     * The size of a segment in the input file
+     */
+    static public final int SEGMENT_BYTES = 4 * Double.BYTES;
+
+    /**
+     * The size of a hit in the output channel
+     */
+    static public final int RECORD_BYTES =
+            Long.BYTES + 2 * Integer.BYTES + 2 * Double.BYTES;
+
+    static final long DEFAULT_WINDOW_BYTES = 1 << 26;
+
+    static private final int OUTPUT_BUFFER_BYTES = RECORD_BYTES * 2048;
+
+    private SegmentFileScanner() {
+    }
+
+    /**
+     * Get intersection points of all segments in a file with lines and
+     * rectangles of an index, and write them to a channel
+     *
+     * @param input the file of packed segments, read from the beginning
+     * @param order the byte order of both the file and the records
+     * @param probes the lines and the rectangles to intersect with
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes. Same as the methods of {@link IntersectionPoint}.
+     * @param output the channel where the records are written
+     *
+     * @return the number of written records
+     *
+     * @throws IOException if the file size is not a multiple of {@link
+     * #SEGMENT_BYTES}, or reading or writing fails
+     */
+    static public long findIntersectionPoints(FileChannel input,
+            ByteOrder order, SpatialIndex probes, boolean includesEndpoint,
+            WritableByteChannel output) throws IOException {
+
+        return findIntersectionPoints(input, order, probes, includesEndpoint,
+                output, DEFAULT_WINDOW_BYTES);
+    }
+
+    /**
+     * @param windowBytes the maximum size of a mapped window, a multiple of
+     * {@link #SEGMENT_BYTES}
+     */
+    static long findIntersectionPoints(FileChannel input, ByteOrder order,
+            SpatialIndex probes, boolean includesEndpoint,
+            WritableByteChannel output, long windowBytes) throws IOException {
+
+        final long size = input.size();
+        if (size % SEGMENT_BYTES != 0) {
+            throw new IOException("File size " + size +
+                    " is not a multiple of " + SEGMENT_BYTES);
+        }
+
+        final RecordWriter writer = new RecordWriter(
+                ByteBuffer.allocateDirect(OUTPUT_BUFFER_BYTES).order(order),
+                output);
+        final SpatialIndex.Scratch scratch = new SpatialIndex.Scratch();
+
+        try {
+            for (long position = 0; position < size;
+                    position += windowBytes) {
+                final MappedByteBuffer window =
+                        input.map(FileChannel.MapMode.READ_ONLY, position,
+                                Math.min(windowBytes, size - position));
+                window.order(order);
+
+                while (window.hasRemaining()) {
+                    probes.visitIntersectionPoints(window.getDouble(),
+                            window.getDouble(), window.getDouble(),
+                            window.getDouble(), includesEndpoint, scratch,
+                            writer);
+                    writer.segmentIndex++;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        flush(writer.records, output);
+        return writer.recordCount;
+    }
+
+    /**
+     * Writes hits of the current segment as records. A failure of writing is
+     * thrown as {@link UncheckedIOException} through {@link SpatialIndex}.
+     */
+    static private final class RecordWriter
+            implements SpatialIndex.HitVisitor {
+
+        final ByteBuffer records;
+        final WritableByteChannel output;
+        long segmentIndex;
+        long recordCount;
+
+        RecordWriter(ByteBuffer records, WritableByteChannel output) {
+            this.records = records;
+            this.output = output;
+        }
+
+        @Override
+        public void visit(boolean rectangle, int index, double x, double y,
+                double distance) {
+
+            if (records.remaining() < RECORD_BYTES) {
+                try {
+                    flush(records, output);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            records.putLong(segmentIndex)
+                    .putInt(index)
+                    .putInt(rectangle ? 1 : 0)
+                    .putDouble(x)
+                    .putDouble(y);
+            recordCount++;
+        }
+    }
+
+    static private void flush(ByteBuffer records, WritableByteChannel output)
+            throws IOException {
+
+        records.flip();
+        while (records.hasRemaining()) {
+            output.write(records);
+        }
+        records.clear();
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.zawataki;
+
+import java.awt.geom.Point2D;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * An intersection point between two lines identified by index
+ */
+public final class SegmentIntersection {
+
+    /**
+     * Order by {@link #getIndex1()} and then {@link #getIndex2()}
+     */
+    static public final Comparator<SegmentIntersection> INDEX_ORDER =
+            Comparator.comparingInt(SegmentIntersection::getIndex1)
+                    .thenComparingInt(SegmentIntersection::getIndex2);
+
+    private final int index1;
+    private final int index2;
+    private final double x;
+    private final double y;
+
+    /**
+     * @param index1 index of 1st line
+     * @param index2 index of 2nd line
+     * @param x x of the intersection point
+     * @param y y of the intersection point
+     */
+    public SegmentIntersection(int index1, int index2, double x, double y) {
+        this.index1 = index1;
+        this.index2 = index2;
+        this.x = x;
+        this.y = y;
+    }
+
+    public int getIndex1() {
+        return index1;
+    }
+
+    public int getIndex2() {
+        return index2;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return a new point of the intersection
+     */
+    public Point2D getPoint() {
+        return new Point2D.Double(x, y);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SegmentIntersection)) {
+            return false;
+        }
+        final SegmentIntersection that = (SegmentIntersection) o;
+        return index1 == that.index1 && index2 == that.index2 &&
+                Double.compare(that.x, x) == 0 &&
+                Double.compare(that.y, y) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index1, index2, x, y);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SegmentIntersection[%d, %d -> (%s, %s)]", index1,
+                index2, x, y);
+    }
+}
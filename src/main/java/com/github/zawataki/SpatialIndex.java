@@ -0,0 +1,540 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable index of lines and rectangles to get intersection points with
+ * many probe lines. The items are bulk loaded into an R-tree once, and a query
+ * only checks items whose bounds are close to the probe line. Results are
+ * exactly same as {@link IntersectionPoint#getIntersectionPoint(Line2D, Line2D,
+ * boolean)} and {@link IntersectionPoint#getIntersectionPoints(Rectangle2D,
+ * Line2D, boolean)} for every item.
+ * <p>
+ * An instance can be shared across threads without locking.
+ */
+public final class SpatialIndex {
+
+    /**
+     * Packed lines, {@code x1, y1, x2, y2} for each
+     */
+    private final double[] lines;
+    private final int lineCount;
+
+    /**
+     * Packed rectangles, {@code x, y, width, height} for each
+     */
+    private final double[] rectangles;
+    private final int rectangleCount;
+
+    /**
+     * Item {@code i} is a line if {@code i < lineCount}. Otherwise it's the
+     * rectangle {@code i - lineCount}.
+     */
+    private final PackedRTree tree;
+
+    private SpatialIndex(double[] lines, int lineCount, double[] rectangles,
+            int rectangleCount) {
+
+        this.lines = lines;
+        this.lineCount = lineCount;
+        this.rectangles = rectangles;
+        this.rectangleCount = rectangleCount;
+
+        final int count = lineCount + rectangleCount;
+        final double[] minX = new double[count];
+        final double[] minY = new double[count];
+        final double[] maxX = new double[count];
+        final double[] maxY = new double[count];
+
+        final LineBounds lineBounds = LineBounds.of(lines, lineCount);
+        System.arraycopy(lineBounds.minX, 0, minX, 0, lineCount);
+        System.arraycopy(lineBounds.minY, 0, minY, 0, lineCount);
+        System.arraycopy(lineBounds.maxX, 0, maxX, 0, lineCount);
+        System.arraycopy(lineBounds.maxY, 0, maxY, 0, lineCount);
+
+        for (int r = 0; r < rectangleCount; r++) {
+            final double left = rectangles[4 * r];
+            final double upper = rectangles[4 * r + 1];
+            final double right = left + rectangles[4 * r + 2];
+            final double lower = upper - rectangles[4 * r + 3];
+            final double padding = Math.max(Math.max(
+                    IntersectionPoint.boundsPadding(left, upper, right, upper),
+                    IntersectionPoint.boundsPadding(left, lower, right, lower)),
+                    Math.max(IntersectionPoint.boundsPadding(left, upper, left,
+                            lower), IntersectionPoint.boundsPadding(right,
+                            upper, right, lower)));
+
+            final int i = lineCount + r;
+            minX[i] = Math.min(left, right) - padding;
+            minY[i] = Math.min(upper, lower) - padding;
+            maxX[i] = Math.max(left, right) + padding;
+            maxY[i] = Math.max(upper, lower) + padding;
+        }
+
+        tree = new PackedRTree(minX, minY, maxX, maxY, count);
+    }
+
+    /**
+     * Create an index of given lines and rectangles. The items are copied, so
+     * later changes of them don't affect the index.
+     *
+     * @param lines the specified lines
+     * @param rectangles the specified rectangles
+     *
+     * @return the index
+     */
+    static public SpatialIndex of(Collection<? extends Line2D> lines,
+            Collection<? extends Rectangle2D> rectangles) {
+
+        final double[] packedRectangles = new double[rectangles.size() * 4];
+        int r = 0;
+        for (Rectangle2D rectangle : rectangles) {
+            packedRectangles[r++] = rectangle.getX();
+            packedRectangles[r++] = rectangle.getY();
+            packedRectangles[r++] = rectangle.getWidth();
+            packedRectangles[r++] = rectangle.getHeight();
+        }
+
+        return new SpatialIndex(SegmentBatch.pack(lines), lines.size(),
+                packedRectangles, rectangles.size());
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getRectangleCount() {
+        return rectangleCount;
+    }
+
+    /**
+     * Get intersection points of a given probe line with all indexed items
+     *
+     * @param probe the specified line
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes. Same as the methods of {@link IntersectionPoint}.
+     *
+     * @return list of hits in {@link Hit#DISTANCE_ORDER}. Empty list if not
+     * intersected.
+     */
+    public List<Hit> getIntersectionPoints(Line2D probe,
+            boolean includesEndpoint) {
+
+        final List<Hit> hits = new ArrayList<>();
+        visitIntersectionPoints(probe.getX1(), probe.getY1(), probe.getX2(),
+                probe.getY2(), includesEndpoint, new Scratch(),
+                (rectangle, index, x, y, distance) -> hits.add(
+                        new Hit(rectangle, index, x, y, distance)));
+
+        return hits;
+    }
+
+    /**
+     * Visit intersection points of a probe line from ({@code x1}, {@code y1})
+     * to ({@code x2}, {@code y2}) in {@link Hit#DISTANCE_ORDER}. Same as
+     * {@link #getIntersectionPoints(Line2D, boolean)}, but nothing is
+     * allocated once {@code scratch} has grown for the number of hits.
+     *
+     * @param scratch the scratch space owned by the caller
+     * @param visitor the receiver of the hits
+     */
+    void visitIntersectionPoints(double x1, double y1, double x2, double y2,
+            boolean includesEndpoint, Scratch scratch, HitVisitor visitor) {
+
+        if (tree.root < 0) {
+            return;
+        }
+
+        final Probe p = scratch.probe.set(x1, y1, x2, y2);
+        scratch.hitCount = 0;
+
+        int[] nodes = scratch.nodes;
+        int size = 0;
+        if (p.touches(tree, tree.root)) {
+            nodes[size++] = tree.root;
+        }
+
+        while (size > 0) {
+            final int node = nodes[--size];
+
+            if (tree.isLeaf(node)) {
+                for (int n = tree.childStart[node]; n < tree.childEnd[node];
+                        n++) {
+                    collectHits(tree.items[n], p, includesEndpoint, scratch);
+                }
+                continue;
+            }
+
+            for (int child = tree.childStart[node];
+                    child < tree.childEnd[node]; child++) {
+                if (p.touches(tree, child)) {
+                    if (size == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, size * 2);
+                        scratch.nodes = nodes;
+                    }
+                    nodes[size++] = child;
+                }
+            }
+        }
+
+        scratch.sortHits();
+        for (int n = 0; n < scratch.hitCount; n++) {
+            final int h = scratch.order[n];
+            visitor.visit(scratch.isRectangle[h], scratch.indices[h],
+                    scratch.xs[h], scratch.ys[h], scratch.distances[h]);
+        }
+    }
+
+    /**
+     * Get the intersection point of a given probe line nearest to the start
+     * point of the probe line. Nodes of the index are visited in the order of
+     * the distance along the probe line, and the search stops as soon as no
+     * closer intersection point can exist.
+     *
+     * @param probe the specified line
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes. Same as the methods of {@link IntersectionPoint}.
+     *
+     * @return the first element of {@link #getIntersectionPoints(Line2D,
+     * boolean)} if exists. Otherwise empty.
+     */
+    public Optional<Hit> getFirstIntersectionPoint(Line2D probe,
+            boolean includesEndpoint) {
+
+        if (tree.root < 0) {
+            return Optional.empty();
+        }
+
+        final Scratch scratch = new Scratch();
+        final Probe p = scratch.probe.set(probe.getX1(), probe.getY1(),
+                probe.getX2(), probe.getY2());
+        Hit first = null;
+
+        final NodeQueue queue = new NodeQueue();
+        final double rootDistance = p.lowerDistance(tree, tree.root);
+        if (rootDistance < Double.POSITIVE_INFINITY) {
+            queue.add(tree.root, rootDistance);
+        }
+
+        while (!queue.isEmpty()) {
+            if (first != null && queue.minDistance() > first.distance) {
+                break;
+            }
+
+            final int node = queue.poll();
+
+            if (tree.isLeaf(node)) {
+                for (int n = tree.childStart[node]; n < tree.childEnd[node];
+                        n++) {
+                    scratch.hitCount = 0;
+                    collectHits(tree.items[n], p, includesEndpoint, scratch);
+                    for (int h = 0; h < scratch.hitCount; h++) {
+                        final Hit hit = new Hit(scratch.isRectangle[h],
+                                scratch.indices[h], scratch.xs[h],
+                                scratch.ys[h], scratch.distances[h]);
+                        if (first == null ||
+                                Hit.DISTANCE_ORDER.compare(hit, first) < 0) {
+                            first = hit;
+                        }
+                    }
+                }
+                continue;
+            }
+
+            for (int child = tree.childStart[node];
+                    child < tree.childEnd[node]; child++) {
+                final double distance = p.lowerDistance(tree, child);
+                if (distance < Double.POSITIVE_INFINITY) {
+                    queue.add(child, distance);
+                }
+            }
+        }
+
+        return Optional.ofNullable(first);
+    }
+
+    private void collectHits(int item, Probe p, boolean includesEndpoint,
+            Scratch scratch) {
+
+        final double[] points = scratch.points;
+
+        if (item < lineCount) {
+            final int l = item * SegmentBatch.STRIDE;
+            final int status = IntersectionPoint.computeIntersectionPoint(
+                    lines[l], lines[l + 1], lines[l + 2], lines[l + 3], p.x1,
+                    p.y1, p.x2, p.y2, includesEndpoint, null, points, 0);
+
+            if (status == IntersectionPoint.INTERSECTED) {
+                scratch.addHit(false, item, points[0], points[1],
+                        p.distanceTo(points[0], points[1]));
+            }
+            return;
+        }
+
+        final int rectangle = item - lineCount;
+        final int r = rectangle * 4;
+        final int count = IntersectionPoint.rectangleIntersectionPoints(
+                rectangles[r], rectangles[r + 1], rectangles[r + 2],
+                rectangles[r + 3], p.x1, p.y1, p.x2, p.y2, includesEndpoint,
+                points);
+
+        for (int n = 0; n < count; n++) {
+            scratch.addHit(true, rectangle, points[2 * n], points[2 * n + 1],
+                    p.distanceTo(points[2 * n], points[2 * n + 1]));
+        }
+    }
+
+    /**
+     * Receiver of hits of {@link #visitIntersectionPoints(double, double,
+     * double, double, boolean, Scratch, HitVisitor)}, same as the properties
+     * of {@link Hit}
+     */
+    interface HitVisitor {
+
+        void visit(boolean rectangle, int index, double x, double y,
+                double distance);
+    }
+
+    /**
+     * Scratch space of queries owned by a caller, grown as needed. Not
+     * thread-safe.
+     */
+    static final class Scratch {
+
+        final Probe probe = new Probe();
+        final double[] points =
+                new double[IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+        int[] nodes = new int[64];
+
+        /**
+         * Hits of a query, and their order after {@link #sortHits()}
+         */
+        boolean[] isRectangle = new boolean[16];
+        int[] indices = new int[16];
+        double[] xs = new double[16];
+        double[] ys = new double[16];
+        double[] distances = new double[16];
+        int[] order = new int[16];
+        int[] sortBuffer = new int[16];
+        int hitCount;
+
+        void addHit(boolean rectangle, int index, double x, double y,
+                double distance) {
+
+            if (hitCount == indices.length) {
+                final int capacity = hitCount * 2;
+                isRectangle = Arrays.copyOf(isRectangle, capacity);
+                indices = Arrays.copyOf(indices, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                distances = Arrays.copyOf(distances, capacity);
+                order = new int[capacity];
+                sortBuffer = new int[capacity];
+            }
+
+            isRectangle[hitCount] = rectangle;
+            indices[hitCount] = index;
+            xs[hitCount] = x;
+            ys[hitCount] = y;
+            distances[hitCount] = distance;
+            hitCount++;
+        }
+
+        /**
+         * Sort {@link #order} of the hits in {@link Hit#DISTANCE_ORDER}. Hits
+         * are sorted by distance, then hits of the same distance by the rest.
+         */
+        void sortHits() {
+            for (int h = 0; h < hitCount; h++) {
+                order[h] = h;
+            }
+            IndexSort.sort(order, 0, hitCount, distances, sortBuffer);
+
+            for (int n = 1; n < hitCount; n++) {
+                final int h = order[n];
+                int m = n - 1;
+                while (m >= 0 && compare(order[m], h) > 0) {
+                    order[m + 1] = order[m];
+                    m--;
+                }
+                order[m + 1] = h;
+            }
+        }
+
+        private int compare(int h1, int h2) {
+            int result = Double.compare(distances[h1], distances[h2]);
+            if (result == 0) {
+                result = Boolean.compare(isRectangle[h1], isRectangle[h2]);
+            }
+            if (result == 0) {
+                result = Integer.compare(indices[h1], indices[h2]);
+            }
+            if (result == 0) {
+                result = Double.compare(xs[h1], xs[h2]);
+            }
+            if (result == 0) {
+                result = Double.compare(ys[h1], ys[h2]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A probe line with its padding
+     */
+    static private class Probe {
+
+        double x1;
+        double y1;
+        double x2;
+        double y2;
+        double padding;
+        double length;
+
+        Probe set(double x1, double y1, double x2, double y2) {
+            this.x1 = x1;
+            this.y1 = y1;
+            this.x2 = x2;
+            this.y2 = y2;
+            padding = IntersectionPoint.boundsPadding(x1, y1, x2, y2);
+            length = Point2D.distance(x1, y1, x2, y2);
+            return this;
+        }
+
+        double distanceTo(double x, double y) {
+            return Point2D.distance(x1, y1, x, y);
+        }
+
+        /**
+         * Points regarded as on this probe are within the padding of it, so
+         * only nodes touching the probe expanded by the padding can contain
+         * its intersection points
+         */
+        boolean touches(PackedRTree tree, int node) {
+            return entryParameter(tree, node) < Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Get a lower bound of the distance from the start point to the
+         * intersection points in a node
+         *
+         * @return the lower bound, or {@link Double#POSITIVE_INFINITY} if the
+         * node can't contain intersection points
+         */
+        double lowerDistance(PackedRTree tree, int node) {
+            final double t = entryParameter(tree, node);
+            return t == Double.POSITIVE_INFINITY ? t : t * length - padding;
+        }
+
+        private double entryParameter(PackedRTree tree, int node) {
+            return PackedRTree.entryParameter(x1, y1, x2 - x1, y2 - y1, 1,
+                    tree.minX[node] - padding, tree.minY[node] - padding,
+                    tree.maxX[node] + padding, tree.maxY[node] + padding);
+        }
+    }
+
+    /**
+     * An intersection point of a probe line with an indexed item
+     */
+    static public final class Hit {
+
+        /**
+         * Order by the distance from the start point of the probe line, then
+         * lines before rectangles, by index, and by x and y
+         */
+        static public final Comparator<Hit> DISTANCE_ORDER =
+                Comparator.comparingDouble(Hit::getDistance)
+                        .thenComparing(Hit::isRectangle)
+                        .thenComparingInt(Hit::getIndex)
+                        .thenComparingDouble(Hit::getX)
+                        .thenComparingDouble(Hit::getY);
+
+        private final boolean rectangle;
+        private final int index;
+        private final double x;
+        private final double y;
+        private final double distance;
+
+        Hit(boolean rectangle, int index, double x, double y,
+                double distance) {
+
+            this.rectangle = rectangle;
+            this.index = index;
+            this.x = x;
+            this.y = y;
+            this.distance = distance;
+        }
+
+        /**
+         * @return {@code true} if the item is a rectangle. {@code false} if
+         * it's a line.
+         */
+        public boolean isRectangle() {
+            return rectangle;
+        }
+
+        /**
+         * @return index of the item in the lines or rectangles given to
+         * {@link SpatialIndex#of(Collection, Collection)}
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        /**
+         * @return a new point of the intersection
+         */
+        public Point2D getPoint() {
+            return new Point2D.Double(x, y);
+        }
+
+        /**
+         * @return the distance from the start point of the probe line
+         */
+        public double getDistance() {
+            return distance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Hit)) {
+                return false;
+            }
+            final Hit that = (Hit) o;
+            return rectangle == that.rectangle && index == that.index &&
+                    Double.compare(that.x, x) == 0 &&
+                    Double.compare(that.y, y) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rectangle, index, x, y);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Hit[%s %d -> (%s, %s)]",
+                    rectangle ? "rectangle" : "line", index, x, y);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.Collection;
+
+/**
+ * Find all intersection points among a set of lines with a sweep line.
+ * <p>
+ * Lines are swept in the order of their bounds along the axis where they are
+ * shorter relative to the whole extent. Lines crossed by the sweep line are
+ * kept in an interval tree by their bounds along the other axis, so a line
+ * visits only lines whose bounds overlap its own, even if many long lines are
+ * crossed at a time. Only these pairs are checked by {@link
+ * IntersectionPoint#computeIntersectionPoint(double, double, double, double,
+ * double, double, double, double, boolean, Point2D)}. The bounds are expanded
+ * by the tolerance of the 5 decimal places truncation, so the result is
+ * exactly same as checking all pairs with {@link
+ * IntersectionPoint#getIntersectionPoint(Line2D, Line2D, boolean)}.
+ */
+public class SweepLineIntersector {
+
+    /**
+     * Find all intersection points among given lines. Each intersected pair is
+     * passed to {@code consumer} once, in no particular order, with indices in
+     * iteration order of {@code lines}.
+     *
+     * @param lines the specified lines
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param consumer the receiver of intersection points
+     */
+    static public void findIntersectionPoints(
+            Collection<? extends Line2D> lines, boolean includesEndpoint,
+            IntersectionConsumer consumer) {
+
+        findIntersectionPoints(SegmentBatch.pack(lines), lines.size(),
+                includesEndpoint, consumer);
+    }
+
+    /**
+     * Find all intersection points among lines packed in an interleaved array,
+     * {@code x1, y1, x2, y2} for each line. Each intersected pair is passed to
+     * {@code consumer} once, in no particular order.
+     *
+     * @param lines the specified lines, at least {@code count *
+     * SegmentBatch.STRIDE} long
+     * @param count the number of lines
+     * @param includesEndpoint Includes endpoint of line if {@code true}.
+     * Otherwise excludes.
+     * @param consumer the receiver of intersection points
+     */
+    static public void findIntersectionPoints(double[] lines, int count,
+            boolean includesEndpoint, IntersectionConsumer consumer) {
+
+        final int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = i;
+        }
+
+        sweep(lines, LineBounds.of(lines, count), indices, count,
+                includesEndpoint, Double.NEGATIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.POSITIVE_INFINITY, consumer);
+    }
+
+    /**
+     * Sweep lines of given indices. A pair is checked only if the minimum
+     * corner of the overlap of their bounds is in [{@code regionMinX}, {@code
+     * regionMaxX}) x [{@code regionMinY}, {@code regionMaxY}), so a pair is
+     * found in only one of regions which don't overlap each other.
+     *
+     * @param indices indices of lines to sweep. Reordered by this method.
+     */
+    static void sweep(double[] lines, LineBounds bounds, int[] indices,
+            int count, boolean includesEndpoint, double regionMinX,
+            double regionMinY, double regionMaxX, double regionMaxY,
+            IntersectionConsumer consumer) {
+
+        final boolean sweepsAlongX = sweepsAlongX(bounds, indices, count);
+        final double[] sweepMin = sweepsAlongX ? bounds.minX : bounds.minY;
+        final double[] sweepMax = sweepsAlongX ? bounds.maxX : bounds.maxY;
+        final double[] otherMin = sweepsAlongX ? bounds.minY : bounds.minX;
+        final double[] otherMax = sweepsAlongX ? bounds.maxY : bounds.maxX;
+
+        IndexSort.sort(indices, 0, count, sweepMin);
+
+        final double[] starts = new double[count];
+        final double[] ends = new double[count];
+        final double[] sweepEnds = new double[count];
+        for (int n = 0; n < count; n++) {
+            starts[n] = otherMin[indices[n]];
+            ends[n] = otherMax[indices[n]];
+            sweepEnds[n] = sweepMax[indices[n]];
+        }
+        final ActiveIntervals active =
+                new ActiveIntervals(starts, ends, sweepEnds, count);
+
+        final Point2D crossPoint = new Point2D.Double();
+        final int[] found = new int[count];
+
+        for (int n = 0; n < count; n++) {
+            final int current = indices[n];
+            final int foundCount = active.find(starts[n], ends[n],
+                    sweepMin[current], found);
+
+            for (int f = 0; f < foundCount; f++) {
+                final int other = indices[found[f]];
+                final int i = Math.min(current, other);
+                final int j = Math.max(current, other);
+
+                final double cornerX = Math.max(bounds.minX[i], bounds.minX[j]);
+                final double cornerY = Math.max(bounds.minY[i], bounds.minY[j]);
+                if (cornerX < regionMinX || regionMaxX <= cornerX ||
+                        cornerY < regionMinY || regionMaxY <= cornerY) {
+                    continue;
+                }
+
+                final int l1 = i * SegmentBatch.STRIDE;
+                final int l2 = j * SegmentBatch.STRIDE;
+                final int status = IntersectionPoint.computeIntersectionPoint(
+                        lines[l1], lines[l1 + 1], lines[l1 + 2], lines[l1 + 3],
+                        lines[l2], lines[l2 + 1], lines[l2 + 2], lines[l2 + 3],
+                        includesEndpoint, crossPoint, null, 0);
+
+                if (status == IntersectionPoint.INTERSECTED) {
+                    consumer.accept(i, j, crossPoint.getX(), crossPoint.getY());
+                }
+            }
+
+            active.add(n);
+        }
+    }
+
+    /**
+     * Whether lines overlap less along x than along y, i.e. fewer lines are
+     * active at a time when sweeping along x
+     */
+    static private boolean sweepsAlongX(LineBounds bounds, int[] indices,
+            int count) {
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double totalWidth = 0;
+        double totalHeight = 0;
+
+        for (int n = 0; n < count; n++) {
+            final int i = indices[n];
+            minX = Math.min(minX, bounds.minX[i]);
+            minY = Math.min(minY, bounds.minY[i]);
+            maxX = Math.max(maxX, bounds.maxX[i]);
+            maxY = Math.max(maxY, bounds.maxY[i]);
+            totalWidth += bounds.maxX[i] - bounds.minX[i];
+            totalHeight += bounds.maxY[i] - bounds.minY[i];
+        }
+
+        // totalWidth / (maxX - minX) <= totalHeight / (maxY - minY)
+        return totalWidth * (maxY - minY) <= totalHeight * (maxX - minX);
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link ByteBufferSink}
+ */
+public class ByteBufferSinkTest {
+
+    @Test
+    public void writeIntersectionPointsIntoDirectBuffer() {
+        final ByteBuffer buffer =
+                ByteBuffer.allocateDirect(64).order(ByteOrder.LITTLE_ENDIAN);
+        final ByteBufferSink sink = new ByteBufferSink(buffer);
+
+        final int count = IntersectionPoint.writeIntersectionPoints(
+                new Rectangle2D.Double(0, 4, 4, 4),
+                new Line2D.Double(-2, 2, 6, 2), false, 7, sink);
+
+        assertThat("The number of intersection points is NOT 2", count, is(2));
+        assertThat("Position is NOT after the record", buffer.position(),
+                is(ByteBufferSink.HEADER_BYTES +
+                        2 * ByteBufferSink.POINT_BYTES));
+        assertThat("Query index is NOT 7", buffer.getInt(0), is(7));
+        assertThat("Count is NOT 2", buffer.getInt(4), is(2));
+        assertThat("1st point is NOT (0, 2)", new Point2D.Double(
+                buffer.getDouble(8), buffer.getDouble(16)),
+                is(new Point2D.Double(0, 2)));
+        assertThat("2nd point is NOT (4, 2)", new Point2D.Double(
+                buffer.getDouble(24), buffer.getDouble(32)),
+                is(new Point2D.Double(4, 2)));
+        assertThat("Record count is NOT 1", sink.getRecordCount(), is(1));
+    }
+
+    @Test
+    public void writeIntersectionPointIsSameAsGetIntersectionPoint() {
+        final Random random = new Random(20181230);
+        final ByteBuffer buffer = ByteBuffer.allocate(
+                ByteBufferSink.HEADER_BYTES + ByteBufferSink.POINT_BYTES);
+
+        for (int n = 0; n < 10000; n++) {
+            final Line2D l1 = new Line2D.Double(random.nextInt(10),
+                    random.nextInt(10), random.nextInt(10), random.nextInt(10));
+            final Line2D l2 = new Line2D.Double(random.nextInt(10),
+                    random.nextInt(10), random.nextInt(10), random.nextInt(10));
+            final boolean includesEndpoint = random.nextBoolean();
+
+            buffer.clear();
+            IntersectionPoint.writeIntersectionPoint(l1, l2, includesEndpoint,
+                    n, new ByteBufferSink(buffer));
+
+            final List<Point2D> expected = IntersectionPoint
+                    .getIntersectionPoint(l1, l2, includesEndpoint)
+                    .map(Collections::singletonList)
+                    .orElse(Collections.emptyList());
+            assertThat("Count is NOT same", buffer.getInt(4),
+                    is(expected.size()));
+            if (!expected.isEmpty()) {
+                assertThat("Intersection point is NOT same",
+                        new Point2D.Double(buffer.getDouble(8),
+                                buffer.getDouble(16)), is(expected.get(0)));
+            }
+        }
+    }
+
+    @Test
+    public void overflowKeepsOnlyCompleteRecords() {
+        final ByteBuffer buffer = ByteBuffer.allocate(
+                2 * ByteBufferSink.HEADER_BYTES + ByteBufferSink.POINT_BYTES);
+        final ByteBufferSink sink = new ByteBufferSink(buffer);
+        final Rectangle2D rectangle = new Rectangle2D.Double(0, 4, 4, 4);
+
+        IntersectionPoint.writeIntersectionPoints(rectangle,
+                new Line2D.Double(2, 2, 6, 2), true, 0, sink);
+
+        boolean overflowed = false;
+        try {
+            IntersectionPoint.writeIntersectionPoints(rectangle,
+                    new Line2D.Double(-2, 2, 6, 2), true, 1, sink);
+        } catch (BufferOverflowException e) {
+            overflowed = true;
+        }
+
+        assertThat("Buffer is NOT overflowed", overflowed, is(true));
+        assertThat("Position is NOT after the 1st record", buffer.position(),
+                is(ByteBufferSink.HEADER_BYTES + ByteBufferSink.POINT_BYTES));
+        assertThat("Record count is NOT 1", sink.getRecordCount(), is(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addPointWithoutRecord() {
+        new ByteBufferSink(ByteBuffer.allocate(64)).addPoint(0, 0);
+    }
+}
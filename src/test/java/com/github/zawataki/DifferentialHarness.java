@@ -0,0 +1,942 @@
+package com.github.zawataki;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Seeded randomized differential test of implementations of {@link
+ * IntersectionPoint#getIntersectionPoint(Line2D, Line2D, boolean)}, {@link
+ * IntersectionPoint#pointIsOnLine(Point2D, Line2D, boolean)} and {@link
+ * IntersectionPoint#getIntersectionPoints(Rectangle2D, Line2D, boolean)}.
+ * <p>
+ * A candidate is run against an oracle, {@link ReferenceIntersectionPoint} by
+ * default, over the same cases made by adversarial {@link Generator}s, and
+ * both of them are timed. The results have to be equal, including the class
+ * of a thrown exception. Each disagreeing case is shrunk to simpler
+ * coordinates as long as it still disagrees, and reported as a Java
+ * expression to reproduce it.
+ * <p>
+ * The same seed and count give the same cases. Run it for all
+ * implementations in this library with e.g. {@code ./gradlew differential
+ * -Pseed=1 -Pcount=1000000}.
+ */
+final class DifferentialHarness {
+
+    /**
+     * The maximum number of disagreeing cases shrunk for a report
+     */
+    static final int MAX_SHRUNK_CASES = 3;
+
+    /**
+     * The maximum number of cases to run before timing
+     */
+    static private final int WARM_UP_CASES = 10000;
+
+    /**
+     * Operations compared, with the layout of values of a case
+     */
+    enum Operation {
+        /**
+         * {@code getIntersectionPoint(l1, l2, includesEndpoint)}. Values are
+         * x1, y1, x2, y2 of {@code l1} and of {@code l2}.
+         */
+        INTERSECTION_POINT(8),
+        /**
+         * {@code pointIsOnLine(point, line, includesEndpoint)}. Values are x,
+         * y of {@code point} and x1, y1, x2, y2 of {@code line}.
+         */
+        POINT_ON_LINE(6),
+        /**
+         * {@code getIntersectionPoints(rect, line, includesEndpoint)}. Values
+         * are x, y, width, height of {@code rect} and x1, y1, x2, y2 of
+         * {@code line}.
+         */
+        RECTANGLE_INTERSECTION_POINTS(8);
+
+        private final int valueCount;
+
+        Operation(int valueCount) {
+            this.valueCount = valueCount;
+        }
+    }
+
+    /**
+     * Kinds of cases. Cases of each kind are made in turn.
+     */
+    enum Generator {
+        /**
+         * Coordinates on small grids, often sharing lines and points
+         */
+        GRID,
+        /**
+         * A line nearly parallel to an edge or the other line, apart by about
+         * the truncation tolerance or less
+         */
+        NEAR_PARALLEL,
+        /**
+         * A line on the same line as an edge or the other line, overlapping
+         * with it
+         */
+        COLLINEAR_OVERLAPPING,
+        /**
+         * A line starting at an endpoint of or a point on an edge or the
+         * other line, or a few truncation tolerances apart from it
+         */
+        ENDPOINT_TOUCHING,
+        /**
+         * Coordinates up to about 10<sup>21</sup>
+         */
+        HUGE,
+        /**
+         * Coordinates below the truncation tolerance
+         */
+        TINY,
+        /**
+         * Zero-length lines, zero-size rectangles and lines on an edge or the
+         * other line
+         */
+        DEGENERATE
+    }
+
+    /**
+     * Arguments of an operation
+     */
+    static final class Case {
+
+        private final Operation operation;
+        private final Generator generator;
+        private final double[] values;
+        private final boolean includesEndpoint;
+
+        Case(Operation operation, Generator generator, double[] values,
+                boolean includesEndpoint) {
+
+            if (values.length != operation.valueCount) {
+                throw new IllegalArgumentException(
+                        operation + " needs " + operation.valueCount +
+                                " values but got " + values.length);
+            }
+            this.operation = operation;
+            this.generator = generator;
+            this.values = values.clone();
+            this.includesEndpoint = includesEndpoint;
+        }
+
+        Operation getOperation() {
+            return operation;
+        }
+
+        Generator getGenerator() {
+            return generator;
+        }
+
+        int getValueCount() {
+            return values.length;
+        }
+
+        double getValue(int index) {
+            return values[index];
+        }
+
+        boolean includesEndpoint() {
+            return includesEndpoint;
+        }
+
+        /**
+         * @return 1st line of {@link Operation#INTERSECTION_POINT}
+         */
+        Line2D getLine1() {
+            return line(0);
+        }
+
+        /**
+         * @return 2nd line of {@link Operation#INTERSECTION_POINT}
+         */
+        Line2D getLine2() {
+            return line(4);
+        }
+
+        /**
+         * @return the point of {@link Operation#POINT_ON_LINE}
+         */
+        Point2D getPoint() {
+            return new Point2D.Double(values[0], values[1]);
+        }
+
+        /**
+         * @return the line of {@link Operation#POINT_ON_LINE} or {@link
+         * Operation#RECTANGLE_INTERSECTION_POINTS}
+         */
+        Line2D getLine() {
+            return line(values.length - 4);
+        }
+
+        /**
+         * @return the rectangle of {@link
+         * Operation#RECTANGLE_INTERSECTION_POINTS}
+         */
+        Rectangle2D getRectangle() {
+            return new Rectangle2D.Double(values[0], values[1], values[2],
+                    values[3]);
+        }
+
+        private Line2D line(int from) {
+            return new Line2D.Double(values[from], values[from + 1],
+                    values[from + 2], values[from + 3]);
+        }
+
+        /**
+         * @return a copy of this whose value at {@code index} is replaced
+         */
+        Case with(int index, double value) {
+            final double[] replaced = values.clone();
+            replaced[index] = value;
+            return new Case(operation, generator, replaced, includesEndpoint);
+        }
+
+        /**
+         * @return a Java expression of the operation of this case
+         */
+        @Override
+        public String toString() {
+            switch (operation) {
+            case INTERSECTION_POINT:
+                return "getIntersectionPoint(" + newLine(0) + ", " +
+                        newLine(4) + ", " + includesEndpoint + ")";
+            case POINT_ON_LINE:
+                return "pointIsOnLine(new Point2D.Double(" + values[0] +
+                        ", " + values[1] + "), " + newLine(2) + ", " +
+                        includesEndpoint + ")";
+            default:
+                return "getIntersectionPoints(new Rectangle2D.Double(" +
+                        values[0] + ", " + values[1] + ", " + values[2] +
+                        ", " + values[3] + "), " + newLine(4) + ", " +
+                        includesEndpoint + ")";
+            }
+        }
+
+        private String newLine(int from) {
+            return "new Line2D.Double(" + values[from] + ", " +
+                    values[from + 1] + ", " + values[from + 2] + ", " +
+                    values[from + 3] + ")";
+        }
+    }
+
+    /**
+     * An implementation of an operation
+     */
+    @FunctionalInterface
+    interface Candidate {
+
+        /**
+         * @return the result of the operation of a given case, compared by
+         * {@link Object#equals(Object)}
+         */
+        Object evaluate(Case c) throws Exception;
+    }
+
+    /**
+     * A case which a candidate and the oracle disagree with
+     */
+    static final class Disagreement {
+
+        private final Case original;
+        private final Case shrunk;
+        private final Object expected;
+        private final Object actual;
+
+        private Disagreement(Case original, Case shrunk, Object expected,
+                Object actual) {
+
+            this.original = original;
+            this.shrunk = shrunk;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        /**
+         * @return the generated case
+         */
+        Case getOriginal() {
+            return original;
+        }
+
+        /**
+         * @return the simplest case found from the generated one
+         */
+        Case getShrunk() {
+            return shrunk;
+        }
+
+        /**
+         * @return the result of the oracle for the shrunk case
+         */
+        Object getExpected() {
+            return expected;
+        }
+
+        /**
+         * @return the result of the candidate for the shrunk case
+         */
+        Object getActual() {
+            return actual;
+        }
+
+        @Override
+        public String toString() {
+            return shrunk.getGenerator() + ": " + shrunk + " expected " +
+                    expected + " but was " + actual;
+        }
+    }
+
+    /**
+     * Throughput and disagreements of a candidate against the oracle
+     */
+    static final class Report {
+
+        /**
+         * Column names of {@link #toString()}
+         */
+        static final String HEADER = String.format("%-48s %9s %13s %13s %13s",
+                "candidate", "cases", "ops/s", "oracle ops/s",
+                "disagreements");
+
+        private final String name;
+        private final int caseCount;
+        private final long candidateNanos;
+        private final long oracleNanos;
+        private final int[] disagreementCounts;
+        private final List<Disagreement> disagreements;
+
+        private Report(String name, int caseCount, long candidateNanos,
+                long oracleNanos, int[] disagreementCounts,
+                List<Disagreement> disagreements) {
+
+            this.name = name;
+            this.caseCount = caseCount;
+            this.candidateNanos = candidateNanos;
+            this.oracleNanos = oracleNanos;
+            this.disagreementCounts = disagreementCounts;
+            this.disagreements = disagreements;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getCaseCount() {
+            return caseCount;
+        }
+
+        /**
+         * @return cases per second of the candidate
+         */
+        double getThroughput() {
+            return throughput(candidateNanos);
+        }
+
+        /**
+         * @return cases per second of the oracle
+         */
+        double getOracleThroughput() {
+            return throughput(oracleNanos);
+        }
+
+        private double throughput(long nanos) {
+            return caseCount * 1e9 / Math.max(nanos, 1);
+        }
+
+        /**
+         * @return the number of all disagreeing cases
+         */
+        int getDisagreementCount() {
+            return Arrays.stream(disagreementCounts).sum();
+        }
+
+        /**
+         * @return the number of disagreeing cases made by a given generator
+         */
+        int getDisagreementCount(Generator generator) {
+            return disagreementCounts[generator.ordinal()];
+        }
+
+        /**
+         * @return up to {@link #MAX_SHRUNK_CASES} disagreements, shrunk
+         */
+        List<Disagreement> getDisagreements() {
+            return disagreements;
+        }
+
+        /**
+         * @return a row of the columns of {@link #HEADER}, followed by a line
+         * for each generator with disagreements and for each shrunk case
+         */
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(String.format(
+                    "%-48s %9d %13.0f %13.0f %13d", name, caseCount,
+                    getThroughput(), getOracleThroughput(),
+                    getDisagreementCount()));
+            for (Generator generator : Generator.values()) {
+                if (getDisagreementCount(generator) > 0) {
+                    builder.append(String.format("%n    %-22s %d", generator,
+                            getDisagreementCount(generator)));
+                }
+            }
+            for (Disagreement disagreement : disagreements) {
+                builder.append(String.format("%n    %s", disagreement));
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Result of a candidate which threw an exception. Equal to the one of
+     * the same class of exception.
+     */
+    static private final class Thrown {
+
+        private final Class<?> type;
+
+        private Thrown(Exception e) {
+            type = e.getClass();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Thrown && type == ((Thrown) o).type;
+        }
+
+        @Override
+        public int hashCode() {
+            return type.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "thrown " + type.getSimpleName();
+        }
+    }
+
+    private final long seed;
+    private final int caseCount;
+
+    private Operation generatedOperation;
+    private Case[] generatedCases;
+
+    /**
+     * @param seed the seed of the cases
+     * @param caseCount the number of cases of each run
+     *
+     * @throws IllegalArgumentException if {@code caseCount} is not positive
+     */
+    DifferentialHarness(long seed, int caseCount) {
+        if (caseCount <= 0) {
+            throw new IllegalArgumentException(
+                    "Case count must be positive: " + caseCount);
+        }
+        this.seed = seed;
+        this.caseCount = caseCount;
+    }
+
+    /**
+     * Get the oracle of a given operation, {@link ReferenceIntersectionPoint}
+     */
+    static Candidate reference(Operation operation) {
+        switch (operation) {
+        case INTERSECTION_POINT:
+            return c -> ReferenceIntersectionPoint.getIntersectionPoint(
+                    c.getLine1(), c.getLine2(), c.includesEndpoint());
+        case POINT_ON_LINE:
+            return c -> ReferenceIntersectionPoint.pointIsOnLine(
+                    c.getPoint(), c.getLine(), c.includesEndpoint());
+        default:
+            return c -> ReferenceIntersectionPoint.getIntersectionPoints(
+                    c.getRectangle(), c.getLine(), c.includesEndpoint());
+        }
+    }
+
+    /**
+     * Same as {@link #run(String, Operation, Candidate, Candidate)} against
+     * {@link #reference(Operation)}
+     */
+    Report run(String name, Operation operation, Candidate candidate) {
+        return run(name, operation, candidate, reference(operation));
+    }
+
+    /**
+     * Run a candidate and an oracle over the cases of an operation
+     *
+     * @param name the name of the candidate for the report
+     * @param operation the operation of the cases
+     * @param candidate the implementation to be tested
+     * @param oracle the implementation giving the expected results
+     *
+     * @return the report of the run
+     */
+    Report run(String name, Operation operation, Candidate candidate,
+            Candidate oracle) {
+
+        final Case[] cases = getCases(operation);
+        final int warmUpCount = Math.min(cases.length, WARM_UP_CASES);
+        evaluateAll(oracle, cases, warmUpCount);
+        evaluateAll(candidate, cases, warmUpCount);
+
+        long start = System.nanoTime();
+        final Object[] expected = evaluateAll(oracle, cases, cases.length);
+        final long oracleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        final Object[] actual = evaluateAll(candidate, cases, cases.length);
+        final long candidateNanos = System.nanoTime() - start;
+
+        final int[] disagreementCounts = new int[Generator.values().length];
+        final List<Disagreement> disagreements = new ArrayList<>();
+        for (int i = 0; i < cases.length; i++) {
+            if (Objects.equals(expected[i], actual[i])) {
+                continue;
+            }
+            disagreementCounts[cases[i].getGenerator().ordinal()]++;
+            if (disagreements.size() < MAX_SHRUNK_CASES) {
+                final Case shrunk = shrink(cases[i], candidate, oracle);
+                disagreements.add(new Disagreement(cases[i], shrunk,
+                        evaluate(oracle, shrunk),
+                        evaluate(candidate, shrunk)));
+            }
+        }
+
+        return new Report(name, cases.length, candidateNanos, oracleNanos,
+                disagreementCounts, Collections.unmodifiableList(
+                disagreements));
+    }
+
+    /**
+     * Get the cases of an operation, same for the same seed and count
+     */
+    Case[] getCases(Operation operation) {
+        if (operation != generatedOperation) {
+            final Random random = new Random(seed);
+            final Generator[] generators = Generator.values();
+            generatedCases = new Case[caseCount];
+            for (int i = 0; i < caseCount; i++) {
+                generatedCases[i] = generate(operation,
+                        generators[i % generators.length], random);
+            }
+            generatedOperation = operation;
+        }
+        return generatedCases;
+    }
+
+    /**
+     * Whether a candidate and an oracle disagree with a given case
+     */
+    static boolean disagrees(Case c, Candidate candidate, Candidate oracle) {
+        return !Objects.equals(evaluate(oracle, c), evaluate(candidate, c));
+    }
+
+    static private Object[] evaluateAll(Candidate candidate, Case[] cases,
+            int count) {
+
+        final Object[] results = new Object[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = evaluate(candidate, cases[i]);
+        }
+        return results;
+    }
+
+    static private Object evaluate(Candidate candidate, Case c) {
+        try {
+            return candidate.evaluate(c);
+        } catch (Exception e) {
+            return new Thrown(e);
+        }
+    }
+
+    /**
+     * Replace each value with a simpler one while the case still disagrees,
+     * until no value can be replaced. Every replacement makes a value
+     * strictly simpler, so it ends.
+     */
+    static Case shrink(Case c, Candidate candidate, Candidate oracle) {
+        Case shrunk = c;
+        boolean replaced;
+        do {
+            replaced = false;
+            for (int index = 0; index < shrunk.getValueCount(); index++) {
+                for (double value : simplerValues(shrunk, index)) {
+                    final Case next = shrunk.with(index, value);
+                    if (disagrees(next, candidate, oracle)) {
+                        shrunk = next;
+                        replaced = true;
+                        break;
+                    }
+                }
+            }
+        } while (replaced);
+
+        return shrunk;
+    }
+
+    /**
+     * Values simpler than the value at {@code index}, the simplest first:
+     * zero, the value rounded to fewer decimal places and the other values
+     * of the case
+     */
+    static private List<Double> simplerValues(Case c, int index) {
+        final double value = c.getValue(index);
+        final List<Double> values = new ArrayList<>();
+        values.add(0.0);
+        values.add(Math.rint(value));
+        if (Double.isFinite(value)) {
+            for (int scale = 1; scale <= 5; scale++) {
+                values.add(BigDecimal.valueOf(value)
+                        .setScale(scale, RoundingMode.HALF_EVEN)
+                        .doubleValue());
+            }
+        }
+        for (int other = 0; other < c.getValueCount(); other++) {
+            values.add(c.getValue(other));
+        }
+
+        final int complexity = complexity(value);
+        values.removeIf(v -> complexity(v) >= complexity);
+        values.sort((v1, v2) -> Integer.compare(complexity(v1),
+                complexity(v2)));
+        return new ArrayList<>(new LinkedHashSet<>(values));
+    }
+
+    /**
+     * The number of digits to write a value, 0 for zero
+     */
+    static int complexity(double value) {
+        if (value == 0) {
+            return 0;
+        }
+        if (!Double.isFinite(value)) {
+            return Integer.MAX_VALUE;
+        }
+        final BigDecimal decimal = BigDecimal.valueOf(value)
+                .stripTrailingZeros();
+        return decimal.precision() + Math.max(decimal.scale(), 0);
+    }
+
+    static private Case generate(Operation operation, Generator generator,
+            Random random) {
+
+        final double[] rectangle = new double[4];
+        final double[] edge = new double[4];
+        if (operation == Operation.RECTANGLE_INTERSECTION_POINTS) {
+            final double x = coordinate(generator, random);
+            final double y = coordinate(generator, random);
+            double width = Math.abs(coordinate(generator, random));
+            double height = Math.abs(coordinate(generator, random));
+            if (generator == Generator.DEGENERATE) {
+                final int zero = random.nextInt(3);
+                width = zero == 1 ? width : 0;
+                height = zero == 0 ? height : 0;
+            }
+            rectangle[0] = x;
+            rectangle[1] = y;
+            rectangle[2] = width;
+            rectangle[3] = height;
+
+            // The line is related to an edge of the rectangle
+            final double right = x + width;
+            final double lower = y - height;
+            switch (random.nextInt(4)) {
+            case 0:
+                setLine(edge, x, y, right, y);
+                break;
+            case 1:
+                setLine(edge, x, lower, right, lower);
+                break;
+            case 2:
+                setLine(edge, x, y, x, lower);
+                break;
+            default:
+                setLine(edge, right, y, right, lower);
+                break;
+            }
+        } else {
+            setLine(edge, coordinate(generator, random),
+                    coordinate(generator, random),
+                    coordinate(generator, random),
+                    coordinate(generator, random));
+            if (generator == Generator.DEGENERATE && random.nextInt(3) == 0) {
+                edge[2] = edge[0];
+                edge[3] = edge[1];
+            }
+        }
+        final double[] line = relatedLine(generator, edge, random);
+
+        final double[] values = new double[operation.valueCount];
+        switch (operation) {
+        case INTERSECTION_POINT:
+            System.arraycopy(edge, 0, values, 0, 4);
+            System.arraycopy(line, 0, values, 4, 4);
+            break;
+        case POINT_ON_LINE:
+            // The start of the related line is on or near the line
+            System.arraycopy(line, 0, values, 0, 2);
+            System.arraycopy(edge, 0, values, 2, 4);
+            break;
+        default:
+            System.arraycopy(rectangle, 0, values, 0, 4);
+            System.arraycopy(line, 0, values, 4, 4);
+            break;
+        }
+
+        return new Case(operation, generator, values, random.nextBoolean());
+    }
+
+    static private double[] relatedLine(Generator generator, double[] edge,
+            Random random) {
+
+        final double[] line = new double[4];
+        switch (generator) {
+        case NEAR_PARALLEL: {
+            final double dx = tiny(random);
+            final double dy = tiny(random);
+            setLine(line, edge[0] + dx, edge[1] + dy,
+                    edge[2] + dx + (random.nextBoolean() ? tiny(random) : 0),
+                    edge[3] + dy + (random.nextBoolean() ? tiny(random) : 0));
+            break;
+        }
+        case COLLINEAR_OVERLAPPING: {
+            final double t1 = quarter(random);
+            final double t2 = quarter(random);
+            setLine(line, along(edge, 0, t1), along(edge, 1, t1),
+                    along(edge, 0, t2), along(edge, 1, t2));
+            break;
+        }
+        case ENDPOINT_TOUCHING: {
+            final double t = random.nextBoolean() ? random.nextInt(2) :
+                    quarter(random);
+            double x = along(edge, 0, t);
+            double y = along(edge, 1, t);
+            if (random.nextInt(3) == 0) {
+                x += (random.nextInt(5) - 2) * 0.00001;
+                y += (random.nextInt(5) - 2) * 0.00001;
+            }
+            setLine(line, x, y, coordinate(Generator.GRID, random),
+                    coordinate(Generator.GRID, random));
+            break;
+        }
+        case DEGENERATE: {
+            final double t = quarter(random);
+            final double x = along(edge, 0, t);
+            final double y = along(edge, 1, t);
+            switch (random.nextInt(4)) {
+            case 0:
+                setLine(line, x, y, x, y);
+                break;
+            case 1:
+                setLine(line, edge[0], edge[1], edge[2], edge[3]);
+                break;
+            case 2:
+                setLine(line, edge[2], edge[3], edge[0], edge[1]);
+                break;
+            default:
+                setLine(line, edge[0], edge[1], x, y);
+                break;
+            }
+            break;
+        }
+        default:
+            setLine(line, coordinate(generator, random),
+                    coordinate(generator, random),
+                    coordinate(generator, random),
+                    coordinate(generator, random));
+            if (random.nextInt(4) == 0) {
+                final double t = quarter(random);
+                line[0] = along(edge, 0, t);
+                line[1] = along(edge, 1, t);
+            }
+            break;
+        }
+        return line;
+    }
+
+    static private double coordinate(Generator generator, Random random) {
+        final int n = random.nextInt(2001) - 1000;
+        switch (generator) {
+        case HUGE:
+            return n * Math.pow(10, 5 + random.nextInt(14)) +
+                    (random.nextBoolean() ? random.nextDouble() : 0);
+        case TINY:
+            return n / Math.pow(10, 4 + random.nextInt(7));
+        default:
+            switch (random.nextInt(4)) {
+            case 0:
+                return n / 100;
+            case 1:
+                return (n / 40) / 4.0;
+            case 2:
+                return (random.nextInt(2000001) - 1000000) / 100000.0;
+            default:
+                return random.nextDouble() * 20 - 10;
+            }
+        }
+    }
+
+    /**
+     * A small offset from 0.0001 to 10<sup>-12</sup>, or zero
+     */
+    static private double tiny(Random random) {
+        return (random.nextInt(21) - 10) / Math.pow(10, 5 + random.nextInt(9));
+    }
+
+    /**
+     * A parameter of a line from -1 to 2 by 0.25
+     */
+    static private double quarter(Random random) {
+        return (random.nextInt(13) - 4) / 4.0;
+    }
+
+    /**
+     * x ({@code axis} 0) or y ({@code axis} 1) of the point at a parameter
+     * {@code t} of a line
+     */
+    static private double along(double[] line, int axis, double t) {
+        return line[axis] + t * (line[axis + 2] - line[axis]);
+    }
+
+    static private void setLine(double[] line, double x1, double y1,
+            double x2, double y2) {
+
+        line[0] = x1;
+        line[1] = y1;
+        line[2] = x2;
+        line[3] = y2;
+    }
+
+    /**
+     * Run all implementations in this library
+     */
+    List<Report> runAll() {
+        final List<Report> reports = new ArrayList<>();
+
+        final IntersectionCache cache = new IntersectionCache(1024);
+        final PrecisionPolicy truncation = PrecisionPolicy.truncation();
+
+        final Operation lines = Operation.INTERSECTION_POINT;
+        reports.add(run("IntersectionPoint.getIntersectionPoint", lines,
+                c -> IntersectionPoint.getIntersectionPoint(c.getLine1(),
+                        c.getLine2(), c.includesEndpoint())));
+        reports.add(run("IntersectionPoint.computeIntersectionPoint", lines,
+                c -> {
+                    final double[] point = new double[2];
+                    final int status = IntersectionPoint
+                            .computeIntersectionPoint(c.getValue(0),
+                                    c.getValue(1), c.getValue(2),
+                                    c.getValue(3), c.getValue(4),
+                                    c.getValue(5), c.getValue(6),
+                                    c.getValue(7), c.includesEndpoint(),
+                                    point, 0);
+                    return status != IntersectionPoint.INTERSECTED ?
+                            Optional.empty() : Optional.of(
+                            new Point2D.Double(point[0], point[1]));
+                }));
+        reports.add(run("IntersectionPoint.intersects", lines,
+                c -> IntersectionPoint.intersects(c.getLine1(), c.getLine2(),
+                        c.includesEndpoint()),
+                c -> ReferenceIntersectionPoint.getIntersectionPoint(
+                        c.getLine1(), c.getLine2(), c.includesEndpoint())
+                        .isPresent()));
+        reports.add(run("truncation().computeIntersectionPoint", lines,
+                c -> IntersectionPoint.getIntersectionPoint(c.getLine1(),
+                        c.getLine2(), c.includesEndpoint(), truncation)));
+        reports.add(run("IntersectionCache.getIntersectionPoint", lines,
+                c -> cache.getIntersectionPoint(c.getLine1(), c.getLine2(),
+                        c.includesEndpoint())));
+        reports.add(run("SegmentBatch.getIntersectionPoints", lines, c -> {
+            final double[] lines1 = {c.getValue(0), c.getValue(1),
+                    c.getValue(2), c.getValue(3)};
+            final double[] lines2 = {c.getValue(4), c.getValue(5),
+                    c.getValue(6), c.getValue(7)};
+            final boolean[] intersected = new boolean[1];
+            final double[] point = new double[2];
+            SegmentBatch.getIntersectionPoints(lines1, lines2, 1,
+                    c.includesEndpoint(), intersected, point);
+            return intersected[0] ?
+                    Optional.of(new Point2D.Double(point[0], point[1])) :
+                    Optional.empty();
+        }));
+
+        final Operation point = Operation.POINT_ON_LINE;
+        reports.add(run("IntersectionPoint.pointIsOnLine", point,
+                c -> IntersectionPoint.pointIsOnLine(c.getPoint(),
+                        c.getLine(), c.includesEndpoint())));
+        reports.add(run("truncation().pointIsOnLine", point,
+                c -> IntersectionPoint.pointIsOnLine(c.getPoint(),
+                        c.getLine(), c.includesEndpoint(), truncation)));
+
+        final Operation rectangle = Operation.RECTANGLE_INTERSECTION_POINTS;
+        reports.add(run("IntersectionPoint.getIntersectionPoints", rectangle,
+                c -> IntersectionPoint.getIntersectionPoints(c.getRectangle(),
+                        c.getLine(), c.includesEndpoint())));
+        reports.add(run("IntersectionPoint.getIntersectionPoints(array)",
+                rectangle, c -> {
+                    final double[] points = new double[
+                            IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+                    final int count = IntersectionPoint.getIntersectionPoints(
+                            c.getRectangle(), c.getLine(),
+                            c.includesEndpoint(), points);
+                    final List<Point2D> list = new ArrayList<>(count);
+                    for (int n = 0; n < count; n++) {
+                        list.add(new Point2D.Double(points[2 * n],
+                                points[2 * n + 1]));
+                    }
+                    return list;
+                }));
+        reports.add(run("IntersectionPoint.intersects(Rectangle2D)", rectangle,
+                c -> IntersectionPoint.intersects(c.getRectangle(),
+                        c.getLine(), c.includesEndpoint()),
+                c -> !ReferenceIntersectionPoint.getIntersectionPoints(
+                        c.getRectangle(), c.getLine(), c.includesEndpoint())
+                        .isEmpty()));
+        reports.add(run("truncation().getIntersectionPoints", rectangle,
+                c -> IntersectionPoint.getIntersectionPoints(c.getRectangle(),
+                        c.getLine(), c.includesEndpoint(), truncation)));
+        reports.add(run("IntersectionCache.getIntersectionPoints", rectangle,
+                c -> cache.getIntersectionPoints(c.getRectangle(),
+                        c.getLine(), c.includesEndpoint())));
+
+        return reports;
+    }
+
+    /**
+     * Run all implementations in this library and print the reports. Exits
+     * with 1 if any of them disagrees.
+     *
+     * @param args the seed and the number of cases, 1 and 100000 by default
+     */
+    static public void main(String[] args) {
+        final long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        final int caseCount = args.length > 1 ? Integer.parseInt(args[1]) :
+                100000;
+
+        System.out.println("seed " + seed + ", " + caseCount + " cases");
+        System.out.println(Report.HEADER);
+        boolean disagreed = false;
+        for (Report report : new DifferentialHarness(seed, caseCount)
+                .runAll()) {
+            System.out.println(report);
+            disagreed |= report.getDisagreementCount() > 0;
+        }
+        if (disagreed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.zawataki;
+
+import com.github.zawataki.DifferentialHarness.Candidate;
+import com.github.zawataki.DifferentialHarness.Case;
+import com.github.zawataki.DifferentialHarness.Disagreement;
+import com.github.zawataki.DifferentialHarness.Generator;
+import com.github.zawataki.DifferentialHarness.Operation;
+import com.github.zawataki.DifferentialHarness.Report;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link DifferentialHarness}, and of all implementations in this
+ * library against {@link ReferenceIntersectionPoint}
+ */
+public class DifferentialHarnessTest {
+
+    @Test
+    public void allImplementationsAgreeWithReference() {
+        for (Report report : new DifferentialHarness(20190101, 7000)
+                .runAll()) {
+            assertThat("Disagreed:\n" + Report.HEADER + "\n" + report,
+                    report.getDisagreementCount(), is(0));
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameCases() {
+        for (Operation operation : Operation.values()) {
+            final Case[] cases =
+                    new DifferentialHarness(1, 700).getCases(operation);
+            final Case[] sameCases =
+                    new DifferentialHarness(1, 700).getCases(operation);
+
+            assertThat("Cases of " + operation + " are NOT same",
+                    Arrays.toString(sameCases), is(Arrays.toString(cases)));
+            for (Generator generator : Generator.values()) {
+                assertThat(generator + " makes NO case of " + operation,
+                        Arrays.stream(cases).filter(
+                                c -> c.getGenerator() == generator).count(),
+                        is(100L));
+            }
+        }
+    }
+
+    @Test
+    public void disagreementIsShrunk() {
+        // Ignores includesEndpoint
+        final Candidate candidate = c -> IntersectionPoint
+                .getIntersectionPoint(c.getLine1(), c.getLine2(), true);
+        final Candidate oracle =
+                DifferentialHarness.reference(Operation.INTERSECTION_POINT);
+
+        final Report report = new DifferentialHarness(1, 7000).run("wrong",
+                Operation.INTERSECTION_POINT, candidate);
+
+        assertThat("Disagreement NOT found",
+                report.getDisagreementCount() > 0, is(true));
+        assertThat("Disagreement NOT found in endpoint touching cases",
+                report.getDisagreementCount(Generator.ENDPOINT_TOUCHING) > 0,
+                is(true));
+        assertThat("Disagreements are NOT shrunk",
+                report.getDisagreements().size(),
+                is(DifferentialHarness.MAX_SHRUNK_CASES));
+        for (Disagreement disagreement : report.getDisagreements()) {
+            final Case original = disagreement.getOriginal();
+            final Case shrunk = disagreement.getShrunk();
+
+            assertThat("Shrunk case doesn't disagree: " + shrunk,
+                    DifferentialHarness.disagrees(shrunk, candidate, oracle),
+                    is(true));
+            assertThat("Shrunk case includes endpoint: " + shrunk,
+                    shrunk.includesEndpoint(), is(false));
+            for (int n = 0; n < shrunk.getValueCount(); n++) {
+                assertThat("Value " + n + " is NOT simpler: " + shrunk,
+                        DifferentialHarness.complexity(shrunk.getValue(n)) <=
+                                DifferentialHarness.complexity(
+                                        original.getValue(n)), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void shrinkToMinimalCase() {
+        // Wrong if the lines are crossed at negative x
+        final Candidate candidate = c -> IntersectionPoint
+                .getIntersectionPoint(c.getLine1(), c.getLine2(), false)
+                .filter(point -> point.getX() >= 0);
+        final Case c = new Case(Operation.INTERSECTION_POINT, Generator.GRID,
+                new double[]{-2.25, -3.75, 1.5, 7.5, -3.125, 1.5, 6.25, -3},
+                false);
+
+        final Candidate oracle =
+                DifferentialHarness.reference(Operation.INTERSECTION_POINT);
+        assertThat("Case doesn't disagree",
+                DifferentialHarness.disagrees(c, candidate, oracle), is(true));
+
+        final Case shrunk = DifferentialHarness.shrink(c, candidate, oracle);
+
+        // Crossed at (-1.71428, 1.14285)
+        assertThat("Case is NOT shrunk", shrunk.toString(),
+                is("getIntersectionPoint(" +
+                        "new Line2D.Double(-2.0, 0.0, 0.0, 8.0), " +
+                        "new Line2D.Double(-3.0, 2.0, 0.0, 0.0), false)"));
+    }
+}
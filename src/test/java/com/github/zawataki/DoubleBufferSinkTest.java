@@ -0,0 +1,75 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link DoubleBufferSink}
+ */
+public class DoubleBufferSinkTest {
+
+    @Test
+    public void writeIntersectionPointsOfPackedLines() {
+        final double[] lines1 = {0, 0, 1, 1, 0, 0, 1, 1};
+        final double[] lines2 = {1, 0, 0, 1, 0, 1, 1, 2};
+        final DoubleBuffer buffer = DoubleBuffer.allocate(16);
+        final DoubleBufferSink sink = new DoubleBufferSink(buffer);
+
+        final int count = SegmentBatch.writeIntersectionPoints(lines1, lines2,
+                2, false, sink);
+
+        assertThat("The number of intersected pairs is NOT 1", count, is(1));
+        assertThat("Record count is NOT 2", sink.getRecordCount(), is(2));
+        buffer.flip();
+        final double[] records = new double[buffer.remaining()];
+        buffer.get(records);
+        assertThat("Records are wrong", records,
+                is(new double[]{0, 1, 0.5, 0.5, 1, 0}));
+    }
+
+    @Test
+    public void writeIntersectionPointsIsSameAsGetIntersectionPoints() {
+        final Random random = new Random(20181231);
+        final int count = 1000;
+        final double[] lines1 = new double[count * SegmentBatch.STRIDE];
+        final double[] lines2 = new double[count * SegmentBatch.STRIDE];
+        for (int n = 0; n < lines1.length; n++) {
+            lines1[n] = random.nextInt(10);
+            lines2[n] = random.nextInt(10);
+        }
+
+        final boolean[] intersected = new boolean[count];
+        final double[] points = new double[count * 2];
+        final int expectedCount = SegmentBatch.getIntersectionPoints(lines1,
+                lines2, count, true, intersected, points);
+
+        // A view of a direct buffer
+        final DoubleBuffer buffer = ByteBuffer.allocateDirect(count * 4 * 8)
+                .asDoubleBuffer();
+        final int intersectedCount = SegmentBatch.writeIntersectionPoints(
+                lines1, lines2, count, true, new DoubleBufferSink(buffer));
+
+        assertThat("Intersected count is NOT same", intersectedCount,
+                is(expectedCount));
+        int p = 0;
+        for (int i = 0; i < count; i++) {
+            assertThat("Query index is NOT " + i, buffer.get(p++),
+                    is((double) i));
+            assertThat("Count of pair " + i + " is wrong", buffer.get(p++),
+                    is(intersected[i] ? 1.0 : 0.0));
+            if (intersected[i]) {
+                assertThat("Point of pair " + i + " is NOT same",
+                        new double[]{buffer.get(p++), buffer.get(p++)},
+                        is(new double[]{points[2 * i], points[2 * i + 1]}));
+            }
+        }
+        assertThat("Position is NOT after the last record", buffer.position(),
+                is(p));
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link FixedPointIntersectionPoint}
+ */
+public class FixedPointIntersectionPointTest {
+
+    @Test
+    public void computeIntersectionPointFromIntersectedLines() {
+        final int[] result = new int[2];
+
+        final int status = FixedPointIntersectionPoint.computeIntersectionPoint(
+                0, 0, 4, 4, 4, 0, 0, 4, false, result, 0);
+
+        assertThat("Status is NOT INTERSECTED", status,
+                is(IntersectionPoint.INTERSECTED));
+        assertThat("Intersection point is NOT (2, 2)", result,
+                is(new int[]{2, 2}));
+    }
+
+    @Test
+    public void computeIntersectionPointRoundsTowardNegativeInfinity() {
+        final int[] result = new int[2];
+
+        FixedPointIntersectionPoint.computeIntersectionPoint(0, 0, 3, 1, 1, -5,
+                1, 5, false, result, 0);
+        assertThat("y of 1/3 is NOT rounded to 0", result,
+                is(new int[]{1, 0}));
+
+        FixedPointIntersectionPoint.computeIntersectionPoint(0, 0, -3, -1, -1,
+                -5, -1, 5, false, result, 0);
+        assertThat("y of -1/3 is NOT rounded to -1", result,
+                is(new int[]{-1, -1}));
+    }
+
+    @Test
+    public void computeIntersectionPointFromLinesIntersectedAtEndpoint() {
+        final int[] result = new int[2];
+
+        assertThat("Intersected at endpoint when excludes endpoint",
+                FixedPointIntersectionPoint.computeIntersectionPoint(0, 0, 2,
+                        2, 0, 2, 1, 1, false, result, 0),
+                is(IntersectionPoint.NOT_ON_LINE));
+        assertThat("NOT intersected at endpoint when includes endpoint",
+                FixedPointIntersectionPoint.computeIntersectionPoint(0, 0, 2,
+                        2, 0, 2, 1, 1, true, result, 0),
+                is(IntersectionPoint.INTERSECTED));
+        assertThat("Intersection point is NOT the endpoint", result,
+                is(new int[]{1, 1}));
+    }
+
+    @Test
+    public void computeIntersectionPointFromParallelLines() {
+        assertThat("Parallel lines are NOT PARALLEL",
+                FixedPointIntersectionPoint.computeIntersectionPoint(0, 0, 1,
+                        1, 0, 1, 1, 2, true, (int[]) null, 0),
+                is(IntersectionPoint.PARALLEL));
+        assertThat("Collinear lines are NOT PARALLEL",
+                FixedPointIntersectionPoint.computeIntersectionPoint(0, 0, 2,
+                        2, 1, 1, 3, 3, true, (int[]) null, 0),
+                is(IntersectionPoint.PARALLEL));
+    }
+
+    @Test
+    public void largeCoordinatesAreExact() {
+        final Random random = new Random(20181216);
+        final long[] result = new long[2];
+        final long[] translated = new long[2];
+        final long offset = 1L << 40;
+
+        for (int n = 0; n < 10000; n++) {
+            final long[] c = new long[8];
+            for (int k = 0; k < c.length; k++) {
+                c[k] = random.nextInt(2001) - 1000;
+            }
+            final boolean includesEndpoint = random.nextBoolean();
+
+            final int status = FixedPointIntersectionPoint
+                    .computeIntersectionPoint(c[0], c[1], c[2], c[3], c[4],
+                            c[5], c[6], c[7], includesEndpoint, result, 0);
+            // Translated by an integer, so rounded to the translated point
+            final int translatedStatus = FixedPointIntersectionPoint
+                    .computeIntersectionPoint(c[0] + offset, c[1] - offset,
+                            c[2] + offset, c[3] - offset, c[4] + offset,
+                            c[5] - offset, c[6] + offset, c[7] - offset,
+                            includesEndpoint, translated, 0);
+
+            assertThat("Status is NOT same for " + Arrays.toString(c),
+                    translatedStatus, is(status));
+            if (status == IntersectionPoint.INTERSECTED) {
+                assertThat("Point is NOT same for " + Arrays.toString(c),
+                        translated, is(new long[]{result[0] + offset,
+                                result[1] - offset}));
+            }
+        }
+    }
+
+    @Test
+    public void extremeIntCoordinatesAreExact() {
+        final int[] result = new int[2];
+
+        final int status = FixedPointIntersectionPoint.computeIntersectionPoint(
+                Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, false, result, 0);
+
+        assertThat("Status is NOT INTERSECTED", status,
+                is(IntersectionPoint.INTERSECTED));
+        assertThat("Intersection point is NOT (-1, -1)", result,
+                is(new int[]{-1, -1}));
+    }
+
+    @Test
+    public void getIntersectionPointsFromRectangle() {
+        final int[] points =
+                new int[IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+
+        final int count = FixedPointIntersectionPoint.getIntersectionPoints(0,
+                4, 4, 4, -2, 2, 6, 2, false, points);
+        assertThat("The number of intersection points is NOT 2", count, is(2));
+        assertThat("Intersection points are NOT (0, 2) and (4, 2)",
+                Arrays.copyOf(points, 4), is(new int[]{0, 2, 4, 2}));
+
+        assertThat("Single point at endpoint is NOT excluded",
+                FixedPointIntersectionPoint.getIntersectionPoints(0, 4, 4, 4,
+                        4, 2, 6, 2, false, points), is(0));
+        assertThat("Single point at endpoint is excluded when includes",
+                FixedPointIntersectionPoint.getIntersectionPoints(0, 4, 4, 4,
+                        4, 2, 6, 2, true, points), is(1));
+        assertThat("Single point NOT at endpoint is excluded",
+                FixedPointIntersectionPoint.getIntersectionPoints(0, 4, 4, 4,
+                        2, 2, 2, 6, false, points), is(1));
+    }
+
+    @Test
+    public void getIntersectionPointsOfPackedLines() {
+        final int[] lines1 = {0, 0, 4, 4, 0, 0, 1, 1};
+        final int[] lines2 = {4, 0, 0, 4, 3, 0, 2, 1};
+        final boolean[] intersected = new boolean[2];
+        final int[] points = new int[4];
+
+        final int count = FixedPointIntersectionPoint.getIntersectionPoints(
+                lines1, lines2, 2, true, intersected, points);
+
+        assertThat("Intersected count is NOT 1", count, is(1));
+        assertThat("Intersected pairs are wrong", intersected,
+                is(new boolean[]{true, false}));
+        assertThat("Intersection point is NOT (2, 2)",
+                Arrays.copyOf(points, 2), is(new int[]{2, 2}));
+    }
+}
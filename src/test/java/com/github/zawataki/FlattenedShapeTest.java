@@ -0,0 +1,102 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link FlattenedShape}
+ */
+public class FlattenedShapeTest {
+
+    @Test
+    public void getIntersectionPointsFromRectangle() {
+        final FlattenedShape shape =
+                FlattenedShape.of(new Rectangle2D.Double(0, 0, 4, 4), 0.1);
+
+        assertThat("Edge count is NOT 4", shape.getEdgeCount(), is(4));
+        final List<Point2D> expectedPoints = Arrays.asList(
+                new Point2D.Double(4, 2), new Point2D.Double(0, 2));
+        assertThat("Intersection points are NOT equal to " + expectedPoints,
+                shape.getIntersectionPoints(new Line2D.Double(-1, 2, 5, 2),
+                        false), is(expectedPoints));
+    }
+
+    @Test
+    public void getIntersectionPointsAtEndpoint() {
+        final FlattenedShape shape =
+                FlattenedShape.of(new Rectangle2D.Double(0, 0, 4, 4), 0.1);
+        final Line2D line = new Line2D.Double(4, 2, 6, 2);
+
+        assertThat("Intersection point is NOT (4, 2) when includes endpoint",
+                shape.getIntersectionPoints(line, true),
+                is(Arrays.asList(new Point2D.Double(4, 2))));
+        assertThat("Intersection point found when excludes endpoint",
+                shape.getIntersectionPoints(line, false).isEmpty(), is(true));
+    }
+
+    @Test
+    public void getIntersectionPointsFromEllipseIsCloseToAnalyticOne() {
+        // Cubic curves of the path are apart from the ellipse by about 0.03%
+        // of the semi-axes
+        final Ellipse2D ellipse = new Ellipse2D.Double(1, 2, 10, 6);
+        final FlattenedShape shape = FlattenedShape.of(ellipse, 0.0001);
+
+        for (int n = 0; n < 16; n++) {
+            final double angle = n * Math.PI / 16;
+            final Line2D line = new Line2D.Double(-8 * Math.cos(angle) + 6,
+                    -8 * Math.sin(angle) + 5.5, 8 * Math.cos(angle) + 6,
+                    8 * Math.sin(angle) + 5.5);
+
+            final List<Point2D> points =
+                    shape.getIntersectionPoints(line, false);
+            final List<Point2D> expectedPoints =
+                    IntersectionPoint.getIntersectionPoints(ellipse, line,
+                            false);
+
+            assertThat("The number of intersection points is NOT 2 for " +
+                    angle, expectedPoints.size(), is(2));
+            assertThat("The number of intersection points is NOT same for " +
+                    angle, points.size(), is(expectedPoints.size()));
+            for (Point2D point : points) {
+                assertThat("Intersection point is NOT close for " + angle,
+                        expectedPoints.stream().anyMatch(
+                                expected -> expected.distance(point) < 0.01),
+                        is(true));
+            }
+        }
+    }
+
+    @Test
+    public void subpathsAreFlattenedSeparately() {
+        final Path2D path = new Path2D.Double();
+        path.moveTo(0, 0);
+        path.lineTo(2, 0);
+        path.lineTo(2, 2);
+        path.closePath();
+        // Starts from (0, 0) after closing
+        path.lineTo(0, 4);
+        path.moveTo(10, 0);
+        path.lineTo(14, 0);
+
+        final FlattenedShape shape = FlattenedShape.of(path, 0.1);
+
+        assertThat("Edge count is NOT 5", shape.getEdgeCount(), is(5));
+        assertThat("Intersection points are wrong",
+                shape.getIntersectionPoints(new Line2D.Double(-1, 1, 13, 1),
+                        true), is(Arrays.asList(new Point2D.Double(2, 1),
+                        new Point2D.Double(1, 1), new Point2D.Double(0, 1))));
+        assertThat("Intersection point with open subpath is NOT (12, 0)",
+                shape.getIntersectionPoints(new Line2D.Double(12, -1, 12, 1),
+                        false), is(Arrays.asList(new Point2D.Double(12, 0))));
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link FloatIntersectionPoint}
+ */
+public class FloatIntersectionPointTest {
+
+    @Test
+    public void computeIntersectionPointFromIntersectedLines() {
+        final double[] result = new double[2];
+
+        final int status = FloatIntersectionPoint.computeIntersectionPoint(0f,
+                0f, 1f, 1f, 1f, 0f, 0f, 1f, false, result, 0);
+
+        assertThat("Status is NOT INTERSECTED", status,
+                is(IntersectionPoint.INTERSECTED));
+        assertThat("Intersection point is NOT (0.5, 0.5)", result,
+                is(new double[]{0.5, 0.5}));
+    }
+
+    @Test
+    public void getIntersectionPointsIsSameAsWidenedLines() {
+        final Random random = new Random(20181209);
+        final int count = 1000;
+        final float[] lines1 = new float[count * SegmentBatch.STRIDE];
+        final float[] lines2 = new float[count * SegmentBatch.STRIDE];
+        for (int n = 0; n < lines1.length; n++) {
+            lines1[n] = random.nextFloat() * 10;
+            lines2[n] = random.nextFloat() * 10;
+        }
+
+        final boolean[] intersected = new boolean[count];
+        final double[] points = new double[count * 2];
+        final int intersectedCount = FloatIntersectionPoint
+                .getIntersectionPoints(lines1, lines2, count, true,
+                        intersected, points);
+
+        final double[] expectedPoints = new double[count * 2];
+        int expectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            final int l = i * SegmentBatch.STRIDE;
+            final Line2D line1 = new Line2D.Double(lines1[l], lines1[l + 1],
+                    lines1[l + 2], lines1[l + 3]);
+            final Line2D line2 = new Line2D.Double(lines2[l], lines2[l + 1],
+                    lines2[l + 2], lines2[l + 3]);
+            final int index = i;
+            expectedPoints[2 * i] = Double.NaN;
+            expectedPoints[2 * i + 1] = Double.NaN;
+            if (IntersectionPoint.getIntersectionPoint(line1, line2, true)
+                    .map(point -> {
+                        expectedPoints[2 * index] = point.getX();
+                        expectedPoints[2 * index + 1] = point.getY();
+                        return point;
+                    }).isPresent()) {
+                expectedCount++;
+            }
+        }
+
+        assertThat("Intersected count is NOT same", intersectedCount,
+                is(expectedCount));
+        assertThat("Intersection points are NOT same",
+                Arrays.equals(points, expectedPoints), is(true));
+    }
+
+    @Test
+    public void getIntersectionPointsFromRectangle() {
+        final double[] points =
+                new double[IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+
+        final int count = FloatIntersectionPoint.getIntersectionPoints(0f, 1f,
+                1f, 1f, -1f, -1f, 2f, 2f, false, points);
+
+        assertThat("The number of intersection points is NOT 2", count, is(2));
+        assertThat("Intersection points are NOT (1, 1) and (0, 0)",
+                Arrays.copyOf(points, 4), is(new double[]{1, 1, 0, 0}));
+    }
+
+    @Test
+    public void packRoundsToFloat() {
+        final float[] packed = FloatIntersectionPoint.pack(Arrays.asList(
+                new Line2D.Double(0.1, 1, 2, 3),
+                new Line2D.Double(4, 5, 6, 7)));
+
+        assertThat("Packed coordinates are wrong", packed,
+                is(new float[]{0.1f, 1, 2, 3, 4, 5, 6, 7}));
+    }
+}
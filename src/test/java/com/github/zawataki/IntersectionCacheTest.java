@@ -0,0 +1,158 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link IntersectionCache}
+ */
+public class IntersectionCacheTest {
+
+    @Test
+    public void getIntersectionPointOfSwappedLinesHits() {
+        final IntersectionCache cache = new IntersectionCache(16);
+        final Line2D l1 = new Line2D.Double(0, 0, 2, 2);
+        final Line2D l2 = new Line2D.Double(2, 0, 0, 2);
+
+        final Optional<Point2D> point =
+                cache.getIntersectionPoint(l1, l2, true);
+        assertThat("Intersection point is NOT (1, 1)", point,
+                is(Optional.of(new Point2D.Double(1, 1))));
+        assertThat("Swapped lines do NOT get the same result",
+                cache.getIntersectionPoint(l2, l1, true), sameInstance(point));
+        assertThat("Hit count is NOT 1", cache.getHitCount(), is(1L));
+
+        // The direction of a line and endpoint inclusion are parts of key
+        cache.getIntersectionPoint(new Line2D.Double(2, 2, 0, 0), l2, true);
+        cache.getIntersectionPoint(l1, l2, false);
+        assertThat("Miss count is NOT 3", cache.getMissCount(), is(3L));
+        assertThat("Size is NOT 3", cache.size(), is(3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cachedPointIsImmutable() {
+        final IntersectionCache cache = new IntersectionCache(16);
+        cache.getIntersectionPoint(new Line2D.Double(0, 0, 2, 2),
+                new Line2D.Double(2, 0, 0, 2), true).get().setLocation(0, 0);
+    }
+
+    @Test
+    public void cachedPointIsSameAsIntersectionPoint() {
+        final IntersectionCache cache = new IntersectionCache(16);
+        final Line2D l1 = new Line2D.Double(0, 0, 3, 1);
+        final Line2D l2 = new Line2D.Double(1, 0, 1, 1);
+
+        final Point2D point = cache.getIntersectionPoint(l1, l2, true).get();
+        final Point2D expectedPoint =
+                IntersectionPoint.getIntersectionPoint(l1, l2, true).get();
+        assertThat("Cached point is NOT equal to " + expectedPoint, point,
+                is(expectedPoint));
+        assertThat("Cached point is NOT printed as " + expectedPoint,
+                point.toString(), is(expectedPoint.toString()));
+        assertThat("Hash code is NOT same as " + expectedPoint,
+                point.hashCode(), is(expectedPoint.hashCode()));
+    }
+
+    @Test
+    public void getIntersectionPointsHits() {
+        final IntersectionCache cache = new IntersectionCache(16);
+        final Rectangle2D rectangle = new Rectangle2D.Double(0, 1, 1, 1);
+        final Line2D line = new Line2D.Double(-1, -1, 2, 2);
+
+        final List<Point2D> points =
+                cache.getIntersectionPoints(rectangle, line, false);
+        assertThat("Intersection points are NOT (1, 1) and (0, 0)", points,
+                is(Arrays.asList(new Point2D.Double(1, 1),
+                        new Point2D.Double(0, 0))));
+        assertThat("Same query does NOT get the same result",
+                cache.getIntersectionPoints(
+                        new Rectangle2D.Double(0, 1, 1, 1),
+                        new Line2D.Double(-1, -1, 2, 2), false),
+                sameInstance(points));
+        assertThat("Hit count is NOT 1", cache.getHitCount(), is(1L));
+        assertThat("Miss count is NOT 1", cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void leastRecentlyUsedResultIsEvicted() {
+        final IntersectionCache cache = new IntersectionCache(2, 1);
+        final Line2D line = new Line2D.Double(0, 0, 2, 2);
+
+        cache.getIntersectionPoint(line, new Line2D.Double(2, 0, 0, 2), true);
+        cache.getIntersectionPoint(line, new Line2D.Double(1, 0, 1, 2), true);
+        // Used again, so the 2nd one is the least recently used
+        cache.getIntersectionPoint(line, new Line2D.Double(2, 0, 0, 2), true);
+        cache.getIntersectionPoint(line, new Line2D.Double(0, 1, 2, 1), true);
+
+        assertThat("Size is NOT bounded", cache.size(), is(2));
+        assertThat("Eviction count is NOT 1", cache.getEvictionCount(),
+                is(1L));
+
+        cache.getIntersectionPoint(line, new Line2D.Double(2, 0, 0, 2), true);
+        assertThat("Recently used result is evicted", cache.getHitCount(),
+                is(2L));
+    }
+
+    @Test
+    public void concurrentQueriesAreSameAsIntersectionPoint() throws Exception {
+        final IntersectionCache cache = new IntersectionCache(64, 4);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final long seed = t;
+                futures.add(executor.submit(() -> {
+                    final Random random = new Random(seed);
+                    for (int n = 0; n < 20000; n++) {
+                        final Line2D l1 = randomLine(random);
+                        final Line2D l2 = randomLine(random);
+                        final Rectangle2D rectangle = new Rectangle2D.Double(
+                                random.nextInt(5), random.nextInt(5),
+                                random.nextInt(3), random.nextInt(3));
+                        final boolean includesEndpoint = random.nextBoolean();
+
+                        assertThat("Cached point is wrong",
+                                cache.getIntersectionPoint(l1, l2,
+                                        includesEndpoint),
+                                is(IntersectionPoint.getIntersectionPoint(l1,
+                                        l2, includesEndpoint)));
+                        assertThat("Cached points are wrong",
+                                cache.getIntersectionPoints(rectangle, l1,
+                                        includesEndpoint),
+                                is(IntersectionPoint.getIntersectionPoints(
+                                        rectangle, l1, includesEndpoint)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat("Size is NOT bounded", cache.size() <= 64, is(true));
+        assertThat("Counters are NOT consistent",
+                cache.getHitCount() + cache.getMissCount(), is(160000L));
+    }
+
+    static private Line2D randomLine(Random random) {
+        return new Line2D.Double(random.nextInt(5), random.nextInt(5),
+                random.nextInt(5), random.nextInt(5));
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.zawataki;
+
+import com.github.zawataki.IntersectionMetrics.Operation;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link IntersectionMetrics}
+ */
+public class IntersectionMetricsTest {
+
+    @After
+    public void tearDown() {
+        IntersectionMetrics.disable();
+    }
+
+    @Test
+    public void statusesAreCounted() {
+        final IntersectionMetrics metrics = IntersectionMetrics.enable();
+        metrics.reset();
+
+        IntersectionPoint.getIntersectionPoint(new Line2D.Double(0, 0, 2, 2),
+                new Line2D.Double(2, 0, 0, 2), true);
+        IntersectionPoint.getIntersectionPoint(new Line2D.Double(0, 0, 1, 1),
+                new Line2D.Double(0, 1, 1, 2), true);
+        IntersectionPoint.getIntersectionPoint(new Line2D.Double(0, 0, 1, 1),
+                new Line2D.Double(3, 0, 2, 1), true);
+
+        assertThat("Intersected count is NOT 1",
+                metrics.getIntersectedCount(), is(1L));
+        assertThat("Parallel count is NOT 1", metrics.getParallelCount(),
+                is(1L));
+        assertThat("Not on line count is NOT 1", metrics.getNotOnLineCount(),
+                is(1L));
+        assertThat("Call count is NOT 3",
+                metrics.getCallCount(Operation.INTERSECTION_POINT), is(3L));
+        assertThat("Histogram does NOT count all calls",
+                Arrays.stream(metrics.getLatencyHistogram(
+                        Operation.INTERSECTION_POINT)).sum(), is(3L));
+    }
+
+    @Test
+    public void nestedCallsAreCountedOnce() {
+        final IntersectionMetrics metrics = IntersectionMetrics.enable();
+        metrics.reset();
+        final Rectangle2D rectangle = new Rectangle2D.Double(0, 1, 1, 1);
+
+        // The single point is the endpoint of the line
+        IntersectionPoint.getIntersectionPoints(rectangle,
+                new Line2D.Double(1, 0.5, 2, 0.5), false);
+        IntersectionPoint.intersects(rectangle,
+                new Line2D.Double(-1, 0.5, 2, 0.5), true);
+        IntersectionPoint.pointIsOnLine(new Point2D.Double(1, 1),
+                new Line2D.Double(0, 0, 2, 2), true,
+                PrecisionPolicy.truncation());
+
+        assertThat("Rectangle call count is NOT 1",
+                metrics.getCallCount(Operation.RECTANGLE_INTERSECTION_POINTS),
+                is(1L));
+        assertThat("Edges of rectangle are recorded as calls",
+                metrics.getCallCount(Operation.INTERSECTION_POINT), is(0L));
+        assertThat("Single point is NOT excluded",
+                metrics.getSinglePointExcludedCount(), is(1L));
+        assertThat("Rectangle intersects call count is NOT 1",
+                metrics.getCallCount(Operation.RECTANGLE_INTERSECTS), is(1L));
+        assertThat("Line intersects is called",
+                metrics.getCallCount(Operation.INTERSECTS), is(0L));
+        assertThat("Point on line call count is NOT 1",
+                metrics.getCallCount(Operation.POINT_ON_LINE), is(1L));
+    }
+
+    @Test
+    public void cachedQueriesAreCountedOnce() {
+        final IntersectionMetrics metrics = IntersectionMetrics.enable();
+        metrics.reset();
+        final IntersectionCache cache = new IntersectionCache(16);
+        final Line2D l1 = new Line2D.Double(0, 0, 2, 2);
+        final Line2D l2 = new Line2D.Double(2, 0, 0, 2);
+        final Rectangle2D rectangle = new Rectangle2D.Double(0, 1, 1, 1);
+        final Line2D line = new Line2D.Double(-1, 0.5, 2, 0.5);
+
+        // A miss and a hit for each
+        cache.getIntersectionPoint(l1, l2, true);
+        cache.getIntersectionPoint(l1, l2, true);
+        cache.getIntersectionPoints(rectangle, line, true);
+        cache.getIntersectionPoints(rectangle, line, true);
+
+        assertThat("Line pair call count is NOT 2",
+                metrics.getCallCount(Operation.INTERSECTION_POINT), is(2L));
+        assertThat("Rectangle call count is NOT 2",
+                metrics.getCallCount(Operation.RECTANGLE_INTERSECTION_POINTS),
+                is(2L));
+        assertThat("Intersected count is NOT 3 of the misses",
+                metrics.getIntersectedCount(), is(3L));
+    }
+
+    @Test
+    public void statusesOfBatchPairsAreCounted() {
+        final IntersectionMetrics metrics = IntersectionMetrics.enable();
+        metrics.reset();
+        final double[] lines1 = {0, 0, 2, 2, 0, 0, 1, 1, 0, 0, 1, 1};
+        final double[] lines2 = {2, 0, 0, 2, 0, 1, 1, 2, 3, 0, 2, 1};
+
+        SegmentBatch.getIntersectionPoints(lines1, lines2, 3, true,
+                new boolean[3], new double[6]);
+        SegmentBatch.getIntersectionPoints(new double[]{0, 0, 0, 0},
+                new double[]{0, 0, 0, 0}, new double[]{2, 1, 1, 1},
+                new double[]{2, 1, 1, 1}, new double[]{2, 0, 3, 0},
+                new double[]{0, 1, 0, 0}, new double[]{0, 1, 2, 1},
+                new double[]{2, 2, 1, 2}, 3, true, new boolean[3],
+                new double[3], new double[3]);
+
+        assertThat("Intersected count is NOT 2",
+                metrics.getIntersectedCount(), is(2L));
+        assertThat("Parallel count is NOT 2", metrics.getParallelCount(),
+                is(2L));
+        assertThat("Not on line count is NOT 2", metrics.getNotOnLineCount(),
+                is(2L));
+    }
+
+    @Test
+    public void disabledMetricsAreNotRecorded() {
+        final IntersectionMetrics metrics = IntersectionMetrics.enable();
+        metrics.reset();
+        IntersectionMetrics.disable();
+
+        IntersectionPoint.getIntersectionPoint(new Line2D.Double(0, 0, 2, 2),
+                new Line2D.Double(2, 0, 0, 2), true);
+
+        assertThat("Metrics are still enabled",
+                IntersectionMetrics.current().isPresent(), is(false));
+        assertThat("Call is recorded while disabled",
+                metrics.getCallCount(Operation.INTERSECTION_POINT), is(0L));
+        assertThat("Status is recorded while disabled",
+                metrics.getIntersectedCount(), is(0L));
+    }
+
+    @Test
+    public void metricsAreVisibleByJmx() throws Exception {
+        final IntersectionMetrics metrics = IntersectionMetrics.enable();
+        metrics.reset();
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        metrics.registerMBean(server);
+
+        IntersectionPoint.getIntersectionPoint(new Line2D.Double(0, 0, 1, 1),
+                new Line2D.Double(0, 1, 1, 2), true);
+
+        assertThat("Parallel count is NOT visible",
+                server.getAttribute(
+                        new ObjectName(IntersectionMetrics.OBJECT_NAME),
+                        "ParallelCount"), is(1L));
+    }
+}
@@ -2,6 +2,7 @@ package com.github.zawataki;
 
 import org.junit.Test;
 
+import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -9,6 +10,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -105,6 +107,69 @@ public class IntersectionPointTest {
                 is(expectedIntersectionPoint));
     }
 
+    @Test
+    public void computeIntersectionPointFromIntersectedLines() {
+        final Point2D result = new Point2D.Double();
+
+        final int status =
+                IntersectionPoint.computeIntersectionPoint(0, 0, 1, 1, 1, 0, 0,
+                        1, false, result);
+
+        assertThat("Status is NOT INTERSECTED", status,
+                is(IntersectionPoint.INTERSECTED));
+        assertThat("Returned intersection point is NOT equal to (0.5, 0.5)",
+                result, is(new Point2D.Double(0.5, 0.5)));
+    }
+
+    @Test
+    public void computeIntersectionPointFromParallelLines() {
+        final Point2D result = new Point2D.Double(-1, -1);
+
+        final int status =
+                IntersectionPoint.computeIntersectionPoint(0, 0, 1, 1, 0, 1, 1,
+                        2, true, result);
+
+        assertThat("Status is NOT PARALLEL", status,
+                is(IntersectionPoint.PARALLEL));
+        assertThat("Result is modified", result,
+                is(new Point2D.Double(-1, -1)));
+    }
+
+    @Test
+    public void computeIntersectionPointFromLinesIntersectedAtEndpoint() {
+        final int statusWhenExcludesEndpoint =
+                IntersectionPoint.computeIntersectionPoint(0, 0, 1, 1, 2, 0, 0,
+                        2, false, null);
+
+        assertThat("Status is NOT NOT_ON_LINE when excludes endpoint",
+                statusWhenExcludesEndpoint,
+                is(IntersectionPoint.NOT_ON_LINE));
+
+        final Point2D result = new Point2D.Double();
+        final int statusWhenIncludesEndpoint =
+                IntersectionPoint.computeIntersectionPoint(0, 0, 1, 1, 2, 0, 0,
+                        2, true, result);
+
+        assertThat("Status is NOT INTERSECTED when includes endpoint",
+                statusWhenIncludesEndpoint, is(IntersectionPoint.INTERSECTED));
+        assertThat("Returned intersection point is NOT equal to (1, 1)",
+                result, is(new Point2D.Double(1, 1)));
+    }
+
+    @Test
+    public void computeIntersectionPointTruncatesTo5DecimalPlaces() {
+        final Point2D result = new Point2D.Double();
+
+        final int status =
+                IntersectionPoint.computeIntersectionPoint(0, 0, 3, 1, 1, 0, 1,
+                        1, false, result);
+
+        assertThat("Status is NOT INTERSECTED", status,
+                is(IntersectionPoint.INTERSECTED));
+        assertThat("Returned intersection point is NOT truncated", result,
+                is(new Point2D.Double(1, 0.33333)));
+    }
+
     @Test
     public void pointIsOnLine() {
         final Line2D line = new Line2D.Double(0, 0, 1, 1);
@@ -299,4 +364,197 @@ public class IntersectionPointTest {
                 .sorted(point2DComparator)
                 .collect(Collectors.toList()), is(expectedPoints));
     }
+
+    @Test
+    public void getIntersectionPointsIntoArray() {
+        final Rectangle2D rectangle = new Rectangle2D.Double(0, 1, 1, 1);
+        final double[] points =
+                new double[IntersectionPoint.MAX_RECTANGLE_POINTS * 2];
+
+        final int count =
+                IntersectionPoint.getIntersectionPoints(rectangle,
+                        new Line2D.Double(-1, -1, 2, 2), false, points);
+
+        assertThat("The number of intersection points is NOT 2", count, is(2));
+        assertThat("Intersection points are NOT (1, 1) and (0, 0)",
+                Arrays.asList(new Point2D.Double(points[0], points[1]),
+                        new Point2D.Double(points[2], points[3])),
+                is(Arrays.asList(new Point2D.Double(1, 1),
+                        new Point2D.Double(0, 0))));
+
+        final int countAtVertex =
+                IntersectionPoint.getIntersectionPoints(0, 1, 1, 1, 0, 2, 2, 0,
+                        false, points);
+        assertThat("Intersection point found at vertex when excludes endpoint",
+                countAtVertex, is(0));
+
+        final int countOfFarLine =
+                IntersectionPoint.getIntersectionPoints(0, 1, 1, 1, 5, 5, 6, 7,
+                        true, points);
+        assertThat("Intersection point found from far line", countOfFarLine,
+                is(0));
+    }
+
+    @Test
+    public void getIntersectionPointsFromIntersectedCircleAndLine() {
+        final Ellipse2D circle = new Ellipse2D.Double(-5, -5, 10, 10);
+
+        final List<Point2D> points = IntersectionPoint.getIntersectionPoints(
+                circle, new Line2D.Double(-8, 3, 8, 3), false);
+        final List<Point2D> expectedPoints = Arrays.asList(
+                new Point2D.Double(-4, 3), new Point2D.Double(4, 3));
+        assertThat("Intersection points are NOT equal to " + expectedPoints,
+                points, is(expectedPoints));
+
+        final List<Point2D> reversedPoints =
+                IntersectionPoint.getIntersectionPoints(circle,
+                        new Line2D.Double(8, 3, -8, 3), false);
+        assertThat("Intersection points are NOT in the order from the start",
+                reversedPoints, is(Arrays.asList(expectedPoints.get(1),
+                        expectedPoints.get(0))));
+
+        final List<Point2D> tangentPoints =
+                IntersectionPoint.getIntersectionPoints(circle,
+                        new Line2D.Double(-8, 5, 8, 5), false);
+        assertThat("Tangent point is NOT (0, 5)", tangentPoints,
+                is(Arrays.asList(new Point2D.Double(0, 5))));
+    }
+
+    @Test
+    public void getIntersectionPointsFromEllipseAndLineIntersectedAtEndpoint() {
+        final Ellipse2D circle = new Ellipse2D.Double(-5, -5, 10, 10);
+        final Line2D line = new Line2D.Double(5, 0, 8, 0);
+
+        assertThat("Intersection point is NOT (5, 0) when includes endpoint",
+                IntersectionPoint.getIntersectionPoints(circle, line, true),
+                is(Arrays.asList(new Point2D.Double(5, 0))));
+        assertThat("Intersection point found when excludes endpoint",
+                IntersectionPoint.getIntersectionPoints(circle, line, false)
+                        .isEmpty(), is(true));
+
+        // Center (4, 0), so the line is through the lower and upper vertices
+        final Ellipse2D ellipse = new Ellipse2D.Double(0, -2, 8, 4);
+        final List<Point2D> expectedPoints = Arrays.asList(
+                new Point2D.Double(4, -2), new Point2D.Double(4, 2));
+        assertThat("Intersection points are NOT equal to " + expectedPoints +
+                        " when excludes endpoint",
+                IntersectionPoint.getIntersectionPoints(ellipse,
+                        new Line2D.Double(4, -6, 4, 2), false),
+                is(expectedPoints));
+    }
+
+    @Test
+    public void getIntersectionPointsFromEllipseInItsOwnBounds() {
+        // Bounds from (0, 0) to (2, 2) as Ellipse2D#contains
+        final Ellipse2D circle = new Ellipse2D.Double(0, 0, 2, 2);
+
+        assertThat("Center is NOT contained", circle.contains(1, 1),
+                is(true));
+        assertThat("Intersection points are NOT (0, 1) and (2, 1)",
+                IntersectionPoint.getIntersectionPoints(circle,
+                        new Line2D.Double(-1, 1, 3, 1), false),
+                is(Arrays.asList(new Point2D.Double(0, 1),
+                        new Point2D.Double(2, 1))));
+    }
+
+    @Test
+    public void getEllipseIntersectionPointsIntoArray() {
+        final double[] points =
+                new double[IntersectionPoint.MAX_ELLIPSE_POINTS * 2];
+
+        final int count = IntersectionPoint.getEllipseIntersectionPoints(-5, -5,
+                10, 10, 0, -8, 0, 8, true, points);
+        assertThat("The number of intersection points is NOT 2", count, is(2));
+        assertThat("Intersection points are NOT (0, -5) and (0, 5)", points,
+                is(new double[]{0, -5, 0, 5}));
+
+        assertThat("Intersection point found from far line",
+                IntersectionPoint.getEllipseIntersectionPoints(-5, -5, 10, 10,
+                        6, -8, 6, 8, true, points), is(0));
+        assertThat("Intersection point found from empty ellipse",
+                IntersectionPoint.getEllipseIntersectionPoints(0, 0, 0, 0, -1,
+                        0, 1, 0, true, points), is(0));
+    }
+
+    @Test
+    public void intersectsIsSameAsIntersectionPoints() {
+        final Random random = new Random(20181202);
+
+        for (int n = 0; n < 100000; n++) {
+            final int scale = random.nextInt(4);
+            final Line2D line1 = new Line2D.Double(randomCoordinate(random,
+                    scale), randomCoordinate(random, scale),
+                    randomCoordinate(random, scale),
+                    randomCoordinate(random, scale));
+            final Line2D line2;
+            if (random.nextBoolean()) {
+                // Starts on or near the 1st line
+                final double t = random.nextDouble();
+                final double offset = (random.nextInt(5) - 2) *
+                        Math.pow(10, -random.nextInt(8));
+                line2 = new Line2D.Double(
+                        line1.getX1() + t * (line1.getX2() - line1.getX1()),
+                        line1.getY1() + t * (line1.getY2() - line1.getY1()) +
+                                offset, randomCoordinate(random, scale),
+                        randomCoordinate(random, scale));
+            } else {
+                line2 = new Line2D.Double(line1.getP2(),
+                        new Point2D.Double(randomCoordinate(random, scale),
+                                randomCoordinate(random, scale)));
+            }
+            final Rectangle2D rectangle = new Rectangle2D.Double(
+                    line1.getX1(), line1.getY1(),
+                    Math.abs(randomCoordinate(random, scale)),
+                    Math.abs(randomCoordinate(random, scale)));
+            final boolean includesEndpoint = random.nextBoolean();
+
+            assertThat("intersects is NOT same for " + line1.getP1() +
+                            line1.getP2() + " and " + line2.getP1() +
+                            line2.getP2(),
+                    IntersectionPoint.intersects(line1, line2,
+                            includesEndpoint),
+                    is(IntersectionPoint.getIntersectionPoint(line1, line2,
+                            includesEndpoint).isPresent()));
+            assertThat("intersects is NOT same for " + rectangle + " and " +
+                            line2.getP1() + line2.getP2(),
+                    IntersectionPoint.intersects(rectangle, line2,
+                            includesEndpoint),
+                    is(!IntersectionPoint.getIntersectionPoints(rectangle,
+                            line2, includesEndpoint).isEmpty()));
+        }
+    }
+
+    @Test
+    public void rectangleIntersectsExcludingEndpoint() {
+        final Rectangle2D rectangle = new Rectangle2D.Double(0, 4, 4, 4);
+
+        assertThat("Intersected at endpoint of line",
+                IntersectionPoint.intersects(rectangle,
+                        new Line2D.Double(4, 2, 6, 2), false), is(false));
+        assertThat("Intersected at vertex of rectangle",
+                IntersectionPoint.intersects(rectangle,
+                        new Line2D.Double(-1, 5, 1, 3), false), is(false));
+        assertThat("NOT intersected at a point on an edge",
+                IntersectionPoint.intersects(rectangle,
+                        new Line2D.Double(2, 2, 6, 2), false), is(true));
+        assertThat("NOT intersected at two points including a vertex",
+                IntersectionPoint.intersects(rectangle,
+                        new Line2D.Double(-1, -1, 5, 5), false), is(true));
+    }
+
+    /**
+     * Coordinates on a grid of 1, 0.1 or 0.00001, or arbitrary ones
+     */
+    static private double randomCoordinate(Random random, int scale) {
+        switch (scale) {
+            case 0:
+                return random.nextInt(21) - 10;
+            case 1:
+                return (random.nextInt(201) - 100) / 10.0;
+            case 2:
+                return (random.nextInt(2001) - 1000) / 100000.0;
+            default:
+                return random.nextDouble() * 20 - 10;
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link IntersectionTracker}
+ */
+public class IntersectionTrackerTest {
+
+    @Test
+    public void flushPassesDifferencesOfBatch() {
+        final IntersectionTracker tracker = new IntersectionTracker(1, false);
+        tracker.insert(1, new Line2D.Double(0, 0, 2, 2));
+        tracker.insert(2, new Line2D.Double(2, 0, 0, 2));
+        tracker.insert(3, new Line2D.Double(5, 0, 5, 2));
+
+        final List<String> added = new ArrayList<>();
+        final List<String> removed = new ArrayList<>();
+        tracker.flush((id1, id2, x, y) -> added.add(id1 + "," + id2),
+                (id1, id2, x, y) -> removed.add(id1 + "," + id2));
+        assertThat("Added pairs are NOT [1,2]", added,
+                is(Collections.singletonList("1,2")));
+        assertThat("Removed pairs are NOT empty", removed.isEmpty(),
+                is(true));
+
+        // Moved away and back in the same batch
+        tracker.update(2, new Line2D.Double(6, 0, 4, 2));
+        tracker.update(2, new Line2D.Double(2, 0, 0, 2));
+        tracker.update(1, new Line2D.Double(4, 0, 6, 2));
+        added.clear();
+        tracker.flush((id1, id2, x, y) -> added.add(id1 + "," + id2),
+                (id1, id2, x, y) -> removed.add(id1 + "," + id2));
+        assertThat("Added pairs are NOT [1,3]", added,
+                is(Collections.singletonList("1,3")));
+        assertThat("Removed pairs are NOT [1,2]", removed,
+                is(Collections.singletonList("1,2")));
+        assertThat("Intersection point is NOT (5, 1)",
+                tracker.getIntersectionPoint(3, 1),
+                is(Optional.of(new Point2D.Double(5, 1))));
+
+        assertThat("Existing id is NOT removed", tracker.remove(3), is(true));
+        assertThat("Missing id is removed", tracker.remove(3), is(false));
+        assertThat("Crossing remains after removal",
+                tracker.getCrossingCount(), is(0));
+    }
+
+    @Test
+    public void trackerIsSameAsAllPairs() {
+        final Random random = new Random(20181125);
+        final IntersectionTracker tracker = new IntersectionTracker(4, true);
+        final Map<Integer, Line2D> lines = new HashMap<>();
+        final Map<String, Point2D> mirror = new HashMap<>();
+
+        for (int batch = 0; batch < 50; batch++) {
+            for (int n = 0; n < 40; n++) {
+                final int id = random.nextInt(200);
+                final Line2D line = randomLine(random);
+                if (!lines.containsKey(id)) {
+                    tracker.insert(id, line);
+                    lines.put(id, line);
+                } else if (random.nextInt(4) == 0) {
+                    tracker.remove(id);
+                    lines.remove(id);
+                } else {
+                    tracker.update(id, line);
+                    lines.put(id, line);
+                }
+            }
+
+            tracker.flush(
+                    (id1, id2, x, y) -> mirror.put(id1 + "," + id2,
+                            new Point2D.Double(x, y)),
+                    (id1, id2, x, y) -> assertThat("Removed point is wrong",
+                            mirror.remove(id1 + "," + id2),
+                            is(new Point2D.Double(x, y))));
+
+            final Map<String, Point2D> expected = new HashMap<>();
+            for (int id1 : lines.keySet()) {
+                for (int id2 : lines.keySet()) {
+                    if (id1 < id2) {
+                        IntersectionPoint.getIntersectionPoint(lines.get(id1),
+                                lines.get(id2), true).ifPresent(
+                                point -> expected.put(id1 + "," + id2, point));
+                    }
+                }
+            }
+
+            assertThat("Deltas are NOT equal to all pairs", mirror,
+                    is(expected));
+            assertThat("Crossing count is NOT equal to all pairs",
+                    tracker.getCrossingCount(), is(expected.size()));
+        }
+    }
+
+    static private Line2D randomLine(Random random) {
+        final double x = random.nextInt(200) / 4.0;
+        final double y = random.nextInt(200) / 4.0;
+        if (random.nextInt(20) == 0) {
+            // Long enough not to be hashed
+            return new Line2D.Double(x, y, random.nextInt(200) / 4.0,
+                    random.nextInt(200) / 4.0);
+        }
+        return new Line2D.Double(x, y, x + random.nextInt(41) / 4.0 - 5,
+                y + random.nextInt(41) / 4.0 - 5);
+    }
+}
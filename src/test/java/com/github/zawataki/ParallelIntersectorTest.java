@@ -0,0 +1,93 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link ParallelIntersector}
+ */
+public class ParallelIntersectorTest {
+
+    @Test
+    public void findIntersectionPointsIsSameAsSweepLine() {
+        final Random random = new Random(20181027);
+
+        final List<Line2D> lines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final double x = random.nextInt(400) / 4.0;
+            final double y = random.nextInt(100) / 4.0;
+            final double length = i % 50 == 0 ? 60 : 6;
+            lines.add(new Line2D.Double(x, y,
+                    x + random.nextInt(41) / 40.0 * length - length / 2,
+                    y + random.nextInt(41) / 40.0 * length - length / 2));
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (boolean includesEndpoint : new boolean[]{true, false}) {
+                final List<SegmentIntersection> expectedPoints =
+                        new ArrayList<>();
+                SweepLineIntersector.findIntersectionPoints(lines,
+                        includesEndpoint, (index1, index2, x, y) ->
+                                expectedPoints.add(
+                                        new SegmentIntersection(index1, index2,
+                                                x, y)));
+                expectedPoints.sort(SegmentIntersection.INDEX_ORDER);
+
+                final List<SegmentIntersection> points =
+                        ParallelIntersector.findIntersectionPoints(lines,
+                                includesEndpoint, pool, 4);
+                assertThat("Merged list is NOT equal to sweep line when " +
+                                "includes endpoint is " + includesEndpoint,
+                        points, is(expectedPoints));
+
+                final ConcurrentLinkedQueue<SegmentIntersection> sink =
+                        new ConcurrentLinkedQueue<>();
+                ParallelIntersector.findIntersectionPoints(lines,
+                        includesEndpoint, pool, 3,
+                        (index1, index2, x, y) -> sink.add(
+                                new SegmentIntersection(index1, index2, x, y)));
+                assertThat("Sink is NOT equal to sweep line when includes " +
+                                "endpoint is " + includesEndpoint, sink.stream()
+                                .sorted(SegmentIntersection.INDEX_ORDER)
+                                .collect(Collectors.toList()),
+                        is(expectedPoints));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void findIntersectionPointsFromLinesOnBorderOfTiles() {
+        final List<Line2D> lines = new ArrayList<>();
+        for (int i = 0; i <= 10; i++) {
+            lines.add(new Line2D.Double(i, 0, i, 10));
+            lines.add(new Line2D.Double(0, i, 10, i));
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertThat("The number of intersection points is NOT 121 when " +
+                            "includes endpoint",
+                    ParallelIntersector.findIntersectionPoints(lines, true,
+                            pool, 2).size(), is(121));
+            assertThat("The number of intersection points is NOT 81 when " +
+                            "excludes endpoint",
+                    ParallelIntersector.findIntersectionPoints(lines, false,
+                            pool, 2).size(), is(81));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
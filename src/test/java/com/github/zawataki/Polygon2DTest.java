@@ -0,0 +1,137 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link Polygon2D}
+ */
+public class Polygon2DTest {
+
+    @Test
+    public void getIntersectionPointsOfLine() {
+        final Polygon2D triangle = Polygon2D.of(0, 0, 4, 0, 2, 4);
+
+        final List<Point2D> expectedPoints =
+                Arrays.asList(new Point2D.Double(3, 2),
+                        new Point2D.Double(1, 2));
+        assertThat("Intersection points are NOT equal to " + expectedPoints,
+                triangle.getIntersectionPoints(
+                        new Line2D.Double(-1, 2, 5, 2), false),
+                is(expectedPoints));
+
+        assertThat("Line touching a vertex is regarded as intersected",
+                triangle.getIntersectionPoints(
+                        new Line2D.Double(0, 4, 4, 4), false).isEmpty(),
+                is(true));
+        assertThat("Line touching a vertex is NOT regarded as intersected",
+                triangle.getIntersectionPoints(
+                        new Line2D.Double(0, 4, 4, 4), true),
+                is(Arrays.asList(new Point2D.Double(2, 4))));
+    }
+
+    @Test
+    public void getIntersectionPointsOfRectangle() {
+        final Polygon2D triangle = Polygon2D.of(0, 0, 4, 0, 2, 4);
+        final Rectangle2D rect = new Rectangle2D.Double(1, 3, 2, 2);
+
+        final List<Point2D> expectedPoints =
+                Arrays.asList(new Point2D.Double(2.5, 3),
+                        new Point2D.Double(3, 2),
+                        new Point2D.Double(1.5, 3),
+                        new Point2D.Double(1, 2));
+        assertThat("Intersection points are NOT equal to " + expectedPoints,
+                triangle.getIntersectionPoints(rect, false),
+                is(expectedPoints));
+    }
+
+    @Test
+    public void getIntersectionPointsIsSameAsAllEdges() {
+        final Random random = new Random(20181118);
+
+        for (int n = 0; n < 200; n++) {
+            final double[] coordinates =
+                    new double[2 * (3 + random.nextInt(60))];
+            for (int v = 0; v < coordinates.length; v++) {
+                coordinates[v] = random.nextInt(200) / 4.0;
+            }
+            final Polygon2D polygon = Polygon2D.of(coordinates);
+            final boolean includesEndpoint = random.nextBoolean();
+
+            final Line2D line = new Line2D.Double(random.nextInt(200) / 4.0,
+                    random.nextInt(200) / 4.0, random.nextInt(200) / 4.0,
+                    random.nextInt(200) / 4.0);
+            final Set<Point2D> expectedLinePoints = new LinkedHashSet<>();
+            for (int k = 0; k < polygon.getVertexCount(); k++) {
+                IntersectionPoint.getIntersectionPoint(new Line2D.Double(
+                        polygon.getVertex(k), polygon.getVertex(
+                                (k + 1) % polygon.getVertexCount())), line,
+                        true).ifPresent(expectedLinePoints::add);
+            }
+            if (!includesEndpoint && expectedLinePoints.size() == 1) {
+                final Point2D point = expectedLinePoints.iterator().next();
+                if (point.equals(line.getP1()) ||
+                        point.equals(line.getP2()) ||
+                        isVertex(point, polygon)) {
+                    expectedLinePoints.clear();
+                }
+            }
+            assertThat("Intersection points are NOT equal to all edges",
+                    polygon.getIntersectionPoints(line, includesEndpoint),
+                    is(new ArrayList<>(expectedLinePoints)));
+
+            final Rectangle2D rect =
+                    new Rectangle2D.Double(random.nextInt(200) / 4.0,
+                            random.nextInt(200) / 4.0,
+                            random.nextInt(80) / 4.0,
+                            random.nextInt(80) / 4.0);
+            final Set<Point2D> expectedRectanglePoints =
+                    new LinkedHashSet<>();
+            for (int k = 0; k < polygon.getVertexCount(); k++) {
+                expectedRectanglePoints.addAll(
+                        IntersectionPoint.getIntersectionPoints(rect,
+                                new Line2D.Double(polygon.getVertex(k),
+                                        polygon.getVertex((k + 1) %
+                                                polygon.getVertexCount())),
+                                true));
+            }
+            if (!includesEndpoint && expectedRectanglePoints.size() == 1) {
+                final Point2D point =
+                        expectedRectanglePoints.iterator().next();
+                if (isVertex(point, polygon) ||
+                        (point.getX() == rect.getX() ||
+                                point.getX() == rect.getMaxX()) &&
+                                (point.getY() == rect.getY() ||
+                                        point.getY() ==
+                                                rect.getY() -
+                                                        rect.getHeight())) {
+                    expectedRectanglePoints.clear();
+                }
+            }
+            assertThat("Intersection points are NOT equal to all edges",
+                    polygon.getIntersectionPoints(rect, includesEndpoint),
+                    is(new ArrayList<>(expectedRectanglePoints)));
+        }
+    }
+
+    static private boolean isVertex(Point2D point, Polygon2D polygon) {
+        for (int v = 0; v < polygon.getVertexCount(); v++) {
+            if (point.equals(polygon.getVertex(v))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
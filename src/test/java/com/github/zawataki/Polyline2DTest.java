@@ -0,0 +1,120 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link Polyline2D}
+ */
+public class Polyline2DTest {
+
+    @Test
+    public void getIntersectionPointsOfPolylines() {
+        final Polyline2D zigzag = Polyline2D.of(0, 0, 2, 2, 4, 0, 6, 2);
+        final Polyline2D line = Polyline2D.of(0, 1, 6, 1);
+
+        final List<Point2D> expectedPoints =
+                Arrays.asList(new Point2D.Double(1, 1),
+                        new Point2D.Double(3, 1), new Point2D.Double(5, 1));
+        assertThat("Intersection points are NOT equal to " + expectedPoints,
+                zigzag.getIntersectionPoints(line, false),
+                is(expectedPoints));
+    }
+
+    @Test
+    public void getIntersectionPointsExcludesOnlyEndpoints() {
+        final Polyline2D vee = Polyline2D.of(0, 2, 2, 0, 4, 2);
+        final Polyline2D touching = Polyline2D.of(0, 0, 4, 0);
+        final Polyline2D fromEndpoint = Polyline2D.of(0, 2, 0, 4);
+
+        assertThat("Point on middle vertex is excluded",
+                vee.getIntersectionPoints(touching, false),
+                is(Collections.singletonList(new Point2D.Double(2, 0))));
+        assertThat("Point on 1st vertex is included",
+                vee.getIntersectionPoints(fromEndpoint, false).isEmpty(),
+                is(true));
+        assertThat("Point on 1st vertex is NOT included",
+                vee.getIntersectionPoints(fromEndpoint, true),
+                is(Collections.singletonList(new Point2D.Double(0, 2))));
+    }
+
+    @Test
+    public void getIntersectionPointsOfSingleEdgesIsSameAsLines() {
+        final Line2D l1 = new Line2D.Double(0, 0, 3, 1);
+        final Line2D l2 = new Line2D.Double(1, 0, 1, 1);
+
+        final Optional<Point2D> expectedPoint =
+                IntersectionPoint.getIntersectionPoint(l1, l2, false);
+        final List<Point2D> points = Polyline2D.of(0, 0, 3, 1)
+                .getIntersectionPoints(Polyline2D.of(1, 0, 1, 1), false);
+
+        assertThat("Intersection point is NOT equal to " + expectedPoint,
+                points.stream().findFirst(), is(expectedPoint));
+    }
+
+    @Test
+    public void getIntersectionPointsIsSameAsAllPairsOfEdges() {
+        final Random random = new Random(20181111);
+
+        for (int n = 0; n < 200; n++) {
+            final double[] coordinates1 = randomWalk(random);
+            final double[] coordinates2 = randomWalk(random);
+            final boolean includesEndpoint = random.nextBoolean();
+
+            final Set<Point2D> expectedPoints = new LinkedHashSet<>();
+            for (int i = 0; i + 3 < coordinates1.length; i += 2) {
+                for (int j = 0; j + 3 < coordinates2.length; j += 2) {
+                    IntersectionPoint.getIntersectionPoint(
+                            new Line2D.Double(coordinates1[i],
+                                    coordinates1[i + 1], coordinates1[i + 2],
+                                    coordinates1[i + 3]),
+                            new Line2D.Double(coordinates2[j],
+                                    coordinates2[j + 1], coordinates2[j + 2],
+                                    coordinates2[j + 3]), true)
+                            .ifPresent(expectedPoints::add);
+                }
+            }
+            if (!includesEndpoint) {
+                expectedPoints.removeIf(
+                        point -> isEndpoint(point, coordinates1) ||
+                                isEndpoint(point, coordinates2));
+            }
+
+            assertThat("Intersection points are NOT equal to all pairs",
+                    Polyline2D.of(coordinates1).getIntersectionPoints(
+                            Polyline2D.of(coordinates2), includesEndpoint),
+                    is(new ArrayList<>(expectedPoints)));
+        }
+    }
+
+    static private double[] randomWalk(Random random) {
+        final double[] coordinates = new double[2 * (2 + random.nextInt(60))];
+        coordinates[0] = random.nextInt(200) / 4.0;
+        coordinates[1] = random.nextInt(200) / 4.0;
+        for (int v = 2; v < coordinates.length; v++) {
+            coordinates[v] = coordinates[v - 2] + random.nextInt(41) / 4.0 - 5;
+        }
+        return coordinates;
+    }
+
+    static private boolean isEndpoint(Point2D point, double[] coordinates) {
+        final int last = coordinates.length - 2;
+        return point.getX() == coordinates[0] &&
+                point.getY() == coordinates[1] ||
+                point.getX() == coordinates[last] &&
+                        point.getY() == coordinates[last + 1];
+    }
+}
@@ -0,0 +1,215 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link PrecisionPolicy}
+ */
+public class PrecisionPolicyTest {
+
+    @Test
+    public void robustIsSameAsTruncationForSimpleLines() {
+        final List<Line2D[]> cases = Arrays.asList(
+                // crossing
+                new Line2D[]{new Line2D.Double(0, 0, 1, 1),
+                        new Line2D.Double(1, 0, 0, 1)},
+                // parallel
+                new Line2D[]{new Line2D.Double(0, 0, 1, 1),
+                        new Line2D.Double(0, 1, 1, 2)},
+                // collinear
+                new Line2D[]{new Line2D.Double(0, 0, 2, 2),
+                        new Line2D.Double(1, 1, 3, 3)},
+                // touching on endpoint
+                new Line2D[]{new Line2D.Double(0, 0, 1, 1),
+                        new Line2D.Double(1, 1, 2, 0)},
+                // touching on middle of a line
+                new Line2D[]{new Line2D.Double(0, 0, 2, 2),
+                        new Line2D.Double(1, 1, 2, 0)},
+                // disjoint
+                new Line2D[]{new Line2D.Double(0, 0, 1, 1),
+                        new Line2D.Double(3, 0, 2, 1)});
+
+        for (Line2D[] lines : cases) {
+            for (boolean includesEndpoint : new boolean[]{true, false}) {
+                final Optional<Point2D> expected =
+                        IntersectionPoint.getIntersectionPoint(lines[0],
+                                lines[1], includesEndpoint,
+                                PrecisionPolicy.truncation());
+                final Optional<Point2D> actual =
+                        IntersectionPoint.getIntersectionPoint(lines[0],
+                                lines[1], includesEndpoint,
+                                PrecisionPolicy.robust());
+                assertThat("Intersection point is NOT equal to truncation",
+                        actual, is(expected));
+            }
+        }
+    }
+
+    @Test
+    public void truncationIsSameAsDefault() {
+        final Line2D l1 = new Line2D.Double(0, 0, 3, 1);
+        final Line2D l2 = new Line2D.Double(1, 0, 1, 1);
+
+        assertThat("Intersection point is NOT equal to default",
+                IntersectionPoint.getIntersectionPoint(l1, l2, false,
+                        PrecisionPolicy.truncation()),
+                is(IntersectionPoint.getIntersectionPoint(l1, l2, false)));
+    }
+
+    @Test
+    public void truncationOfDecimalPlaces() {
+        final Line2D l1 = new Line2D.Double(0, 0, 3, 1);
+        final Line2D l2 = new Line2D.Double(1, 0, 1, 1);
+
+        final Point2D expectedPoint = new Point2D.Double(1, 0.33);
+        assertThat("Intersection point is NOT " + expectedPoint,
+                IntersectionPoint.getIntersectionPoint(l1, l2, false,
+                        PrecisionPolicy.truncation(2)),
+                is(Optional.of(expectedPoint)));
+        assertThat("Truncation to 5 decimal places is NOT default",
+                PrecisionPolicy.truncation(5) == PrecisionPolicy.truncation(),
+                is(true));
+
+        final Line2D line = new Line2D.Double(0, 0, 1, 0);
+        final Point2D point = new Point2D.Double(0.5, 0.004);
+        assertThat("Point within 0.01 is NOT regarded as on line",
+                IntersectionPoint.pointIsOnLine(point, line, false,
+                        PrecisionPolicy.truncation(2)), is(true));
+        assertThat("Point apart by 0.00002 is regarded as on line",
+                IntersectionPoint.pointIsOnLine(point, line, false,
+                        PrecisionPolicy.truncation()), is(false));
+    }
+
+    @Test
+    public void truncationOfDecimalPlacesIsSameAsDistanceSum() {
+        final Random random = new Random(20190415);
+
+        for (int decimalPlaces : new int[]{0, 2, 3, 7}) {
+            final PrecisionPolicy policy =
+                    PrecisionPolicy.truncation(decimalPlaces);
+            final double unit = Math.pow(10, -decimalPlaces);
+            int onLineCount = 0;
+
+            for (int n = 0; n < 2000; n++) {
+                final double x1 = random.nextInt(2000) / 8.0 - 125;
+                final double y1 = random.nextInt(2000) / 8.0 - 125;
+                final double x2 = random.nextInt(2000) / 8.0 - 125;
+                final double y2 = random.nextInt(2000) / 8.0 - 125;
+                // Apart from the line about as far as the distance sum
+                // exceeds the length by a unit
+                final double length = Point2D.distance(x1, y1, x2, y2);
+                final double t = random.nextDouble();
+                final double h = (random.nextDouble() - 0.5) * 4 *
+                        Math.sqrt(unit * length) / Math.max(length, 1);
+                final double px = x1 + t * (x2 - x1) - h * (y2 - y1);
+                final double py = y1 + t * (y2 - y1) + h * (x2 - x1);
+
+                final BigDecimal difference = truncate(
+                        Point2D.distance(px, py, x1, y1), decimalPlaces)
+                        .add(truncate(Point2D.distance(px, py, x2, y2),
+                                decimalPlaces))
+                        .subtract(truncate(Point2D.distance(x1, y1, x2, y2),
+                                decimalPlaces));
+                final boolean expected = difference.abs().compareTo(
+                        BigDecimal.ONE.scaleByPowerOfTen(-decimalPlaces)) <= 0;
+
+                onLineCount += expected ? 1 : 0;
+                assertThat("Point (" + px + ", " + py + ") on line (" + x1 +
+                                ", " + y1 + ", " + x2 + ", " + y2 +
+                                ") to " + decimalPlaces + " decimal places",
+                        policy.pointIsOnLine(px, py, x1, y1, x2, y2, true),
+                        is(expected));
+            }
+
+            assertThat("Points are NOT both on and off line to " +
+                            decimalPlaces + " decimal places",
+                    0 < onLineCount && onLineCount < 2000, is(true));
+        }
+    }
+
+    @Test
+    public void robustGetIntersectionPointOfTinyLines() {
+        final Line2D l1 = new Line2D.Double(0, 0, 1e-7, 1e-7);
+        final Line2D l2 = new Line2D.Double(0, 1e-7, 1e-7, 0);
+
+        final Optional<Point2D> point =
+                IntersectionPoint.getIntersectionPoint(l1, l2, false,
+                        PrecisionPolicy.robust());
+
+        final Point2D expectedPoint = new Point2D.Double(5e-8, 5e-8);
+        assertThat("Intersection point is NOT " + expectedPoint, point,
+                is(Optional.of(expectedPoint)));
+    }
+
+    @Test
+    public void robustPointIsNotOnLineOfUtmCoordinates() {
+        final Line2D line =
+                new Line2D.Double(500000, 4649776, 500010, 4649786);
+
+        assertThat("Point slightly apart from line is regarded as on line",
+                IntersectionPoint.pointIsOnLine(
+                        new Point2D.Double(500005, 4649781.000001), line,
+                        false, PrecisionPolicy.robust()), is(false));
+        assertThat("Point on line is NOT regarded as on line",
+                IntersectionPoint.pointIsOnLine(
+                        new Point2D.Double(500005, 4649781), line, false,
+                        PrecisionPolicy.robust()), is(true));
+        assertThat("Endpoint is regarded as on line",
+                IntersectionPoint.pointIsOnLine(
+                        new Point2D.Double(500010, 4649786), line, false,
+                        PrecisionPolicy.robust()), is(false));
+    }
+
+    @Test
+    public void robustNearMissIsNotIntersected() {
+        final Line2D l1 = new Line2D.Double(500000, 4649776, 500010, 4649786);
+        final Line2D l2 =
+                new Line2D.Double(500005, 4649781.000001, 500005, 4649790);
+
+        assertThat("Near miss is regarded as intersected",
+                IntersectionPoint.getIntersectionPoint(l1, l2, true,
+                        PrecisionPolicy.robust()).isPresent(), is(false));
+    }
+
+    @Test
+    public void robustGetIntersectionPointsOfRectangle() {
+        final Rectangle2D rect = new Rectangle2D.Double(0, 1e-6, 1e-6, 1e-6);
+
+        final List<Point2D> points = IntersectionPoint.getIntersectionPoints(
+                rect, new Line2D.Double(-1e-6, 5e-7, 2e-6, 5e-7), false,
+                PrecisionPolicy.robust());
+
+        final List<Point2D> expectedPoints =
+                Arrays.asList(new Point2D.Double(0, 5e-7),
+                        new Point2D.Double(1e-6, 5e-7));
+        assertThat("Intersection points are NOT equal to " + expectedPoints,
+                points, is(expectedPoints));
+
+        final Line2D touchingLine = new Line2D.Double(-1e-6, 0, 1e-6, 2e-6);
+        assertThat("Line touching a vertex is regarded as intersected",
+                IntersectionPoint.getIntersectionPoints(rect, touchingLine,
+                        false, PrecisionPolicy.robust()).isEmpty(), is(true));
+        assertThat("Line touching a vertex is NOT regarded as intersected",
+                IntersectionPoint.getIntersectionPoints(rect, touchingLine,
+                        true, PrecisionPolicy.robust()),
+                is(Arrays.asList(new Point2D.Double(0, 1e-6))));
+    }
+
+    static private BigDecimal truncate(double value, int decimalPlaces) {
+        return BigDecimal.valueOf(value)
+                .setScale(decimalPlaces, RoundingMode.DOWN);
+    }
+}
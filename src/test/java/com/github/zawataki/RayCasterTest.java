@@ -0,0 +1,168 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link RayCaster}
+ */
+public class RayCasterTest {
+
+    @Test
+    public void castHitsNearestRectangle() {
+        final RayCaster caster = RayCaster.of(Arrays.asList(
+                new Rectangle2D.Double(6, 3, 2, 2),
+                new Rectangle2D.Double(2, 4, 2, 4),
+                new Rectangle2D.Double(2, 10, 2, 2)));
+
+        final Optional<RayCaster.Hit> hit = caster.cast(0, 2, 2, 0, 100);
+
+        assertThat("Hit is NOT the 2nd rectangle at its left edge",
+                hit.map(h -> h.getRectangle() == 1 &&
+                        h.getFace() == RayCaster.Face.LEFT &&
+                        h.getX() == 2 && h.getY() == 2).orElse(false),
+                is(true));
+        assertThat("Parameter is NOT 1", hit.get().getParameter(), is(1.0));
+        assertThat("Distance is NOT 2", hit.get().getDistance(), is(2.0));
+    }
+
+    @Test
+    public void castHitsEachFace() {
+        final RayCaster caster = RayCaster.of(Collections.singletonList(
+                new Rectangle2D.Double(0, 4, 4, 4)));
+
+        assertThat("Face from above is NOT UPPER", caster.cast(2, 6, 0, -1, 10)
+                .get().getFace(), is(RayCaster.Face.UPPER));
+        assertThat("Face from below is NOT LOWER", caster.cast(2, -2, 0, 1, 10)
+                .get().getFace(), is(RayCaster.Face.LOWER));
+        assertThat("Face from left is NOT LEFT", caster.cast(-2, 2, 1, 0, 10)
+                .get().getFace(), is(RayCaster.Face.LEFT));
+        assertThat("Face from right is NOT RIGHT", caster.cast(6, 2, -1, 0, 10)
+                .get().getFace(), is(RayCaster.Face.RIGHT));
+        assertThat("Face at corner is NOT UPPER", caster.cast(-1, 5, 1, -1, 10)
+                .get().getFace(), is(RayCaster.Face.UPPER));
+
+        final RayCaster.Hit inside = caster.cast(1, 1, 1, 0, 10).get();
+        assertThat("Face from inside is NOT INSIDE", inside.getFace(),
+                is(RayCaster.Face.INSIDE));
+        assertThat("Parameter from inside is NOT 0", inside.getParameter(),
+                is(0.0));
+    }
+
+    @Test
+    public void castStopsAtMaxDistance() {
+        final RayCaster caster = RayCaster.of(Collections.singletonList(
+                new Rectangle2D.Double(5, 1, 1, 2)));
+
+        assertThat("Rectangle beyond max distance is hit",
+                caster.cast(0, 0, 3, 0, 4.9).isPresent(), is(false));
+        assertThat("Rectangle at max distance is NOT hit",
+                caster.cast(0, 0, 3, 0, 5).isPresent(), is(true));
+        assertThat("Rectangle behind origin is hit",
+                caster.cast(0, 0, -1, 0, 100).isPresent(), is(false));
+        assertThat("Line NOT reaching rectangle hits it",
+                caster.cast(new Line2D.Double(0, 0, 4, 0)).isPresent(),
+                is(false));
+        assertThat("Parameter of line is NOT 5/6", caster.cast(
+                new Line2D.Double(0, 0, 6, 0)).get().getParameter(),
+                is(5.0 / 6));
+    }
+
+    @Test
+    public void castPrefersSmallerIndexAmongNearest() {
+        final RayCaster caster = RayCaster.of(Arrays.asList(
+                new Rectangle2D.Double(2, 2, 1, 4),
+                new Rectangle2D.Double(2, 1, 1, 2)));
+
+        assertThat("Hit is NOT the 1st rectangle",
+                caster.cast(0, 0, 1, 0, 10).get().getRectangle(), is(0));
+    }
+
+    @Test
+    public void castIsSameAsNearestOfEachRectangle() {
+        final Random random = new Random(20181223);
+        final int rectangleCount = 300;
+        final List<Rectangle2D> rectangles = new ArrayList<>();
+        final List<RayCaster> singles = new ArrayList<>();
+        for (int r = 0; r < rectangleCount; r++) {
+            final Rectangle2D rectangle = new Rectangle2D.Double(
+                    random.nextInt(100), random.nextInt(100),
+                    random.nextInt(10), random.nextInt(10));
+            rectangles.add(rectangle);
+            singles.add(RayCaster.of(Collections.singletonList(rectangle)));
+        }
+        final RayCaster caster = RayCaster.of(rectangles);
+
+        final int rayCount = 300;
+        final double[] rays = new double[rayCount * 4];
+        for (int n = 0; n < rays.length; n++) {
+            rays[n] = n % 4 < 2 ? random.nextInt(120) - 10 :
+                    random.nextInt(21) - 10;
+        }
+        final double maxDistance = 50;
+
+        final int[] hitRectangles = new int[rayCount];
+        final double[] parameters = new double[rayCount];
+        final double[] points = new double[rayCount * 2];
+        final RayCaster.Face[] faces = new RayCaster.Face[rayCount];
+        final int hitCount = caster.castAll(rays, rayCount, maxDistance,
+                hitRectangles, parameters, points, faces);
+
+        int expectedHitCount = 0;
+        for (int i = 0; i < rayCount; i++) {
+            final int l = i * 4;
+            RayCaster.Hit expected = null;
+            for (int r = 0; r < rectangleCount; r++) {
+                final Optional<RayCaster.Hit> hit = singles.get(r).cast(
+                        rays[l], rays[l + 1], rays[l + 2], rays[l + 3],
+                        maxDistance);
+                if (hit.isPresent() && (expected == null ||
+                        hit.get().getParameter() < expected.getParameter())) {
+                    expected = new RayCaster.Hit(r, hit.get().getFace(),
+                            hit.get().getX(), hit.get().getY(),
+                            hit.get().getParameter(),
+                            hit.get().getDistance());
+                }
+            }
+
+            final String ray = Arrays.toString(
+                    Arrays.copyOfRange(rays, l, l + 4));
+            assertThat("Hit is NOT nearest for " + ray,
+                    caster.cast(rays[l], rays[l + 1], rays[l + 2],
+                            rays[l + 3], maxDistance),
+                    is(Optional.ofNullable(expected)));
+
+            if (expected == null) {
+                assertThat("Batch hit without hit for " + ray,
+                        hitRectangles[i], is(-1));
+                continue;
+            }
+            expectedHitCount++;
+            assertThat("Batch hit is NOT same for " + ray,
+                    new RayCaster.Hit(hitRectangles[i], faces[i],
+                            points[2 * i], points[2 * i + 1], parameters[i],
+                            expected.getDistance()), is(expected));
+        }
+
+        assertThat("Hit count is NOT same", hitCount, is(expectedHitCount));
+    }
+
+    @Test
+    public void castFromEmptyRayCaster() {
+        final RayCaster caster = RayCaster.of(Collections.emptyList());
+
+        assertThat("Hit in empty ray caster",
+                caster.cast(0, 0, 1, 1, 10).isPresent(), is(false));
+    }
+}
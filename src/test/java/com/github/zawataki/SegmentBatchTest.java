@@ -0,0 +1,106 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link SegmentBatch}
+ */
+public class SegmentBatchTest {
+
+    @Test
+    public void getIntersectionPointsFromInterleavedArrays() {
+        final double[] lines1 = {0, 0, 1, 1, 0, 0, 1, 1, 0, 0, 1, 1};
+        final double[] lines2 = {1, 0, 0, 1, 0, 1, 1, 2, 2, 0, 0, 2};
+        final boolean[] intersected = new boolean[3];
+        final double[] points = new double[6];
+
+        final int count =
+                SegmentBatch.getIntersectionPoints(lines1, lines2, 3, false,
+                        intersected, points);
+
+        assertThat("The number of intersected pairs is NOT 1", count, is(1));
+        assertThat("Crossing lines are NOT intersected", intersected[0],
+                is(true));
+        assertThat("Returned intersection point is NOT equal to (0.5, 0.5)",
+                new Point2D.Double(points[0], points[1]),
+                is(new Point2D.Double(0.5, 0.5)));
+        assertThat("Parallel lines are intersected", intersected[1],
+                is(false));
+        assertThat("Lines intersected at endpoint are intersected when " +
+                "excludes endpoint", intersected[2], is(false));
+        assertThat("Point of NOT intersected pair is NOT NaN",
+                Double.isNaN(points[2]), is(true));
+    }
+
+    @Test
+    public void getIntersectionPointsIsSameAsGetIntersectionPoint() {
+        final Random random = new Random(20181025);
+        final int count = 10000;
+
+        final double[] lines1 = new double[count * SegmentBatch.STRIDE];
+        final double[] lines2 = new double[count * SegmentBatch.STRIDE];
+        for (int i = 0; i < lines1.length; i++) {
+            lines1[i] = random.nextInt(21) / 4.0;
+            lines2[i] = random.nextInt(21) / 4.0;
+        }
+
+        final double[][] coordinates = new double[8][count];
+        for (int i = 0; i < count; i++) {
+            for (int c = 0; c < SegmentBatch.STRIDE; c++) {
+                coordinates[c][i] = lines1[i * SegmentBatch.STRIDE + c];
+                coordinates[c + 4][i] = lines2[i * SegmentBatch.STRIDE + c];
+            }
+        }
+
+        for (boolean includesEndpoint : new boolean[]{true, false}) {
+            final boolean[] intersected = new boolean[count];
+            final double[] points = new double[count * 2];
+            SegmentBatch.getIntersectionPoints(lines1, lines2, count,
+                    includesEndpoint, intersected, points);
+
+            final boolean[] intersectedOfArrays = new boolean[count];
+            final double[] pointsX = new double[count];
+            final double[] pointsY = new double[count];
+            SegmentBatch.getIntersectionPoints(coordinates[0], coordinates[1],
+                    coordinates[2], coordinates[3], coordinates[4],
+                    coordinates[5], coordinates[6], coordinates[7], count,
+                    includesEndpoint, intersectedOfArrays, pointsX, pointsY);
+
+            for (int i = 0; i < count; i++) {
+                final int l = i * SegmentBatch.STRIDE;
+                final Line2D line1 =
+                        new Line2D.Double(lines1[l], lines1[l + 1],
+                                lines1[l + 2], lines1[l + 3]);
+                final Line2D line2 =
+                        new Line2D.Double(lines2[l], lines2[l + 1],
+                                lines2[l + 2], lines2[l + 3]);
+                final Optional<Point2D> expected =
+                        IntersectionPoint.getIntersectionPoint(line1, line2,
+                                includesEndpoint);
+
+                assertThat("Result of interleaved arrays is different at " + i,
+                        intersected[i], is(expected.isPresent()));
+                assertThat("Result of arrays per coordinate is different at " +
+                        i, intersectedOfArrays[i], is(expected.isPresent()));
+
+                if (expected.isPresent()) {
+                    assertThat("Point of interleaved arrays is different at " +
+                                    i, new Point2D.Double(points[2 * i],
+                                    points[2 * i + 1]), is(expected.get()));
+                    assertThat("Point of arrays per coordinate is different " +
+                                    "at " + i,
+                            new Point2D.Double(pointsX[i], pointsY[i]),
+                            is(expected.get()));
+                }
+            }
+        }
+    }
+}
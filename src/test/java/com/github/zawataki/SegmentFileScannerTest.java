@@ -0,0 +1,161 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link SegmentFileScanner}
+ */
+public class SegmentFileScannerTest {
+
+    @Test
+    public void findIntersectionPointsWritesRecords() throws IOException {
+        final List<Line2D> segments =
+                Arrays.asList(new Line2D.Double(0, 2, 10, 2),
+                        new Line2D.Double(0, 9, 1, 9),
+                        new Line2D.Double(4, 0, 4, 10));
+        final SpatialIndex probes = SpatialIndex.of(
+                Collections.singletonList(new Line2D.Double(1, 0, 1, 4)),
+                Collections.singletonList(new Rectangle2D.Double(3, 3, 2, 2)));
+
+        final ByteBuffer records = scan(segments, ByteOrder.LITTLE_ENDIAN,
+                probes, false, SegmentFileScanner.DEFAULT_WINDOW_BYTES);
+
+        final ByteBuffer expected =
+                ByteBuffer.allocate(SegmentFileScanner.RECORD_BYTES * 5)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+        expected.putLong(0).putInt(0).putInt(0).putDouble(1).putDouble(2);
+        expected.putLong(0).putInt(0).putInt(1).putDouble(3).putDouble(2);
+        expected.putLong(0).putInt(0).putInt(1).putDouble(5).putDouble(2);
+        expected.putLong(2).putInt(0).putInt(1).putDouble(4).putDouble(1);
+        expected.putLong(2).putInt(0).putInt(1).putDouble(4).putDouble(3);
+        expected.flip();
+
+        assertThat("Records are NOT equal to expected", records,
+                is(expected));
+    }
+
+    @Test
+    public void findIntersectionPointsIsSameAcrossWindows()
+            throws IOException {
+
+        final Random random = new Random(20181104);
+
+        final List<Line2D> segments = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final double x = random.nextInt(400) / 4.0;
+            final double y = random.nextInt(400) / 4.0;
+            segments.add(new Line2D.Double(x, y,
+                    x + random.nextInt(81) / 4.0 - 10,
+                    y + random.nextInt(81) / 4.0 - 10));
+        }
+        final List<Line2D> lines = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            lines.add(new Line2D.Double(random.nextInt(400) / 4.0,
+                    random.nextInt(400) / 4.0, random.nextInt(400) / 4.0,
+                    random.nextInt(400) / 4.0));
+        }
+        final List<Rectangle2D> rectangles = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rectangles.add(new Rectangle2D.Double(random.nextInt(400) / 4.0,
+                    random.nextInt(400) / 4.0, random.nextInt(40) / 4.0,
+                    random.nextInt(40) / 4.0));
+        }
+        final SpatialIndex probes = SpatialIndex.of(lines, rectangles);
+
+        final ByteBuffer expected =
+                ByteBuffer.allocate(SegmentFileScanner.RECORD_BYTES * 50000);
+        for (int i = 0; i < segments.size(); i++) {
+            for (SpatialIndex.Hit hit : probes.getIntersectionPoints(
+                    segments.get(i), true)) {
+                expected.putLong(i)
+                        .putInt(hit.getIndex())
+                        .putInt(hit.isRectangle() ? 1 : 0)
+                        .putDouble(hit.getX())
+                        .putDouble(hit.getY());
+            }
+        }
+        expected.flip();
+
+        for (long windowBytes : new long[]{SegmentFileScanner.SEGMENT_BYTES,
+                SegmentFileScanner.SEGMENT_BYTES * 7,
+                SegmentFileScanner.DEFAULT_WINDOW_BYTES}) {
+            final ByteBuffer records = scan(segments, ByteOrder.BIG_ENDIAN,
+                    probes, true, windowBytes);
+            assertThat("Records are NOT equal to expected with window of " +
+                    windowBytes + " bytes", records, is(expected));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void findIntersectionPointsFromTruncatedFile() throws IOException {
+        final Path file = Files.createTempFile("segments", ".bin");
+        try {
+            Files.write(file, new byte[SegmentFileScanner.SEGMENT_BYTES + 1]);
+            try (FileChannel input = FileChannel.open(file)) {
+                SegmentFileScanner.findIntersectionPoints(input,
+                        ByteOrder.BIG_ENDIAN, SpatialIndex.of(
+                                Collections.emptyList(),
+                                Collections.emptyList()), true,
+                        Channels.newChannel(new ByteArrayOutputStream()));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static private ByteBuffer scan(List<Line2D> segments, ByteOrder order,
+            SpatialIndex probes, boolean includesEndpoint, long windowBytes)
+            throws IOException {
+
+        final Path file = Files.createTempFile("segments", ".bin");
+        try {
+            final ByteBuffer packed = ByteBuffer.allocate(
+                    segments.size() * SegmentFileScanner.SEGMENT_BYTES)
+                    .order(order);
+            for (Line2D segment : segments) {
+                packed.putDouble(segment.getX1())
+                        .putDouble(segment.getY1())
+                        .putDouble(segment.getX2())
+                        .putDouble(segment.getY2());
+            }
+            Files.write(file, packed.array());
+
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final long count;
+            try (FileChannel input = FileChannel.open(file,
+                    StandardOpenOption.READ)) {
+                count = SegmentFileScanner.findIntersectionPoints(input,
+                        order, probes, includesEndpoint,
+                        Channels.newChannel(output), windowBytes);
+            }
+
+            final ByteBuffer records = ByteBuffer.wrap(output.toByteArray());
+            assertThat("Count is NOT equal to the number of records",
+                    count * SegmentFileScanner.RECORD_BYTES,
+                    is((long) records.remaining()));
+            return records;
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
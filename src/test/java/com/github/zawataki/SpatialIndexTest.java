@@ -0,0 +1,134 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link SpatialIndex}
+ */
+public class SpatialIndexTest {
+
+    @Test
+    public void getIntersectionPointsFromLinesAndRectangles() {
+        final SpatialIndex index = SpatialIndex.of(
+                Arrays.asList(new Line2D.Double(1, 0, 1, 4),
+                        new Line2D.Double(8, 0, 8, 4)),
+                Collections.singletonList(
+                        new Rectangle2D.Double(3, 3, 2, 2)));
+        final Line2D probe = new Line2D.Double(0, 2, 10, 2);
+
+        final List<SpatialIndex.Hit> hits =
+                index.getIntersectionPoints(probe, false);
+
+        final List<Point2D> expectedPoints =
+                Arrays.asList(new Point2D.Double(1, 2),
+                        new Point2D.Double(3, 2), new Point2D.Double(5, 2),
+                        new Point2D.Double(8, 2));
+        final List<Point2D> points = new ArrayList<>();
+        hits.forEach(hit -> points.add(hit.getPoint()));
+        assertThat("Intersection points are NOT equal to " + expectedPoints,
+                points, is(expectedPoints));
+        assertThat("2nd hit is NOT the rectangle", hits.get(1).isRectangle(),
+                is(true));
+
+        final Optional<SpatialIndex.Hit> first =
+                index.getFirstIntersectionPoint(probe, false);
+        assertThat("First hit is NOT the 1st line", first.isPresent() &&
+                !first.get().isRectangle() && first.get().getIndex() == 0,
+                is(true));
+    }
+
+    @Test
+    public void getIntersectionPointsFromEmptyIndex() {
+        final SpatialIndex index = SpatialIndex.of(Collections.emptyList(),
+                Collections.emptyList());
+        final Line2D probe = new Line2D.Double(0, 0, 1, 1);
+
+        assertThat("Intersection points found in empty index",
+                index.getIntersectionPoints(probe, true).isEmpty(), is(true));
+        assertThat("First intersection point found in empty index",
+                index.getFirstIntersectionPoint(probe, true).isPresent(),
+                is(false));
+    }
+
+    @Test
+    public void getIntersectionPointsIsSameAsLinearScan() {
+        final Random random = new Random(20181028);
+
+        final List<Line2D> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final double x = random.nextInt(400) / 4.0;
+            final double y = random.nextInt(400) / 4.0;
+            lines.add(new Line2D.Double(x, y, x + random.nextInt(41) / 4.0 - 5,
+                    y + random.nextInt(41) / 4.0 - 5));
+        }
+        final List<Rectangle2D> rectangles = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rectangles.add(new Rectangle2D.Double(random.nextInt(400) / 4.0,
+                    random.nextInt(400) / 4.0, random.nextInt(20) / 4.0,
+                    random.nextInt(20) / 4.0));
+        }
+
+        final SpatialIndex index = SpatialIndex.of(lines, rectangles);
+        final SpatialIndex.Scratch scratch = new SpatialIndex.Scratch();
+
+        for (int n = 0; n < 200; n++) {
+            final Line2D probe = new Line2D.Double(random.nextInt(400) / 4.0,
+                    random.nextInt(400) / 4.0, random.nextInt(400) / 4.0,
+                    random.nextInt(400) / 4.0);
+            final boolean includesEndpoint = random.nextBoolean();
+
+            final List<SpatialIndex.Hit> expectedHits = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                final Optional<Point2D> point =
+                        IntersectionPoint.getIntersectionPoint(lines.get(i),
+                                probe, includesEndpoint);
+                if (point.isPresent()) {
+                    expectedHits.add(new SpatialIndex.Hit(false, i,
+                            point.get().getX(), point.get().getY(),
+                            probe.getP1().distance(point.get())));
+                }
+            }
+            for (int i = 0; i < rectangles.size(); i++) {
+                for (Point2D point : IntersectionPoint.getIntersectionPoints(
+                        rectangles.get(i), probe, includesEndpoint)) {
+                    expectedHits.add(new SpatialIndex.Hit(true, i,
+                            point.getX(), point.getY(),
+                            probe.getP1().distance(point)));
+                }
+            }
+            expectedHits.sort(SpatialIndex.Hit.DISTANCE_ORDER);
+
+            assertThat("Intersection points are NOT equal to linear scan",
+                    index.getIntersectionPoints(probe, includesEndpoint),
+                    is(expectedHits));
+
+            final List<SpatialIndex.Hit> visitedHits = new ArrayList<>();
+            index.visitIntersectionPoints(probe.getX1(), probe.getY1(),
+                    probe.getX2(), probe.getY2(), includesEndpoint, scratch,
+                    (rectangle, i, x, y, distance) -> visitedHits.add(
+                            new SpatialIndex.Hit(rectangle, i, x, y,
+                                    distance)));
+            assertThat("Visited intersection points are NOT equal to linear " +
+                    "scan", visitedHits, is(expectedHits));
+
+            final Optional<SpatialIndex.Hit> expectedFirst =
+                    expectedHits.stream().findFirst();
+            assertThat("First intersection point is NOT equal to linear scan",
+                    index.getFirstIntersectionPoint(probe, includesEndpoint),
+                    is(expectedFirst));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.zawataki;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Test for {@link SweepLineIntersector}
+ */
+public class SweepLineIntersectorTest {
+
+    @Test
+    public void findIntersectionPointsFromCrossingLines() {
+        final List<Line2D> lines = Arrays.asList(new Line2D.Double(0, 0, 1, 1),
+                new Line2D.Double(5, 5, 6, 6), new Line2D.Double(1, 0, 0, 1),
+                new Line2D.Double(1, 1, 2, 0));
+
+        final Map<List<Integer>, Point2D> pointsWhenExcludesEndpoint =
+                findIntersectionPoints(lines, false);
+
+        final Map<List<Integer>, Point2D> expectedPoints = new HashMap<>();
+        expectedPoints.put(Arrays.asList(0, 2), new Point2D.Double(0.5, 0.5));
+        assertThat("Intersection points are NOT equal to " + expectedPoints +
+                        " when excludes endpoint", pointsWhenExcludesEndpoint,
+                is(expectedPoints));
+
+        final Map<List<Integer>, Point2D> pointsWhenIncludesEndpoint =
+                findIntersectionPoints(lines, true);
+
+        expectedPoints.put(Arrays.asList(0, 3), new Point2D.Double(1, 1));
+        assertThat("Intersection points are NOT equal to " + expectedPoints +
+                        " when includes endpoint", pointsWhenIncludesEndpoint,
+                is(expectedPoints));
+    }
+
+    @Test
+    public void findIntersectionPointsIsSameAsAllPairs() {
+        final Random random = new Random(20181026);
+
+        final List<Line2D> lines = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            final double x = random.nextInt(200) / 4.0;
+            final double y = random.nextInt(200) / 4.0;
+            final double length = i % 10 == 0 ? 40 : 4;
+            lines.add(new Line2D.Double(x, y,
+                    x + random.nextInt(41) / 40.0 * length - length / 2,
+                    y + random.nextInt(41) / 40.0 * length - length / 2));
+        }
+
+        for (boolean includesEndpoint : new boolean[]{true, false}) {
+            assertThat("Intersection points are NOT equal to all pairs when " +
+                            "includes endpoint is " + includesEndpoint,
+                    findIntersectionPoints(lines, includesEndpoint),
+                    is(findIntersectionPointsOfAllPairs(lines,
+                            includesEndpoint)));
+        }
+    }
+
+    @Test
+    public void findIntersectionPointsAmongLongLines() {
+        final Random random = new Random(20190401);
+
+        // Long lines crossed by the sweep line at a time, across short ones
+        final List<Line2D> lines = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            final double x = random.nextInt(400) / 4.0;
+            final double y = random.nextInt(400) / 4.0;
+            if (i % 3 == 0) {
+                lines.add(new Line2D.Double(0, y, 100, y + random.nextInt(5)));
+            } else if (i % 3 == 1) {
+                lines.add(new Line2D.Double(x, 0, x + random.nextInt(5), 100));
+            } else {
+                lines.add(new Line2D.Double(x, y, x + 2, y - 2));
+            }
+        }
+
+        for (boolean includesEndpoint : new boolean[]{true, false}) {
+            assertThat("Intersection points are NOT equal to all pairs when " +
+                            "includes endpoint is " + includesEndpoint,
+                    findIntersectionPoints(lines, includesEndpoint),
+                    is(findIntersectionPointsOfAllPairs(lines,
+                            includesEndpoint)));
+        }
+    }
+
+    private Map<List<Integer>, Point2D> findIntersectionPointsOfAllPairs(
+            List<Line2D> lines, boolean includesEndpoint) {
+
+        final Map<List<Integer>, Point2D> points = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            for (int j = i + 1; j < lines.size(); j++) {
+                final Optional<Point2D> point =
+                        IntersectionPoint.getIntersectionPoint(lines.get(i),
+                                lines.get(j), includesEndpoint);
+                if (point.isPresent()) {
+                    points.put(Arrays.asList(i, j), point.get());
+                }
+            }
+        }
+
+        return points;
+    }
+
+    private Map<List<Integer>, Point2D> findIntersectionPoints(
+            List<Line2D> lines, boolean includesEndpoint) {
+
+        final Map<List<Integer>, Point2D> points = new HashMap<>();
+        SweepLineIntersector.findIntersectionPoints(lines, includesEndpoint,
+                (index1, index2, x, y) -> {
+                    final Point2D previous =
+                            points.put(Arrays.asList(index1, index2),
+                                    new Point2D.Double(x, y));
+                    assertThat("Pair is found twice", previous == null,
+                            is(true));
+                });
+
+        return points;
+    }
+}